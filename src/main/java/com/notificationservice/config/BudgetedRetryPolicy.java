@@ -0,0 +1,43 @@
+package com.notificationservice.config;
+
+import com.notificationservice.service.RetryBudgetService;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+
+public class BudgetedRetryPolicy extends SimpleRetryPolicy {
+
+    static final String BUDGET_EXHAUSTED = "retry.budget.exhausted";
+    private static final String GRANTED_FOR = "retry.budget.granted";
+
+    private final RetryBudgetService retryBudgetService;
+
+    public BudgetedRetryPolicy(int maxAttempts, RetryBudgetService retryBudgetService) {
+        super(maxAttempts);
+        this.retryBudgetService = retryBudgetService;
+    }
+
+    @Override
+    public boolean canRetry(RetryContext context) {
+        if (!super.canRetry(context)) {
+            return false;
+        }
+
+        int retryCount = context.getRetryCount();
+        if (retryCount == 0) {
+            return true; // first delivery is not a retry
+        }
+
+        // RetryTemplate asks twice per failed attempt, only charge the budget once
+        if (Integer.valueOf(retryCount).equals(context.getAttribute(GRANTED_FOR))) {
+            return true;
+        }
+
+        if (retryBudgetService.tryAcquire(RetryBudgetService.ANY, null)) {
+            context.setAttribute(GRANTED_FOR, retryCount);
+            return true;
+        }
+
+        context.setAttribute(BUDGET_EXHAUSTED, true);
+        return false;
+    }
+}
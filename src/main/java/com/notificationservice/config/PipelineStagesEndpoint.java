@@ -0,0 +1,62 @@
+package com.notificationservice.config;
+
+import com.notificationservice.service.MetricsService;
+import com.notificationservice.service.PipelineStage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code /actuator/pipeline}: all send pipeline stage timers in one response, in pipeline order,
+ * with the share of the total time each stage accounts for.
+ */
+@Component
+@Endpoint(id = "pipeline")
+@RequiredArgsConstructor
+public class PipelineStagesEndpoint {
+
+    private final MeterRegistry meterRegistry;
+
+    @ReadOperation
+    public Map<String, Object> stages() {
+        Map<String, HistogramSnapshot> snapshots = new LinkedHashMap<>();
+        double totalMs = 0;
+        for (PipelineStage stage : PipelineStage.values()) {
+            Timer timer = meterRegistry.find(MetricsService.STAGE_TIMER).tag("stage", stage.tag()).timer();
+            if (timer != null && timer.count() > 0) {
+                HistogramSnapshot snapshot = timer.takeSnapshot();
+                snapshots.put(stage.tag(), snapshot);
+                totalMs += snapshot.total(TimeUnit.MILLISECONDS);
+            }
+        }
+
+        Map<String, Object> stages = new LinkedHashMap<>();
+        for (Map.Entry<String, HistogramSnapshot> entry : snapshots.entrySet()) {
+            HistogramSnapshot snapshot = entry.getValue();
+            Map<String, Object> stage = new LinkedHashMap<>();
+            stage.put("count", snapshot.count());
+            stage.put("totalMs", snapshot.total(TimeUnit.MILLISECONDS));
+            stage.put("meanMs", snapshot.mean(TimeUnit.MILLISECONDS));
+            stage.put("maxMs", snapshot.max(TimeUnit.MILLISECONDS));
+            for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+                stage.put("p" + Math.round(percentile.percentile() * 100) + "Ms", percentile.value(TimeUnit.MILLISECONDS));
+            }
+            stage.put("shareOfTotal", totalMs > 0 ? snapshot.total(TimeUnit.MILLISECONDS) / totalMs : 0.0);
+            stages.put(entry.getKey(), stage);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("totalMs", totalMs);
+        result.put("stages", stages);
+        return result;
+    }
+}
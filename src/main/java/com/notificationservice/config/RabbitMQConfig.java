@@ -1,5 +1,8 @@
 package com.notificationservice.config;
 
+import com.notificationservice.messaging.ConditionalOnRabbitDispatch;
+import com.notificationservice.service.RetryBudgetService;
+import com.notificationservice.service.RetryService;
 import org.springframework.amqp.core.*;
 import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
@@ -13,9 +16,12 @@ import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.backoff.ExponentialBackOffPolicy;
 import org.springframework.retry.interceptor.RetryOperationsInterceptor;
+import org.springframework.retry.support.RetryTemplate;
 
 @Configuration
+@ConditionalOnRabbitDispatch
 public class RabbitMQConfig {
 
     @Value("${spring.rabbitmq.host:localhost}")
@@ -36,6 +42,7 @@ public class RabbitMQConfig {
     public static final String NOTIFICATION_DLQ_EXCHANGE = "notification.dlq.exchange";
     public static final String NOTIFICATION_ROUTING_KEY = "notification.routing.key";
     public static final String NOTIFICATION_DLQ_ROUTING_KEY = "notification.dlq.routing.key";
+    public static final int MAX_PRIORITY = 10;
 
     @Bean
     public ConnectionFactory connectionFactory() {
@@ -45,6 +52,9 @@ public class RabbitMQConfig {
         connectionFactory.setUsername(username);
         connectionFactory.setPassword(password);
         connectionFactory.setChannelCacheSize(25);
+        // Asynchronous confirms instead of a tx.select/tx.commit round-trip per message
+        connectionFactory.setPublisherConfirmType(CachingConnectionFactory.ConfirmType.CORRELATED);
+        connectionFactory.setPublisherReturns(true);
         return connectionFactory;
     }
 
@@ -52,7 +62,7 @@ public class RabbitMQConfig {
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(jsonMessageConverter());
-        rabbitTemplate.setChannelTransacted(true);
+        rabbitTemplate.setMandatory(true);
         rabbitTemplate.setReplyTimeout(60000);
         rabbitTemplate.setReceiveTimeout(60000);
         return rabbitTemplate;
@@ -70,7 +80,9 @@ public class RabbitMQConfig {
 
     @Bean
     public Queue notificationQueue() {
+        // Priority queue so HIGH notifications (OTP etc.) overtake bulk traffic already queued
         return QueueBuilder.durable(NOTIFICATION_QUEUE)
+                .maxPriority(MAX_PRIORITY)
                 .withArgument("x-dead-letter-exchange", NOTIFICATION_DLQ_EXCHANGE)
                 .withArgument("x-dead-letter-routing-key", NOTIFICATION_DLQ_ROUTING_KEY)
                 .build();
@@ -106,16 +118,26 @@ public class RabbitMQConfig {
     }
 
     @Bean
-    public RetryOperationsInterceptor retryInterceptor() {
+    public RetryOperationsInterceptor retryInterceptor(RetryBudgetService retryBudgetService, RetryService retryService) {
+        ExponentialBackOffPolicy backOffPolicy = new ExponentialBackOffPolicy();
+        backOffPolicy.setInitialInterval(1000);
+        backOffPolicy.setMultiplier(2.0);
+        backOffPolicy.setMaxInterval(10000);
+
+        RetryTemplate retryTemplate = new RetryTemplate();
+        retryTemplate.setRetryPolicy(new BudgetedRetryPolicy(3, retryBudgetService));
+        retryTemplate.setBackOffPolicy(backOffPolicy);
+
         return RetryInterceptorBuilder.stateless()
-                .maxAttempts(3)
-                .backOffOptions(1000, 2.0, 10000)
-                .recoverer(new RejectAndDontRequeueRecoverer())
+                .retryOperations(retryTemplate)
+                .recoverer(new RetryBudgetMessageRecoverer(
+                        new RejectAndDontRequeueRecoverer(), jsonMessageConverter(), retryService))
                 .build();
     }
 
     @Bean
-    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory) {
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,
+                                                                              RetryOperationsInterceptor retryInterceptor) {
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(jsonMessageConverter());
@@ -123,7 +145,7 @@ public class RabbitMQConfig {
         factory.setMaxConcurrentConsumers(10);
         factory.setPrefetchCount(1);
         factory.setDefaultRequeueRejected(false);
-        factory.setAdviceChain(retryInterceptor());
+        factory.setAdviceChain(retryInterceptor);
         return factory;
     }
 }
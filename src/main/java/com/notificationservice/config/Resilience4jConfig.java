@@ -1,5 +1,6 @@
 package com.notificationservice.config;
 
+import com.notificationservice.service.RetryBudgetService;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.retry.RetryConfig;
@@ -12,6 +13,8 @@ import java.time.Duration;
 @Configuration
 public class Resilience4jConfig {
 
+    private static final Duration RETRY_WAIT = Duration.ofSeconds(2);
+
     @Bean
     public CircuitBreakerRegistry circuitBreakerRegistry() {
         CircuitBreakerConfig config = CircuitBreakerConfig.custom()
@@ -29,14 +32,28 @@ public class Resilience4jConfig {
     }
 
     @Bean
-    public RetryRegistry retryRegistry() {
-        RetryConfig config = RetryConfig.custom()
+    public RetryRegistry retryRegistry(RetryBudgetService retryBudgetService) {
+        return RetryRegistry.of(budgetedRetryConfig(retryBudgetService, RETRY_WAIT));
+    }
+
+    static RetryConfig budgetedRetryConfig(RetryBudgetService retryBudgetService, Duration wait) {
+        return RetryConfig.custom()
                 .maxAttempts(3)
-                .waitDuration(Duration.ofSeconds(2))
-                .retryExceptions(Exception.class)
+                .retryOnException(e -> !(e instanceof IllegalArgumentException))
                 .ignoreExceptions(IllegalArgumentException.class)
+                // Only called when another attempt follows, so the last failure does not cost a token.
+                // Without a token the call fails with the error of the attempt that just failed
+                .intervalBiFunction((attempt, outcome) -> {
+                    if (outcome.isLeft() && !retryBudgetService.tryAcquire(RetryBudgetService.ANY, null)) {
+                        throw Resilience4jConfig.<RuntimeException>rethrow(outcome.getLeft());
+                    }
+                    return wait.toMillis();
+                })
                 .build();
+    }
 
-        return RetryRegistry.of(config);
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> E rethrow(Throwable error) throws E {
+        throw (E) error;
     }
 }
@@ -0,0 +1,42 @@
+package com.notificationservice.config;
+
+import com.notificationservice.messaging.NotificationSnapshotCodec;
+import com.notificationservice.service.RetryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.retry.MessageRecoverer;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.support.RetrySynchronizationManager;
+
+@Slf4j
+@RequiredArgsConstructor
+public class RetryBudgetMessageRecoverer implements MessageRecoverer {
+
+    private final MessageRecoverer delegate;
+    private final MessageConverter messageConverter;
+    private final RetryService retryService;
+
+    @Override
+    public void recover(Message message, Throwable cause) {
+        RetryContext context = RetrySynchronizationManager.getContext();
+
+        if (context == null || context.getAttribute(BudgetedRetryPolicy.BUDGET_EXHAUSTED) == null) {
+            delegate.recover(message, cause);
+            return;
+        }
+
+        // Not exhausted, just over budget: ack the delivery and hand it to the deferred retry queue
+        String notificationId;
+        try {
+            notificationId = NotificationSnapshotCodec.readNotificationId(message, messageConverter);
+        } catch (MessageConversionException e) {
+            log.warn("Cannot defer message without a readable notification id, rejecting: {}", e.getMessage());
+            delegate.recover(message, cause);
+            return;
+        }
+        retryService.deferRetry(notificationId, null);
+    }
+}
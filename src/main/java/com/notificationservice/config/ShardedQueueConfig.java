@@ -0,0 +1,68 @@
+package com.notificationservice.config;
+
+import com.notificationservice.messaging.ConditionalOnRabbitDispatch;
+import com.notificationservice.messaging.EnhancedNotificationConsumer;
+import com.notificationservice.messaging.RecipientShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recipient-sharded topology: one queue per shard, each consumed by a single active consumer
+ * across all replicas, which keeps per-recipient ordering while shards are processed in parallel.
+ * Shard queues are not priority queues: a priority queue would let a later HIGH message overtake
+ * an earlier one for the same recipient.
+ */
+@Profile("!dev")
+@Configuration
+@ConditionalOnRabbitDispatch
+@ConditionalOnProperty(name = "notification.sharding.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class ShardedQueueConfig implements RabbitListenerConfigurer {
+
+    private final RecipientShardRouter shardRouter;
+    private final EnhancedNotificationConsumer notificationConsumer;
+    private final SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory;
+
+    @Bean
+    public Declarables notificationShardDeclarables() {
+        DirectExchange exchange = new DirectExchange(RecipientShardRouter.SHARD_EXCHANGE);
+        List<Declarable> declarables = new ArrayList<>();
+        declarables.add(exchange);
+
+        for (int shard = 0; shard < shardRouter.getShards(); shard++) {
+            String name = RecipientShardRouter.queueName(shard);
+            Queue queue = QueueBuilder.durable(name)
+                    .singleActiveConsumer()
+                    .withArgument("x-dead-letter-exchange", RabbitMQConfig.NOTIFICATION_DLQ_EXCHANGE)
+                    .withArgument("x-dead-letter-routing-key", RabbitMQConfig.NOTIFICATION_DLQ_ROUTING_KEY)
+                    .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(exchange).with(name));
+        }
+        return new Declarables(declarables);
+    }
+
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        for (int shard = 0; shard < shardRouter.getShards(); shard++) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId("notification-shard-" + shard);
+            endpoint.setQueueNames(RecipientShardRouter.queueName(shard));
+            // One consumer and prefetch 1 per shard, otherwise ordering within the shard is lost
+            endpoint.setConcurrency("1");
+            endpoint.setMessageListener(notificationConsumer::onNotificationMessage);
+            registrar.registerEndpoint(endpoint, rabbitListenerContainerFactory);
+        }
+    }
+}
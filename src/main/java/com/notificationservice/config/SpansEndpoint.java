@@ -0,0 +1,35 @@
+package com.notificationservice.config;
+
+import com.notificationservice.service.SpanRecorder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/spans}: the most recent recorded pipeline spans, and
+ * {@code /actuator/spans/{notificationId}}: all spans still buffered for one notification.
+ */
+@Component
+@Endpoint(id = "spans")
+@RequiredArgsConstructor
+public class SpansEndpoint {
+
+    static final int DEFAULT_LIMIT = 200;
+
+    private final SpanRecorder spanRecorder;
+
+    @ReadOperation
+    public List<SpanRecorder.Span> recent(@Nullable Integer limit) {
+        return spanRecorder.getSpans(null, limit != null && limit > 0 ? limit : DEFAULT_LIMIT);
+    }
+
+    @ReadOperation
+    public List<SpanRecorder.Span> notification(@Selector String notificationId) {
+        return spanRecorder.getSpans(notificationId, Integer.MAX_VALUE);
+    }
+}
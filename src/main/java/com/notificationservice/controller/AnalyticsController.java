@@ -1,7 +1,9 @@
 package com.notificationservice.controller;
 
 import com.notificationservice.dto.NotificationStats;
+import com.notificationservice.entity.NotificationRollup;
 import com.notificationservice.service.AnalyticsService;
+import com.notificationservice.service.TopRecipientsService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +12,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @RestController
@@ -40,12 +43,24 @@ public class AnalyticsController {
         return ResponseEntity.ok(dailyCounts);
     }
 
+    @GetMapping("/timeseries")
+    @Operation(summary = "Get notification counts per minute, hour or day")
+    public ResponseEntity<Map<LocalDateTime, Long>> getTimeSeries(
+            @RequestParam(defaultValue = "HOUR") NotificationRollup.Granularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+
+        Map<LocalDateTime, Long> series = analyticsService.getTimeSeries(granularity, from, to);
+        return ResponseEntity.ok(series);
+    }
+
     @GetMapping("/top-recipients")
-    @Operation(summary = "Get top notification recipients")
+    @Operation(summary = "Get approximate top recipients of sent notifications in the current hour or last day")
     public ResponseEntity<Map<String, Long>> getTopRecipients(
-            @RequestParam(defaultValue = "10") int limit) {
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "DAY") TopRecipientsService.Window window) {
 
-        Map<String, Long> topRecipients = analyticsService.getTopRecipients(limit);
+        Map<String, Long> topRecipients = analyticsService.getTopRecipients(limit, window);
         return ResponseEntity.ok(topRecipients);
     }
 
@@ -56,6 +71,13 @@ public class AnalyticsController {
         return ResponseEntity.ok(failureReasons);
     }
 
+    @GetMapping("/failure-reasons/live")
+    @Operation(summary = "Get failure counts per error fingerprint since this instance started")
+    public ResponseEntity<Map<String, Long>> getLiveFailureReasons() {
+        Map<String, Long> failureReasons = analyticsService.getLiveFailureReasons();
+        return ResponseEntity.ok(failureReasons);
+    }
+
     @GetMapping("/avg-processing-time")
     @Operation(summary = "Get average processing time")
     public ResponseEntity<Double> getAverageProcessingTime() {
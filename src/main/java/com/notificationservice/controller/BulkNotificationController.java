@@ -1,16 +1,26 @@
 package com.notificationservice.controller;
 
 import com.notificationservice.dto.BulkEmailRequest;
-import com.notificationservice.dto.NotificationResponse;
+import com.notificationservice.dto.BulkIngestionResult;
+import com.notificationservice.dto.BulkJobStatus;
+import com.notificationservice.dto.BulkProcessingStats;
+import com.notificationservice.dto.EmailRequest;
+import com.notificationservice.dto.SegmentSendRequest;
+import com.notificationservice.service.BulkIngestionService;
+import com.notificationservice.service.BulkJobService;
 import com.notificationservice.service.BulkNotificationService;
+import com.notificationservice.service.CampaignCancellationService;
+import com.notificationservice.service.SegmentFanoutService;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
 
 @Slf4j
@@ -20,22 +30,26 @@ import java.util.concurrent.CompletableFuture;
 public class BulkNotificationController {
 
     private final BulkNotificationService bulkNotificationService;
+    private final BulkIngestionService bulkIngestionService;
+    private final BulkJobService bulkJobService;
+    private final SegmentFanoutService segmentFanoutService;
+    private final CampaignCancellationService campaignCancellationService;
 
     @PostMapping("/email")
     @RateLimiter(name = "bulkEmailRateLimit")
-    public ResponseEntity<List<NotificationResponse>> sendBulkEmails(
+    public ResponseEntity<BulkProcessingStats> sendBulkEmails(
             @Valid @RequestBody BulkEmailRequest request) {
 
         log.info("Received bulk email request for {} recipients", request.getEmails().size());
 
-        List<NotificationResponse> responses = bulkNotificationService.sendBulkEmails(request);
+        BulkProcessingStats stats = bulkNotificationService.sendBulkEmails(request);
 
-        return ResponseEntity.ok(responses);
+        return ResponseEntity.ok(stats);
     }
 
     @PostMapping("/email/async")
     @RateLimiter(name = "bulkEmailRateLimit")
-    public CompletableFuture<ResponseEntity<List<NotificationResponse>>> sendBulkEmailsAsync(
+    public CompletableFuture<ResponseEntity<BulkProcessingStats>> sendBulkEmailsAsync(
             @Valid @RequestBody BulkEmailRequest request) {
 
         log.info("Received async bulk email request for {} recipients", request.getEmails().size());
@@ -44,6 +58,62 @@ public class BulkNotificationController {
                 .thenApply(ResponseEntity::ok);
     }
 
+    @PostMapping("/email/jobs")
+    @RateLimiter(name = "bulkEmailRateLimit")
+    public ResponseEntity<BulkJobStatus> submitBulkEmails(
+            @Valid @RequestBody BulkEmailRequest request) {
+
+        log.info("Received bulk email job for {} recipients", request.getEmails().size());
+
+        BulkJobStatus job = bulkNotificationService.submitBulkEmails(request);
+
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @PostMapping("/segment")
+    @RateLimiter(name = "bulkEmailRateLimit")
+    public ResponseEntity<BulkJobStatus> sendToSegment(@Valid @RequestBody SegmentSendRequest request) {
+
+        log.info("Received {} segment send request", request.getChannel());
+
+        BulkJobStatus job = segmentFanoutService.submit(request);
+
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<BulkJobStatus> getBulkJob(@PathVariable String jobId) {
+        return bulkJobService.getStatus(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Withdraws every not yet sent notification of the job; queued messages are dropped by the consumers
+    @PostMapping("/{jobId}/cancel")
+    public ResponseEntity<BulkJobStatus> cancelBulkJob(@PathVariable String jobId) {
+
+        log.info("Received cancel request for bulk job {}", jobId);
+
+        return campaignCancellationService.cancel(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // One EmailRequest JSON object per line; the body is read incrementally, never bound as a whole.
+    // priority is the default for records without one
+    @PostMapping(value = "/email/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @RateLimiter(name = "bulkEmailRateLimit")
+    public ResponseEntity<BulkIngestionResult> streamBulkEmails(
+            @RequestParam(defaultValue = "NORMAL") EmailRequest.Priority priority,
+            HttpServletRequest request) throws IOException {
+
+        log.info("Received streaming bulk email request");
+
+        BulkIngestionResult result = bulkIngestionService.ingest(request.getInputStream(), priority);
+
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Bulk notification service is healthy");
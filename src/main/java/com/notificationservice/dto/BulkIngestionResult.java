@@ -0,0 +1,22 @@
+package com.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkIngestionResult {
+    private long received;
+    private long accepted;
+    private long rejected;
+    // First errors only, so the response stays small for any stream size
+    private List<String> errors = new ArrayList<>();
+    // Set when the stream stopped on malformed JSON; everything accepted before that is kept
+    private boolean truncated;
+    private long processingTimeMs;
+}
@@ -0,0 +1,25 @@
+package com.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkJobStatus {
+    private String jobId;
+    private String status;
+    private long accepted;
+    private long duplicates;
+    private long sent;
+    private long failed;
+    private long cancelled;
+    private long pending;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+}
@@ -5,6 +5,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Data
 @NoArgsConstructor
@@ -13,6 +15,8 @@ public class BulkProcessingStats {
     private int totalProcessed = 0;
     private int successCount = 0;
     private int failureCount = 0;
+    private int duplicateCount = 0;
+    private List<String> failedIds = new ArrayList<>();
     private LocalDateTime startTime;
     private LocalDateTime endTime;
     private long processingTimeMs = 0;
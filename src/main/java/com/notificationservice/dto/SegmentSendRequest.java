@@ -0,0 +1,40 @@
+package com.notificationservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Send to every active user of a segment; the server expands the audience.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SegmentSendRequest {
+
+    public enum Channel {
+        EMAIL, PUSH
+    }
+
+    @NotNull(message = "Channel is required")
+    private Channel channel;
+
+    // Push only: restrict to one platform, all platforms when empty
+    @Pattern(regexp = "IOS|ANDROID|WEB", message = "Platform must be IOS, ANDROID or WEB")
+    private String platform;
+
+    // Email subject
+    private String subject;
+
+    // Push title
+    private String title;
+
+    @NotBlank(message = "Message content is required")
+    private String message;
+
+    @NotNull(message = "Priority is required")
+    private Priority priority = Priority.NORMAL;
+}
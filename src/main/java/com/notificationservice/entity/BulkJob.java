@@ -0,0 +1,55 @@
+package com.notificationservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "bulk_jobs")
+public class BulkJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(nullable = false, length = 50)
+    private String type;
+
+    // RUNNING, COMPLETED, FAILED, CANCELLED
+    @Column(nullable = false, length = 20)
+    private String status = "RUNNING";
+
+    @Column(length = 20)
+    private String priority = "NORMAL";
+
+    @Column(name = "accepted_count", nullable = false)
+    private long acceptedCount;
+
+    @Column(name = "duplicate_count", nullable = false)
+    private long duplicateCount;
+
+    @Column(name = "sent_count", nullable = false)
+    private long sentCount;
+
+    @Column(name = "failed_count", nullable = false)
+    private long failedCount;
+
+    @Column(name = "cancelled_count", nullable = false)
+    private long cancelledCount;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // For cancelled jobs the time of the cancel
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -1,15 +1,20 @@
 package com.notificationservice.entity;
 
+import com.notificationservice.utils.ErrorFingerprint;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 
 @Data
 @Entity
 @Table(name = "notifications")
+@EntityListeners(NotificationStatusListener.class)
 public class Notification {
 
     @Id
@@ -37,6 +42,13 @@ public class Notification {
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
 
+    // Normalized form of errorMessage, see ErrorFingerprint; set together with it
+    @Column(name = "error_fingerprint", length = ErrorFingerprint.FINGERPRINT_LENGTH)
+    private String errorFingerprint;
+
+    @Column(name = "error_category", length = 30)
+    private String errorCategory;
+
     @Column(name = "retry_count")
     private int retryCount = 0;
 
@@ -54,6 +66,7 @@ public class Notification {
     @Column(name = "sent_at")
     private LocalDateTime sentAt;
 
+    // Created -> sent latency in milliseconds, set together with sentAt
     @Column(name = "processing_time")
     private Long processingTime;
 
@@ -61,6 +74,43 @@ public class Notification {
     @Column(length = 500)
     private String title;
 
+    // Delivery provider of the last send attempt, e.g. smtp or fcm
+    @Column(length = 50)
+    private String provider;
+
+    // bulk_jobs.id of the campaign this notification was sent for
+    @Column(name = "campaign_id", length = 36)
+    private String campaignId;
+
+    // Until when a database work-queue worker holds the PROCESSING row, see DatabaseWorkQueue
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    // Status as last read from or written to the database, see NotificationStatusListener
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String loadedStatus;
+
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private String loadedProvider;
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+        ErrorFingerprint fingerprint = ErrorFingerprint.of(errorMessage);
+        this.errorFingerprint = fingerprint != null ? fingerprint.fingerprint() : null;
+        this.errorCategory = fingerprint != null ? fingerprint.category() : null;
+    }
+
+    public void setSentAt(LocalDateTime sentAt) {
+        this.sentAt = sentAt;
+        this.processingTime = sentAt != null && createdAt != null
+                ? Math.max(0, Duration.between(createdAt, sentAt).toMillis())
+                : null;
+    }
+
     @PrePersist
     protected void onCreate() {
         if (createdAt == null) {
@@ -0,0 +1,57 @@
+package com.notificationservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Number of notifications created in one time bucket that currently have the given status.
+ * Maintained by {@link com.notificationservice.service.AnalyticsRollupService}.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "notification_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_notification_rollups_key",
+                columnNames = {"granularity", "bucket_start", "type", "status", "priority", "provider"}))
+public class NotificationRollup {
+
+    public enum Granularity {
+        MINUTE, HOUR, DAY
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Granularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false, length = 50)
+    private String type;
+
+    @Column(nullable = false, length = 50)
+    private String status;
+
+    @Column(nullable = false, length = 20)
+    private String priority;
+
+    @Column(nullable = false, length = 50)
+    private String provider;
+
+    @Column(nullable = false)
+    private long count;
+
+    // Over the counted notifications that have a processing time, i.e. the SENT ones
+    @Column(name = "processing_time_sum", nullable = false)
+    private long processingTimeSum;
+
+    @Column(name = "processing_time_count", nullable = false)
+    private long processingTimeCount;
+}
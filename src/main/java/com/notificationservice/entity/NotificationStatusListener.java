@@ -0,0 +1,46 @@
+package com.notificationservice.entity;
+
+import com.notificationservice.service.StatusTransitionPublisher;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * Detects status changes of {@link Notification} on flush and hands them to the
+ * {@link StatusTransitionPublisher}. Hibernate obtains this listener from the Spring context.
+ */
+@Component
+public class NotificationStatusListener {
+
+    private final ObjectProvider<StatusTransitionPublisher> publisher;
+
+    public NotificationStatusListener(ObjectProvider<StatusTransitionPublisher> publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostLoad
+    public void onLoad(Notification notification) {
+        notification.setLoadedStatus(notification.getStatus());
+        notification.setLoadedProvider(notification.getProvider());
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onWrite(Notification notification) {
+        String previousStatus = notification.getLoadedStatus();
+        String previousProvider = notification.getLoadedProvider();
+        notification.setLoadedStatus(notification.getStatus());
+        notification.setLoadedProvider(notification.getProvider());
+        if (Objects.equals(previousStatus, notification.getStatus())) {
+            return;
+        }
+        StatusTransitionPublisher transitions = publisher.getIfAvailable();
+        if (transitions != null) {
+            transitions.statusChanged(notification, previousStatus, previousProvider);
+        }
+    }
+}
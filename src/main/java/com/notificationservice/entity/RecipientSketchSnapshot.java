@@ -0,0 +1,39 @@
+package com.notificationservice.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One replica's top-recipient sketch for one hour, stored so replicas can merge each other's counts.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "recipient_sketches",
+        uniqueConstraints = @UniqueConstraint(name = "uk_recipient_sketches_replica_hour",
+                columnNames = {"replica_id", "hour_start"}))
+public class RecipientSketchSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @Column(name = "replica_id", nullable = false, length = 36)
+    private String replicaId;
+
+    @Column(name = "hour_start", nullable = false)
+    private LocalDateTime hourStart;
+
+    @Column(nullable = false)
+    private long total;
+
+    // JSON array of [recipient, count, error] estimates
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,17 @@
+package com.notificationservice.exception;
+
+import java.io.Serial;
+
+public class MessagePublishException extends NotificationException {
+
+    @Serial
+    private static final long serialVersionUID = -4385220760314711508L;
+
+    public MessagePublishException(String message) {
+        super(message);
+    }
+
+    public MessagePublishException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
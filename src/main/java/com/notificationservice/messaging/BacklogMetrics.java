@@ -0,0 +1,145 @@
+package com.notificationservice.messaging;
+
+import com.notificationservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Backlog gauges for autoscaling: depth of every declared queue, count and age of the oldest
+ * PENDING notification, and how busy the listener consumers are. Values are refreshed on a
+ * schedule, so a scrape only reads fields and never reaches the broker or the database.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BacklogMetrics {
+
+    private static final List<String> SEND_TIMERS = List.of(
+            "notification.email.processing.time", "notification.push.processing.time");
+
+    private final MeterRegistry meterRegistry;
+    private final NotificationRepository notificationRepository;
+    private final ObjectProvider<RabbitAdmin> rabbitAdmin;
+    private final ObjectProvider<RabbitListenerEndpointRegistry> listenerEndpointRegistry;
+    private final ObjectProvider<Queue> queues;
+    private final ObjectProvider<Declarables> declarables;
+
+    private final Map<String, AtomicLong> queueDepths = new TreeMap<>();
+    private final AtomicLong pendingCount = new AtomicLong();
+    // Epoch millis of the oldest PENDING notification, 0 when there is none
+    private final AtomicLong oldestPendingMillis = new AtomicLong();
+    private volatile double consumerUtilization;
+
+    private long lastBusyNanos = -1;
+    private long lastRefreshNanos;
+
+    @PostConstruct
+    void registerGauges() {
+        queues.orderedStream().forEach(queue -> queueDepths.put(queue.getName(), new AtomicLong()));
+        declarables.orderedStream().forEach(group -> group.getDeclarablesByType(Queue.class)
+                .forEach(queue -> queueDepths.put(queue.getName(), new AtomicLong())));
+
+        queueDepths.forEach((name, depth) ->
+                Gauge.builder("notification.queue.depth", depth, AtomicLong::get)
+                        .description("Messages ready in the queue, as of the last refresh")
+                        .tag("queue", name)
+                        .register(meterRegistry));
+        Gauge.builder("notification.backlog.pending", pendingCount, AtomicLong::get)
+                .description("Notifications in PENDING status")
+                .register(meterRegistry);
+        Gauge.builder("notification.backlog.oldest.age", oldestPendingMillis, BacklogMetrics::ageSeconds)
+                .description("Age of the oldest PENDING notification")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("notification.consumers.utilization", this, metrics -> metrics.consumerUtilization)
+                .description("Share of time listener consumers spent sending since the last refresh")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.metrics.backlog.refresh-interval:15000}")
+    public synchronized void refresh() {
+        refreshQueueDepths();
+        try {
+            pendingCount.set(notificationRepository.countByStatus("PENDING"));
+            LocalDateTime oldest = notificationRepository.findOldestCreatedAtByStatus("PENDING");
+            oldestPendingMillis.set(oldest != null ? oldest.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0);
+        } catch (Exception e) {
+            log.debug("Pending backlog unavailable: {}", e.getMessage());
+        }
+        refreshUtilization();
+    }
+
+    private void refreshQueueDepths() {
+        RabbitAdmin admin = rabbitAdmin.getIfAvailable();
+        if (admin == null) {
+            return;
+        }
+        queueDepths.forEach((name, depth) -> {
+            try {
+                QueueInformation info = admin.getQueueInfo(name);
+                if (info != null) {
+                    depth.set(info.getMessageCount());
+                }
+            } catch (Exception e) {
+                log.debug("Queue depth of {} unavailable: {}", name, e.getMessage());
+            }
+        });
+    }
+
+    private void refreshUtilization() {
+        long busyNanos = 0;
+        for (String name : SEND_TIMERS) {
+            Timer timer = meterRegistry.find(name).timer();
+            if (timer != null) {
+                busyNanos += (long) timer.totalTime(TimeUnit.NANOSECONDS);
+            }
+        }
+        long now = System.nanoTime();
+        if (lastBusyNanos >= 0) {
+            int consumers = activeConsumers();
+            long elapsed = now - lastRefreshNanos;
+            consumerUtilization = consumers > 0 && elapsed > 0
+                    ? Math.min(1.0, (double) (busyNanos - lastBusyNanos) / ((double) elapsed * consumers))
+                    : 0;
+        }
+        lastBusyNanos = busyNanos;
+        lastRefreshNanos = now;
+    }
+
+    private int activeConsumers() {
+        RabbitListenerEndpointRegistry registry = listenerEndpointRegistry.getIfAvailable();
+        if (registry == null) {
+            return 0;
+        }
+        return registry.getListenerContainers().stream()
+                .filter(SimpleMessageListenerContainer.class::isInstance)
+                .mapToInt(container -> ((SimpleMessageListenerContainer) container).getActiveConsumerCount())
+                .sum();
+    }
+
+    private static double ageSeconds(AtomicLong oldestMillis) {
+        long oldest = oldestMillis.get();
+        return oldest > 0 ? Math.max(0, System.currentTimeMillis() - oldest) / 1000.0 : 0;
+    }
+}
@@ -0,0 +1,21 @@
+package com.notificationservice.messaging;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks beans that only exist when notifications are dispatched through RabbitMQ
+ * ({@code notification.dispatch.backend=rabbitmq}, the default), so the embedded and database
+ * backends run without a broker.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Documented
+@ConditionalOnProperty(name = "notification.dispatch.backend", havingValue = "rabbitmq", matchIfMissing = true)
+public @interface ConditionalOnRabbitDispatch {
+}
@@ -0,0 +1,185 @@
+package com.notificationservice.messaging;
+
+import com.notificationservice.config.RabbitMQConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AIMD tuning of consumer count and prefetch for notification.queue. Concurrency grows by one step
+ * while there is a backlog, consumers are busy and send latency is under target, and is halved as
+ * soon as latency goes over target so a struggling provider is not hammered harder.
+ * <p>
+ * The prefetch is only taken by consumers the container starts after a change, the running ones
+ * keep the prefetch they subscribed with; they are not restarted for it, which would requeue
+ * their unacked deliveries.
+ */
+@Profile("!dev")
+@Component
+@ConditionalOnRabbitDispatch
+@ConditionalOnProperty(name = "notification.consumers.adaptive.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ConsumerConcurrencyTuner {
+
+    private static final List<String> SEND_TIMERS = List.of(
+            "notification.email.processing.time", "notification.push.processing.time");
+
+    private final RabbitListenerEndpointRegistry listenerEndpointRegistry;
+    private final RabbitAdmin rabbitAdmin;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${notification.consumers.adaptive.min-consumers:3}")
+    private int minConsumers = 3;
+
+    @Value("${notification.consumers.adaptive.max-consumers:20}")
+    private int maxConsumers = 20;
+
+    @Value("${notification.consumers.adaptive.min-prefetch:1}")
+    private int minPrefetch = 1;
+
+    @Value("${notification.consumers.adaptive.max-prefetch:10}")
+    private int maxPrefetch = 10;
+
+    @Value("${notification.consumers.adaptive.target-latency-ms:2000}")
+    private long targetLatencyMs = 2000;
+
+    @Value("${notification.consumers.adaptive.high-utilization:0.7}")
+    private double highUtilization = 0.7;
+
+    private int consumers = -1;
+    private int prefetch = -1;
+    private long lastCount;
+    private double lastTotalMs;
+    // 0 until the first tick, which only records the baseline
+    private long lastTickNanos;
+
+    @Scheduled(fixedDelayString = "${notification.consumers.adaptive.interval:10000}",
+            initialDelayString = "${notification.consumers.adaptive.interval:10000}")
+    public synchronized void tune() {
+        List<SimpleMessageListenerContainer> containers = notificationQueueContainers();
+        if (containers.isEmpty()) {
+            return;
+        }
+        if (consumers < 0) {
+            consumers = minConsumers;
+            prefetch = minPrefetch;
+        }
+
+        long depth;
+        try {
+            QueueInformation info = rabbitAdmin.getQueueInfo(RabbitMQConfig.NOTIFICATION_QUEUE);
+            if (info == null) {
+                return;
+            }
+            depth = info.getMessageCount();
+        } catch (Exception e) {
+            log.debug("Skipping consumer tuning, queue depth unavailable: {}", e.getMessage());
+            return;
+        }
+
+        long count = 0;
+        double totalMs = 0;
+        for (String name : SEND_TIMERS) {
+            Timer timer = meterRegistry.find(name).timer();
+            if (timer != null) {
+                count += timer.count();
+                totalMs += timer.totalTime(TimeUnit.MILLISECONDS);
+            }
+        }
+        long now = System.nanoTime();
+        long deliveries = count - lastCount;
+        double busyMs = totalMs - lastTotalMs;
+        double elapsedMs = (now - lastTickNanos) / 1_000_000.0;
+        boolean firstTick = lastTickNanos == 0;
+        lastCount = count;
+        lastTotalMs = totalMs;
+        lastTickNanos = now;
+        if (firstTick) {
+            return;
+        }
+
+        // Consumers actually running, which lag the target while the container starts or stops them
+        int activeConsumers = containers.stream().mapToInt(SimpleMessageListenerContainer::getActiveConsumerCount).sum();
+        double latencyMs = deliveries > 0 ? busyMs / deliveries : 0;
+        double utilization = elapsedMs > 0 ? busyMs / (elapsedMs * Math.max(1, activeConsumers)) : 0;
+
+        int previousConsumers = consumers;
+        if (adjust(depth, latencyMs, utilization)) {
+            for (SimpleMessageListenerContainer container : containers) {
+                // Only reaches consumers started from now on, see the class comment
+                container.setPrefetchCount(prefetch);
+                // The container requires concurrent <= max at every step, so the order depends on the direction
+                if (consumers < previousConsumers) {
+                    container.setConcurrentConsumers(consumers);
+                    container.setMaxConcurrentConsumers(consumers);
+                } else {
+                    container.setMaxConcurrentConsumers(consumers);
+                    container.setConcurrentConsumers(consumers);
+                }
+            }
+            log.info("Consumer tuning: depth={}, latency={}ms, utilization={}, active={} -> consumers={}, "
+                            + "prefetch of new consumers={}",
+                    depth, Math.round(latencyMs), String.format("%.2f", utilization), activeConsumers, consumers,
+                    prefetch);
+        }
+    }
+
+    boolean adjust(long depth, double latencyMs, double utilization) {
+        int newConsumers = consumers;
+        int newPrefetch = prefetch;
+
+        if (latencyMs > targetLatencyMs) {
+            // Multiplicative decrease: downstream is saturated
+            newConsumers = Math.max(minConsumers, consumers / 2);
+            newPrefetch = Math.max(minPrefetch, prefetch / 2);
+        } else if (depth > (long) consumers * prefetch && utilization >= highUtilization) {
+            // Additive increase: backlog, busy consumers and latency headroom
+            newConsumers = Math.min(maxConsumers, consumers + 1);
+            newPrefetch = Math.min(maxPrefetch, prefetch + 1);
+        } else if (depth == 0 && utilization < highUtilization / 2) {
+            newConsumers = Math.max(minConsumers, consumers - 1);
+            newPrefetch = Math.max(minPrefetch, prefetch - 1);
+        }
+
+        boolean changed = newConsumers != consumers || newPrefetch != prefetch;
+        consumers = newConsumers;
+        prefetch = newPrefetch;
+        return changed;
+    }
+
+    public synchronized int getConsumers() {
+        return consumers;
+    }
+
+    public synchronized int getPrefetch() {
+        return prefetch;
+    }
+
+    private List<SimpleMessageListenerContainer> notificationQueueContainers() {
+        return listenerEndpointRegistry.getListenerContainers().stream()
+                .filter(SimpleMessageListenerContainer.class::isInstance)
+                .map(SimpleMessageListenerContainer.class::cast)
+                .filter(container -> Arrays.asList(container.getQueueNames()).contains(RabbitMQConfig.NOTIFICATION_QUEUE))
+                .toList();
+    }
+
+    void initialise(int consumers, int prefetch) {
+        this.consumers = consumers;
+        this.prefetch = prefetch;
+    }
+}
@@ -0,0 +1,186 @@
+package com.notificationservice.messaging;
+
+import com.notificationservice.entity.Notification;
+import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.service.NotificationService;
+import com.notificationservice.service.RetryBudgetService;
+import com.notificationservice.service.StatusTransitionPublisher;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Uses the notifications table as the queue ({@code notification.dispatch.backend=database}).
+ * Each worker claims a batch of PENDING rows with {@code FOR UPDATE SKIP LOCKED} in a short
+ * transaction that marks them PROCESSING under a lease and commits, so no row lock is held while
+ * sending. The outcome of every row is then written on its own, guarded by the lease. Rows of a
+ * crashed worker stay PROCESSING until the lease expires and are then claimed again, so a send whose
+ * outcome was never written can be repeated.
+ */
+@Component
+@ConditionalOnProperty(name = "notification.dispatch.backend", havingValue = "database")
+@RequiredArgsConstructor
+@Slf4j
+public class DatabaseWorkQueue implements NotificationDispatcher {
+
+    // Claim order, highest first
+    static final List<String> PRIORITIES = List.of("HIGH", "NORMAL", "LOW");
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationService notificationService;
+    private final RetryBudgetService retryBudgetService;
+    private final PlatformTransactionManager transactionManager;
+    private final StatusTransitionPublisher statusTransitionPublisher;
+
+    @Value("${notification.dispatch.database.workers:4}")
+    private int workerCount;
+
+    // Keeps the claiming transaction (and its row locks) short
+    @Value("${notification.dispatch.database.batch-size:50}")
+    private int batchSize;
+
+    @Value("${notification.dispatch.database.poll-interval:500}")
+    private long pollInterval;
+
+    // Has to outlast sending a whole batch, or the rows are claimed and sent a second time
+    @Value("${notification.dispatch.database.lease-duration:300000}")
+    private long leaseDuration;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private TransactionTemplate transaction;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        transaction = new TransactionTemplate(transactionManager);
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "db-work-queue-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("Database work queue started with {} workers, batch size {}", workerCount, batchSize);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        workers.clear();
+    }
+
+    /**
+     * The row is already PENDING, which is all a worker needs to find it.
+     */
+    @Override
+    public CompletableFuture<Void> publish(Notification notification) {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    int claimAndSend() {
+        // Truncated so the lease compares equal after the database rounds it
+        LocalDateTime leaseExpiresAt = LocalDateTime.now().plus(leaseDuration, ChronoUnit.MILLIS)
+                .truncatedTo(ChronoUnit.MILLIS);
+        List<Notification> batch = transaction.execute(status -> claimBatch(leaseExpiresAt));
+        if (batch == null) {
+            return 0;
+        }
+        for (Notification notification : batch) {
+            send(notification, leaseExpiresAt);
+        }
+        return batch.size();
+    }
+
+    private void work() {
+        while (running) {
+            int processed = 0;
+            try {
+                processed = claimAndSend();
+            } catch (Exception e) {
+                log.error("Work queue claim failed: {}", e.getMessage());
+            }
+
+            if (processed == 0) {
+                try {
+                    Thread.sleep(pollInterval);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private List<Notification> claimBatch(LocalDateTime leaseExpiresAt) {
+        List<Notification> batch = new ArrayList<>(batchSize);
+        List<Notification> expired = notificationRepository.claimExpiredLeases(LocalDateTime.now(), batchSize);
+        if (!expired.isEmpty()) {
+            log.warn("Reclaiming {} notifications whose work-queue lease expired", expired.size());
+            batch.addAll(expired);
+        }
+        for (String priority : PRIORITIES) {
+            int remaining = batchSize - batch.size();
+            if (remaining == 0) {
+                break;
+            }
+            batch.addAll(notificationRepository.claimPending(priority, remaining));
+        }
+        if (!batch.isEmpty()) {
+            for (Notification notification : batch) {
+                notification.setStatus("PROCESSING");
+                notification.setLeaseExpiresAt(leaseExpiresAt);
+            }
+            notificationRepository.saveAll(batch);
+        }
+        return batch;
+    }
+
+    private void send(Notification notification, LocalDateTime leaseExpiresAt) {
+        try {
+            notificationService.deliver(notification);
+            notification.setStatus("SENT");
+            notification.setSentAt(LocalDateTime.now());
+            retryBudgetService.recordSuccess(notification.getType(), notification.getProvider());
+        } catch (Exception e) {
+            log.error("Failed to process notification {}: {}", notification.getId(), e.getMessage());
+            notification.setStatus("FAILED");
+            notification.setErrorMessage(e.getMessage());
+            notification.setRetryCount(notification.getRetryCount() + 1);
+        }
+        try {
+            transaction.executeWithoutResult(status -> writeOutcome(notification, leaseExpiresAt));
+        } catch (Exception e) {
+            log.error("Failed to write the outcome of notification {}, it is sent again once its lease expires: {}",
+                    notification.getId(), e.getMessage());
+        }
+    }
+
+    private void writeOutcome(Notification notification, LocalDateTime leaseExpiresAt) {
+        int written = "SENT".equals(notification.getStatus())
+                ? notificationRepository.markLeaseSent(notification.getId(), leaseExpiresAt,
+                        notification.getSentAt(), notification.getProcessingTime(), notification.getProvider())
+                : notificationRepository.markLeaseFailed(notification.getId(), leaseExpiresAt,
+                        notification.getErrorMessage(), notification.getErrorFingerprint(),
+                        notification.getErrorCategory(), notification.getProvider());
+        if (written == 0) {
+            log.warn("Lease on notification {} expired before its outcome was written", notification.getId());
+        } else {
+            // Update queries bypass the entity listener, so report the transition here
+            notification.setLeaseExpiresAt(null);
+            statusTransitionPublisher.statusChanged(notification, "PROCESSING");
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.notificationservice.messaging;
+
+import com.notificationservice.entity.Notification;
+import com.notificationservice.exception.MessagePublishException;
+import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.service.MetricsService;
+import com.notificationservice.service.NotificationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Broker-free dispatch backend for single-node and dev deployments
+ * ({@code notification.dispatch.backend=embedded}).
+ */
+@Component
+@ConditionalOnProperty(name = "notification.dispatch.backend", havingValue = "embedded")
+@RequiredArgsConstructor
+@Slf4j
+public class EmbeddedNotificationQueue implements NotificationDispatcher {
+
+    private final NotificationService notificationService;
+    private final NotificationRepository notificationRepository;
+    private final MetricsService metricsService;
+
+    @Value("${notification.dispatch.embedded.directory:./data/queue}")
+    private String directory;
+
+    @Value("${notification.dispatch.embedded.segment-size:67108864}")
+    private int segmentSize;
+
+    @Value("${notification.dispatch.embedded.ring-capacity:65536}")
+    private int ringCapacity;
+
+    @Value("${notification.dispatch.embedded.workers:4}")
+    private int workers;
+
+    @Value("${notification.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${notification.retry.backoff-delay:1000}")
+    private long backoffDelay;
+
+    @Value("${notification.dispatch.embedded.sync-interval:100}")
+    private long syncInterval;
+
+    private EmbeddedQueue queue;
+
+    @PostConstruct
+    public void start() throws IOException {
+        MappedJournal journal = new MappedJournal(Path.of(directory), segmentSize);
+        queue = new EmbeddedQueue(journal, ringCapacity, workers, maxAttempts, backoffDelay,
+                this::handle, this::deadLetter);
+        queue.start(syncInterval);
+        log.info("Embedded notification queue started in {} with {} workers", directory, workers);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        queue.close();
+    }
+
+    /**
+     * Completes as soon as the notification is in the journal; there is no remote confirm to wait for.
+     */
+    @Override
+    public CompletableFuture<Void> publish(Notification notification) {
+        try {
+            queue.enqueue(notification.getId().getBytes(StandardCharsets.UTF_8));
+            return CompletableFuture.completedFuture(null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(
+                    new MessagePublishException("Interrupted while enqueueing notification " + notification.getId(), e));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(
+                    new MessagePublishException("Failed to enqueue notification " + notification.getId(), e));
+        }
+    }
+
+    public int getDepth() {
+        return queue.getDepth();
+    }
+
+    private void handle(byte[] payload) {
+        notificationService.processNotification(new String(payload, StandardCharsets.UTF_8));
+    }
+
+    private void deadLetter(byte[] payload, Exception cause) {
+        String notificationId = new String(payload, StandardCharsets.UTF_8);
+        notificationRepository.findById(notificationId).ifPresent(notification -> {
+            notification.setStatus("FAILED_PERMANENTLY");
+            notificationRepository.save(notification);
+            metricsService.recordNotificationStatus(notification.getType(), "PERMANENT_FAILURE");
+            log.warn("Notification {} permanently failed in the embedded queue", notificationId);
+        });
+    }
+}
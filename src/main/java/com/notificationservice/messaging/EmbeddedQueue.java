@@ -0,0 +1,157 @@
+package com.notificationservice.messaging;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process queue: every message is written to the {@link MappedJournal} before it is handed to
+ * the workers through a bounded ring, and acked in the journal once the handler returns.
+ * <p>
+ * Failures follow the listener container: the message is redelivered with exponential backoff and
+ * dead-lettered (then acked) after {@code maxAttempts}. Unacked messages are redelivered on restart.
+ */
+@Slf4j
+public class EmbeddedQueue implements Closeable {
+
+    @FunctionalInterface
+    public interface Handler {
+        void handle(byte[] payload) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface DeadLetterHandler {
+        void deadLetter(byte[] payload, Exception cause);
+    }
+
+    private static final long MAX_BACKOFF_MS = 10_000;
+    private static final long POLL_TIMEOUT_MS = 100;
+
+    private final MappedJournal journal;
+    private final BlockingQueue<Delivery> ring;
+    private final Queue<Delivery> redeliveries = new ConcurrentLinkedQueue<>();
+    private final int workerCount;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final Handler handler;
+    private final DeadLetterHandler deadLetterHandler;
+
+    private final List<Thread> workers = new ArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "embedded-queue-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean running;
+
+    public EmbeddedQueue(MappedJournal journal, int capacity, int workerCount, int maxAttempts,
+                         long initialBackoffMs, Handler handler, DeadLetterHandler deadLetterHandler) {
+        this.journal = journal;
+        this.ring = new ArrayBlockingQueue<>(capacity);
+        this.workerCount = workerCount;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.handler = handler;
+        this.deadLetterHandler = deadLetterHandler;
+    }
+
+    public synchronized void start(long syncIntervalMs) {
+        if (running) {
+            return;
+        }
+        Map<Long, byte[]> pending = journal.pending();
+        pending.forEach((seq, payload) -> redeliveries.offer(new Delivery(seq, payload, 1)));
+        if (!pending.isEmpty()) {
+            log.info("Redelivering {} unacked messages from the journal", pending.size());
+        }
+
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "embedded-queue-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        scheduler.scheduleWithFixedDelay(journal::sync, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Journals the message and blocks while the ring is full, which pushes back on the producer.
+     */
+    public long enqueue(byte[] payload) throws InterruptedException {
+        long seq = journal.append(payload);
+        ring.put(new Delivery(seq, payload, 1));
+        return seq;
+    }
+
+    public int getDepth() {
+        return ring.size() + redeliveries.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        running = false;
+        scheduler.shutdownNow();
+        for (Thread worker : workers) {
+            try {
+                worker.join(POLL_TIMEOUT_MS * 10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        workers.clear();
+        journal.close();
+    }
+
+    private void work() {
+        while (running) {
+            Delivery delivery = redeliveries.poll();
+            try {
+                if (delivery == null) {
+                    delivery = ring.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (delivery != null) {
+                deliver(delivery);
+            }
+        }
+    }
+
+    private void deliver(Delivery delivery) {
+        try {
+            handler.handle(delivery.payload());
+            journal.ack(delivery.seq());
+        } catch (Exception e) {
+            if (delivery.attempt() >= maxAttempts) {
+                log.warn("Message {} failed after {} attempts, dead-lettering: {}",
+                        delivery.seq(), delivery.attempt(), e.getMessage());
+                try {
+                    deadLetterHandler.deadLetter(delivery.payload(), e);
+                } finally {
+                    journal.ack(delivery.seq());
+                }
+                return;
+            }
+            long backoff = Math.min(MAX_BACKOFF_MS, initialBackoffMs << (delivery.attempt() - 1));
+            Delivery retry = new Delivery(delivery.seq(), delivery.payload(), delivery.attempt() + 1);
+            scheduler.schedule(() -> redeliveries.offer(retry), backoff, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private record Delivery(long seq, byte[] payload, int attempt) {
+    }
+}
@@ -5,16 +5,23 @@ import com.notificationservice.repository.NotificationRepository;
 import com.notificationservice.service.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.context.annotation.Profile;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.support.RetrySynchronizationManager;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Date;
 import java.util.concurrent.TimeUnit;
 
 @Profile("!dev") // Запускается только в НЕ-dev профилях
 @Service
+@ConditionalOnRabbitDispatch
 @RequiredArgsConstructor
 @Slf4j
 public class EnhancedNotificationConsumer {
@@ -23,18 +30,52 @@ public class EnhancedNotificationConsumer {
     private final EmailService emailService;
     private final PushService pushService;
     private final MetricsService metricsService;
+    private final RetryBudgetService retryBudgetService;
+    private final MessageConverter messageConverter;
+    private final StatusTransitionPublisher statusTransitionPublisher;
+    private final CampaignCancellationService campaignCancellationService;
+    private final SpanRecorder spanRecorder;
 
     @RabbitListener(queues = "${rabbitmq.queue.notification:notification.queue}")
     @Transactional
+    public void onNotificationMessage(Message message) {
+        NotificationSnapshot snapshot = NotificationSnapshotCodec.isSnapshot(message)
+                ? NotificationSnapshotCodec.decode(message.getBody())
+                : null;
+        String notificationId = snapshot != null
+                ? snapshot.getNotificationId()
+                : NotificationSnapshotCodec.readNotificationId(message, messageConverter);
+
+        // Started here so that broker dwell lands in the same trace as the send; a trace the
+        // publishing node sampled is kept whole on this node too
+        TraceContext trace = TraceContext.read(message.getMessageProperties());
+        boolean traced = spanRecorder.begin(notificationId, trace != null && trace.sampled());
+        try {
+            recordBrokerDwell(message, trace);
+            if (snapshot != null) {
+                processSnapshot(snapshot);
+            } else {
+                processNotification(notificationId);
+            }
+        } finally {
+            if (traced) {
+                spanRecorder.end();
+            }
+        }
+    }
+
     public void processNotification(String notificationId) {
         long startTime = System.currentTimeMillis();
         String notificationType = "UNKNOWN";
+        boolean traced = spanRecorder.begin(notificationId);
 
         try {
             log.info("Processing notification: {}", notificationId);
 
+            long fetchStart = System.nanoTime();
             Notification notification = notificationRepository.findById(notificationId)
                     .orElseThrow(() -> new RuntimeException("Notification not found: " + notificationId));
+            metricsService.recordStage(PipelineStage.DB_FETCH, fetchStart);
 
             notificationType = notification.getType();
 
@@ -48,11 +89,84 @@ public class EnhancedNotificationConsumer {
 
         } catch (Exception e) {
             log.error("Failed to process notification {}: {}", notificationId, e.getMessage());
+            spanRecorder.fail(e.getMessage());
+            metricsService.recordNotificationStatus(notificationType, "FAILED");
+            throw new RuntimeException("Notification processing failed", e);
+        } finally {
+            long processingTime = System.currentTimeMillis() - startTime;
+            recordProcessingTime(notificationType, processingTime);
+            if (traced) {
+                spanRecorder.end();
+            }
+        }
+    }
+
+    // Sends straight from the message and only writes the outcome, no findById
+    public void processSnapshot(NotificationSnapshot snapshot) {
+        long startTime = System.currentTimeMillis();
+        String notificationId = snapshot.getNotificationId();
+        String notificationType = snapshot.getType();
+
+        if (campaignCancellationService.isCancelled(snapshot.getCampaignId())) {
+            log.debug("Dropping notification {} of cancelled campaign {}", notificationId, snapshot.getCampaignId());
+            return;
+        }
+
+        // The snapshot is not rewritten between listener retries, so later attempts are counted here
+        int attempt = snapshot.getAttempt() + listenerRetries();
+        boolean traced = spanRecorder.begin(notificationId);
+        try {
+            log.info("Processing notification snapshot: {} (attempt {})", notificationId, attempt);
+
+            Notification notification = snapshot.toNotification();
+            notification.setRetryCount(Math.max(0, attempt - 1));
+            deliver(notification);
+
+            notification.setSentAt(LocalDateTime.now());
+            long writeStart = System.nanoTime();
+            String previousStatus = "PENDING";
+            int marked = notificationRepository.markSent(notificationId, notification.getSentAt(),
+                    notification.getProcessingTime(), notification.getProvider());
+            if (marked == 0) {
+                // An earlier attempt of this delivery failed and wrote FAILED before the retry
+                previousStatus = "FAILED";
+                marked = notificationRepository.markSentAfterFailure(notificationId, notification.getSentAt(),
+                        notification.getProcessingTime(), notification.getProvider());
+            }
+            metricsService.recordStage(PipelineStage.STATUS_WRITE, writeStart);
+            if (marked == 0) {
+                log.warn("Notification {} was neither PENDING nor FAILED when its send completed", notificationId);
+            } else {
+                // Update queries bypass the entity listener, so report the transition here
+                notification.setStatus("SENT");
+                statusTransitionPublisher.statusChanged(notification, previousStatus);
+            }
+            retryBudgetService.recordSuccess(notificationType, notification.getProvider());
+            metricsService.recordNotificationStatus(notificationType, "SUCCESS");
+
+        } catch (Exception e) {
+            log.error("Failed to process notification snapshot {}: {}", notificationId, e.getMessage());
+            spanRecorder.fail(e.getMessage());
+            Notification failed = snapshot.toNotification();
+            failed.setRetryCount(Math.max(0, attempt - 1));
+            failed.setStatus("FAILED");
+            failed.setErrorMessage(e.getMessage());
+            long writeStart = System.nanoTime();
+            int marked = notificationRepository.markFailed(notificationId, failed.getErrorMessage(),
+                    failed.getErrorFingerprint(), failed.getErrorCategory(), failed.getProvider());
+            metricsService.recordStage(PipelineStage.STATUS_WRITE, writeStart);
+            if (marked > 0) {
+                statusTransitionPublisher.statusChanged(failed, "PENDING");
+            }
+            recordFailure(notificationType);
             metricsService.recordNotificationStatus(notificationType, "FAILED");
             throw new RuntimeException("Notification processing failed", e);
         } finally {
             long processingTime = System.currentTimeMillis() - startTime;
             recordProcessingTime(notificationType, processingTime);
+            if (traced) {
+                spanRecorder.end();
+            }
         }
     }
 
@@ -70,12 +184,15 @@ public class EnhancedNotificationConsumer {
 
     private void processSpecificNotification(String notificationId, String expectedType) {
         long startTime = System.currentTimeMillis();
+        boolean traced = spanRecorder.begin(notificationId);
 
         try {
             log.info("Processing {} notification: {}", expectedType, notificationId);
 
+            long fetchStart = System.nanoTime();
             Notification notification = notificationRepository.findById(notificationId)
                     .orElseThrow(() -> new RuntimeException("Notification not found: " + notificationId));
+            metricsService.recordStage(PipelineStage.DB_FETCH, fetchStart);
 
             if (!expectedType.equals(notification.getType())) {
                 log.warn("Notification {} is not {} type: {}", notificationId, expectedType, notification.getType());
@@ -92,32 +209,28 @@ public class EnhancedNotificationConsumer {
 
         } catch (Exception e) {
             log.error("Failed to process {} notification {}: {}", expectedType, notificationId, e.getMessage());
+            spanRecorder.fail(e.getMessage());
             metricsService.recordNotificationStatus(expectedType, "FAILED");
             throw new RuntimeException(expectedType + " notification processing failed", e);
         } finally {
             long processingTime = System.currentTimeMillis() - startTime;
             recordProcessingTime(expectedType, processingTime);
+            if (traced) {
+                spanRecorder.end();
+            }
         }
     }
 
     private void processNotificationInternal(Notification notification) {
         try {
-            switch (notification.getType()) {
-                case "EMAIL":
-                    emailService.sendEmail(notification);
-                    metricsService.recordEmailSent();
-                    break;
-                case "PUSH":
-                    pushService.sendPush(notification);
-                    metricsService.recordPushSent();
-                    break;
-                default:
-                    throw new RuntimeException("Unknown notification type: " + notification.getType());
-            }
+            deliver(notification);
 
             notification.setStatus("SENT");
             notification.setSentAt(LocalDateTime.now());
+            long writeStart = System.nanoTime();
             notificationRepository.save(notification);
+            metricsService.recordStage(PipelineStage.STATUS_WRITE, writeStart);
+            retryBudgetService.recordSuccess(notification.getType(), notification.getProvider());
 
             log.info("Successfully processed {} notification: {}",
                     notification.getType(), notification.getId());
@@ -128,22 +241,67 @@ public class EnhancedNotificationConsumer {
         }
     }
 
+    private void deliver(Notification notification) {
+        switch (notification.getType()) {
+            case "EMAIL":
+                emailService.sendEmail(notification);
+                metricsService.recordEmailSent();
+                break;
+            case "PUSH":
+                pushService.sendPush(notification);
+                metricsService.recordPushSent();
+                break;
+            default:
+                throw new RuntimeException("Unknown notification type: " + notification.getType());
+        }
+    }
+
     private void handleProcessingFailure(Notification notification, Exception e) {
         notification.setStatus("FAILED");
         notification.setErrorMessage(e.getMessage());
         notification.setRetryCount(notification.getRetryCount() + 1);
+        long writeStart = System.nanoTime();
         notificationRepository.save(notification);
+        metricsService.recordStage(PipelineStage.STATUS_WRITE, writeStart);
+
+        recordFailure(notification.getType());
 
-        if ("EMAIL".equals(notification.getType())) {
+        log.error("Failed to process {} notification {}: {}",
+                notification.getType(), notification.getId(), e.getMessage());
+    }
+
+    // Failed attempts so far in the container's retry of the current delivery
+    private static int listenerRetries() {
+        RetryContext context = RetrySynchronizationManager.getContext();
+        return context != null ? context.getRetryCount() : 0;
+    }
+
+    private void recordFailure(String notificationType) {
+        if ("EMAIL".equals(notificationType)) {
             metricsService.recordEmailFailed();
             metricsService.recordNotificationRetry("EMAIL");
-        } else if ("PUSH".equals(notification.getType())) {
+        } else if ("PUSH".equals(notificationType)) {
             metricsService.recordPushFailed();
             metricsService.recordNotificationRetry("PUSH");
         }
+    }
 
-        log.error("Failed to process {} notification {}: {}",
-                notification.getType(), notification.getId(), e.getMessage());
+    // Dwell covers time queued in the broker plus prefetch. It compares clocks of two nodes, so
+    // skew shows up here; negative values are clamped to zero
+    private void recordBrokerDwell(Message message, TraceContext trace) {
+        long publishedAt;
+        if (trace != null) {
+            publishedAt = trace.publishedAtMillis();
+        } else {
+            // Messages from publishers that predate the trace header
+            Date timestamp = message.getMessageProperties().getTimestamp();
+            if (timestamp == null) {
+                return;
+            }
+            publishedAt = timestamp.getTime();
+        }
+        long dwellMillis = System.currentTimeMillis() - publishedAt;
+        metricsService.recordStage(PipelineStage.BROKER_DWELL, Math.max(0, dwellMillis), TimeUnit.MILLISECONDS);
     }
 
     private void recordProcessingTime(String notificationType, long processingTimeMillis) {
@@ -156,7 +314,15 @@ public class EnhancedNotificationConsumer {
     }
 
     @RabbitListener(queues = "${rabbitmq.queue.dlq:notification.dlq}")
-    public void handleDeadLetterMessage(String notificationId) {
+    public void handleDeadLetterMessage(Message message) {
+        String notificationId;
+        try {
+            // Dead-lettered snapshots keep their binary body, so the id cannot be read as a plain String
+            notificationId = NotificationSnapshotCodec.readNotificationId(message, messageConverter);
+        } catch (MessageConversionException e) {
+            log.error("Received unreadable message in DLQ: {}", e.getMessage());
+            return;
+        }
         log.error("Received message in DLQ: {}", notificationId);
 
         try {
@@ -0,0 +1,213 @@
+package com.notificationservice.messaging;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Append-only write-ahead log made of fixed-size memory-mapped segments.
+ * <p>
+ * Record layout: {@code [int length][byte type][long seq][payload]} where {@code length} is the
+ * payload size plus one and is written last, so a record torn by a crash reads as end-of-segment.
+ * A segment is deleted once it is the oldest one and every message enqueued in it has been acked.
+ */
+public class MappedJournal implements Closeable {
+
+    static final byte ENQUEUE = 1;
+    static final byte ACK = 2;
+
+    private static final int HEADER_SIZE = Integer.BYTES + Byte.BYTES + Long.BYTES;
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+
+    // by segment id, and by the seq of the first message enqueued in the segment
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final TreeMap<Long, Segment> segmentsBySeq = new TreeMap<>();
+    private final TreeMap<Long, byte[]> recovered = new TreeMap<>();
+
+    private Segment current;
+    private long nextSeq;
+
+    public MappedJournal(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        recover();
+        long nextSegmentId = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        current = openSegment(nextSegmentId);
+    }
+
+    /**
+     * Messages that were enqueued but never acked before the last shutdown, in enqueue order.
+     */
+    public synchronized Map<Long, byte[]> pending() {
+        Map<Long, byte[]> pending = new TreeMap<>(recovered);
+        recovered.clear();
+        return pending;
+    }
+
+    public synchronized long append(byte[] payload) {
+        long seq = nextSeq++;
+        Segment segment = write(ENQUEUE, seq, payload);
+        segment.outstanding++;
+        if (segment.firstSeq < 0) {
+            segment.firstSeq = seq;
+            segmentsBySeq.put(seq, segment);
+        }
+        return seq;
+    }
+
+    public synchronized void ack(long seq) {
+        write(ACK, seq, new byte[0]);
+        Map.Entry<Long, Segment> owner = segmentsBySeq.floorEntry(seq);
+        if (owner != null && owner.getValue().outstanding > 0) {
+            owner.getValue().outstanding--;
+        }
+        deleteAckedSegments();
+    }
+
+    public synchronized void sync() {
+        current.buffer.force();
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (Segment segment : segments.values()) {
+            segment.buffer.force();
+            segment.channel.close();
+        }
+    }
+
+    private Segment write(byte type, long seq, byte[] payload) {
+        int recordSize = HEADER_SIZE + payload.length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException("Message of " + payload.length + " bytes does not fit a journal segment");
+        }
+        if (current.buffer.remaining() < recordSize) {
+            current.buffer.force();
+            try {
+                current = openSegment(segments.lastKey() + 1);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to roll journal segment", e);
+            }
+        }
+
+        MappedByteBuffer buffer = current.buffer;
+        int start = buffer.position();
+        buffer.position(start + Integer.BYTES);
+        buffer.put(type);
+        buffer.putLong(seq);
+        buffer.put(payload);
+        // Length last: until it is written the record reads as end-of-segment
+        buffer.putInt(start, payload.length + 1);
+        return current;
+    }
+
+    private void recover() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(directory)) {
+            stream.filter(path -> path.getFileName().toString().startsWith(PREFIX)).forEach(files::add);
+        }
+        Collections.sort(files);
+
+        Map<Long, Segment> owners = new TreeMap<>();
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            long id = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+            Segment segment = openSegment(id);
+            MappedByteBuffer buffer = segment.buffer;
+
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                if (length <= 0 || length - 1 > buffer.remaining() - Byte.BYTES - Long.BYTES) {
+                    buffer.position(start);
+                    break;
+                }
+                byte type = buffer.get();
+                long seq = buffer.getLong();
+                byte[] payload = new byte[length - 1];
+                buffer.get(payload);
+
+                if (type == ENQUEUE) {
+                    recovered.put(seq, payload);
+                    owners.put(seq, segment);
+                    if (segment.firstSeq < 0) {
+                        segment.firstSeq = seq;
+                        segmentsBySeq.put(seq, segment);
+                    }
+                    nextSeq = Math.max(nextSeq, seq + 1);
+                } else if (type == ACK) {
+                    recovered.remove(seq);
+                    owners.remove(seq);
+                }
+            }
+        }
+
+        for (Segment owner : owners.values()) {
+            owner.outstanding++;
+        }
+    }
+
+    private void deleteAckedSegments() {
+        while (!segments.isEmpty()) {
+            Segment oldest = segments.firstEntry().getValue();
+            if (oldest == current || oldest.outstanding > 0) {
+                return;
+            }
+            segments.remove(oldest.id);
+            if (oldest.firstSeq >= 0) {
+                segmentsBySeq.remove(oldest.firstSeq);
+            }
+            try {
+                oldest.channel.close();
+                Files.deleteIfExists(oldest.path);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to delete journal segment " + oldest.path, e);
+            }
+        }
+    }
+
+    private Segment openSegment(long id) throws IOException {
+        Path path = directory.resolve(String.format("%s%020d%s", PREFIX, id, SUFFIX));
+        FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        Segment segment = new Segment(id, path, channel, buffer);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private long firstSeq = -1;
+        private int outstanding;
+
+        private Segment(long id, Path path, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+}
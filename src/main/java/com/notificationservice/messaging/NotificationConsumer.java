@@ -1,22 +1,41 @@
 package com.notificationservice.messaging;
 
+import com.notificationservice.service.CampaignCancellationService;
 import com.notificationservice.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 @Profile("!dev") // Запускается только в НЕ-dev профилях
 @Component
+@ConditionalOnRabbitDispatch
 @RequiredArgsConstructor
 @Slf4j
 public class NotificationConsumer {
 
     private final NotificationService notificationService;
+    private final MessageConverter messageConverter;
+    private final CampaignCancellationService campaignCancellationService;
 
     @RabbitListener(queues = "${rabbitmq.queue.notification:notification.queue}")
-    public void processNotification(String notificationId) {
+    public void processNotification(Message message) {
+        String notificationId;
+        if (NotificationSnapshotCodec.isSnapshot(message)) {
+            NotificationSnapshot snapshot = NotificationSnapshotCodec.decode(message.getBody());
+            if (campaignCancellationService.isCancelled(snapshot.getCampaignId())) {
+                log.debug("Dropping notification {} of cancelled campaign {}",
+                        snapshot.getNotificationId(), snapshot.getCampaignId());
+                return;
+            }
+            notificationId = snapshot.getNotificationId();
+        } else {
+            notificationId = NotificationSnapshotCodec.readNotificationId(message, messageConverter);
+        }
         try {
             log.info("Processing notification from queue: {}", notificationId);
             notificationService.processNotification(notificationId);
@@ -28,7 +47,15 @@ public class NotificationConsumer {
     }
 
     @RabbitListener(queues = "${rabbitmq.queue.dlq:notification.dlq}")
-    public void processFailedNotification(String notificationId) {
+    public void processFailedNotification(Message message) {
+        String notificationId;
+        try {
+            // Dead-lettered snapshots keep their binary body, so the id cannot be read as a plain String
+            notificationId = NotificationSnapshotCodec.readNotificationId(message, messageConverter);
+        } catch (MessageConversionException e) {
+            log.error("Received unreadable message in DLQ: {}", e.getMessage());
+            return;
+        }
         try {
             log.warn("Processing failed notification from DLQ: {}", notificationId);
             // Additional logic for handling failed notifications
@@ -0,0 +1,32 @@
+package com.notificationservice.messaging;
+
+import com.notificationservice.entity.Notification;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Hands persisted notifications over to asynchronous delivery. The backend is selected with
+ * {@code notification.dispatch.backend}.
+ */
+public interface NotificationDispatcher {
+
+    /**
+     * The returned future completes once the backend has durably accepted the notification.
+     */
+    CompletableFuture<Void> publish(Notification notification);
+
+    default CompletableFuture<Void> publishAll(Collection<Notification> notifications) {
+        CompletableFuture<?>[] acknowledgements = notifications.stream()
+                .map(this::publish)
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(acknowledgements);
+    }
+
+    /**
+     * Called once a notification has been marked FAILED_PERMANENTLY. The row already records it;
+     * backends with a dead-letter queue also hand the notification there for manual processing.
+     */
+    default void deadLetter(Notification notification) {
+    }
+}
@@ -0,0 +1,151 @@
+package com.notificationservice.messaging;
+
+import com.notificationservice.config.RabbitMQConfig;
+import com.notificationservice.entity.Notification;
+import com.notificationservice.exception.MessagePublishException;
+import com.notificationservice.service.MetricsService;
+import com.notificationservice.service.PipelineStage;
+import com.notificationservice.service.SpanRecorder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.ReturnedMessage;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+@ConditionalOnRabbitDispatch
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationPublisher implements NotificationDispatcher {
+
+    // Broker priorities for notification.queue (x-max-priority = RabbitMQConfig.MAX_PRIORITY)
+    static final int HIGH_PRIORITY = 9;
+    static final int NORMAL_PRIORITY = 5;
+    static final int LOW_PRIORITY = 1;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final RecipientShardRouter shardRouter;
+    private final MetricsService metricsService;
+    private final SpanRecorder spanRecorder;
+    private final AtomicInteger pendingConfirms = new AtomicInteger();
+
+    // Ship a full NotificationSnapshot instead of the bare id so consumers can skip the DB read
+    @Value("${notification.messaging.snapshot-messages:false}")
+    private boolean snapshotMessages;
+
+    /**
+     * Publishes without waiting for the broker. The returned future completes when the broker
+     * confirms the message and fails if it is nacked or returned as unroutable.
+     */
+    @Override
+    public CompletableFuture<Void> publish(Notification notification) {
+        int priority = toMessagePriority(notification.getPriority());
+        String exchange = RabbitMQConfig.NOTIFICATION_EXCHANGE;
+        String routingKey = RabbitMQConfig.NOTIFICATION_ROUTING_KEY;
+        if (shardRouter.isEnabled()) {
+            exchange = RecipientShardRouter.SHARD_EXCHANGE;
+            routingKey = shardRouter.routingKeyFor(notification.getRecipient());
+        }
+        CorrelationData correlationData = new CorrelationData(notification.getId());
+
+        pendingConfirms.incrementAndGet();
+        CompletableFuture<Void> acknowledgement = correlationData.getFuture()
+                .handle((confirm, error) -> {
+                    pendingConfirms.decrementAndGet();
+                    if (error != null) {
+                        throw new MessagePublishException("Publish failed for notification " + notification.getId(), error);
+                    }
+                    ReturnedMessage returned = correlationData.getReturned();
+                    if (returned != null) {
+                        throw new MessagePublishException("Notification " + notification.getId()
+                                + " was returned by the broker: " + returned.getReplyText());
+                    }
+                    if (!confirm.isAck()) {
+                        throw new MessagePublishException("Broker nacked notification " + notification.getId()
+                                + ": " + confirm.getReason());
+                    }
+                    return null;
+                });
+
+        boolean traced = spanRecorder.begin(notification.getId());
+        TraceContext trace = TraceContext.now(spanRecorder.isTraceSampled(notification.getId()));
+        long publishStart = System.nanoTime();
+        try {
+            if (snapshotMessages) {
+                Message message = NotificationSnapshotCodec.toMessage(NotificationSnapshot.of(notification));
+                message.getMessageProperties().setPriority(priority);
+                message.getMessageProperties().setTimestamp(new Date(trace.publishedAtMillis()));
+                trace.writeTo(message.getMessageProperties());
+                rabbitTemplate.send(
+                        exchange,
+                        routingKey,
+                        message,
+                        correlationData
+                );
+            } else {
+                rabbitTemplate.convertAndSend(
+                        exchange,
+                        routingKey,
+                        notification.getId(),
+                        message -> {
+                            message.getMessageProperties().setPriority(priority);
+                            message.getMessageProperties().setTimestamp(new Date(trace.publishedAtMillis()));
+                            trace.writeTo(message.getMessageProperties());
+                            return message;
+                        },
+                        correlationData
+                );
+            }
+        } catch (Exception e) {
+            spanRecorder.fail(e.getMessage());
+            correlationData.getFuture().completeExceptionally(e);
+        } finally {
+            metricsService.recordStage(PipelineStage.QUEUE_PUBLISH, publishStart);
+            if (traced) {
+                spanRecorder.end();
+            }
+        }
+
+        log.debug("Published notification {} with priority {}", notification.getId(), priority);
+        return acknowledgement.whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.warn("Publish of notification {} not confirmed: {}", notification.getId(), error.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void deadLetter(Notification notification) {
+        rabbitTemplate.convertAndSend(
+                RabbitMQConfig.NOTIFICATION_DLQ_EXCHANGE,
+                RabbitMQConfig.NOTIFICATION_DLQ_ROUTING_KEY,
+                notification.getId(),
+                message -> {
+                    TraceContext.now(true).writeTo(message.getMessageProperties());
+                    return message;
+                }
+        );
+    }
+
+    public int getPendingConfirms() {
+        return pendingConfirms.get();
+    }
+
+    static int toMessagePriority(String priority) {
+        if (priority == null) {
+            return NORMAL_PRIORITY;
+        }
+        return switch (priority) {
+            case "HIGH" -> HIGH_PRIORITY;
+            case "LOW" -> LOW_PRIORITY;
+            default -> NORMAL_PRIORITY;
+        };
+    }
+}
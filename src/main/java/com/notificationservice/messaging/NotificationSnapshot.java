@@ -0,0 +1,64 @@
+package com.notificationservice.messaging;
+
+import com.notificationservice.entity.Notification;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Everything a consumer needs to deliver a notification without reading it back from the database.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationSnapshot {
+    private String notificationId;
+    private String type;
+    private String recipient;
+    private String subject;
+    private String title;
+    private String message;
+    private String priority;
+    private int attempt;
+    private long createdAtEpochMs;
+    private String campaignId;
+
+    public static NotificationSnapshot of(Notification notification) {
+        LocalDateTime createdAt = notification.getCreatedAt() != null ? notification.getCreatedAt() : LocalDateTime.now();
+        return NotificationSnapshot.builder()
+                .notificationId(notification.getId())
+                .type(notification.getType())
+                .recipient(notification.getRecipient())
+                .subject(notification.getSubject())
+                .title(notification.getTitle())
+                .message(notification.getMessage())
+                .priority(notification.getPriority())
+                .attempt(notification.getRetryCount() + 1)
+                .createdAtEpochMs(createdAt.toInstant(ZoneOffset.UTC).toEpochMilli())
+                .campaignId(notification.getCampaignId())
+                .build();
+    }
+
+    // Detached entity for the send services, never persisted
+    public Notification toNotification() {
+        Notification notification = new Notification();
+        notification.setId(notificationId);
+        notification.setType(type);
+        notification.setStatus("PENDING");
+        notification.setRecipient(recipient);
+        notification.setSubject(subject);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setPriority(priority);
+        notification.setRetryCount(Math.max(0, attempt - 1));
+        notification.setCreatedAt(LocalDateTime.ofInstant(Instant.ofEpochMilli(createdAtEpochMs), ZoneOffset.UTC));
+        notification.setCampaignId(campaignId);
+        return notification;
+    }
+}
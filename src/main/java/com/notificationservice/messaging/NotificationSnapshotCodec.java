@@ -0,0 +1,178 @@
+package com.notificationservice.messaging;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary encoding of {@link NotificationSnapshot}. Message bodies above
+ * {@link #COMPRESSION_THRESHOLD} bytes are deflated.
+ */
+public final class NotificationSnapshotCodec {
+
+    public static final String CONTENT_TYPE = "application/vnd.notification.snapshot";
+
+    static final int COMPRESSION_THRESHOLD = 1024;
+
+    // Version 2 appends the campaign id; version 1 bodies may still be queued during a rollout
+    private static final byte VERSION = 2;
+    private static final byte VERSION_1 = 1;
+    private static final byte FLAG_COMPRESSED = 1;
+
+    private NotificationSnapshotCodec() {
+    }
+
+    public static boolean isSnapshot(Message message) {
+        return CONTENT_TYPE.equals(message.getMessageProperties().getContentType());
+    }
+
+    // Works for both formats, so id-only consumers keep working when snapshots are enabled
+    public static String readNotificationId(Message message, MessageConverter fallback) {
+        if (isSnapshot(message)) {
+            return decode(message.getBody()).getNotificationId();
+        }
+        Object payload = fallback.fromMessage(message);
+        if (payload instanceof String notificationId) {
+            return notificationId;
+        }
+        throw new MessageConversionException("Unexpected notification payload: " + payload);
+    }
+
+    public static Message toMessage(NotificationSnapshot snapshot) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(CONTENT_TYPE);
+        properties.setMessageId(snapshot.getNotificationId());
+        return new Message(encode(snapshot), properties);
+    }
+
+    public static byte[] encode(NotificationSnapshot snapshot) {
+        byte[] body = snapshot.getMessage() != null
+                ? snapshot.getMessage().getBytes(StandardCharsets.UTF_8)
+                : null;
+        boolean compressed = body != null && body.length > COMPRESSION_THRESHOLD;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + (body != null ? body.length : 0));
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeByte(compressed ? FLAG_COMPRESSED : 0);
+            out.writeUTF(snapshot.getNotificationId());
+            out.writeUTF(snapshot.getType());
+            out.writeUTF(snapshot.getRecipient());
+            writeNullable(out, snapshot.getSubject());
+            writeNullable(out, snapshot.getTitle());
+            writeNullable(out, snapshot.getPriority());
+            out.writeInt(snapshot.getAttempt());
+            out.writeLong(snapshot.getCreatedAtEpochMs());
+
+            if (body == null) {
+                out.writeInt(-1);
+            } else if (compressed) {
+                byte[] deflated = deflate(body);
+                out.writeInt(body.length);
+                out.writeInt(deflated.length);
+                out.write(deflated);
+            } else {
+                out.writeInt(body.length);
+                out.write(body);
+            }
+            writeNullable(out, snapshot.getCampaignId());
+        } catch (IOException e) {
+            throw new MessageConversionException("Failed to encode notification snapshot", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static NotificationSnapshot decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            byte version = in.readByte();
+            if (version != VERSION && version != VERSION_1) {
+                throw new MessageConversionException("Unsupported notification snapshot version: " + version);
+            }
+            boolean compressed = (in.readByte() & FLAG_COMPRESSED) != 0;
+
+            NotificationSnapshot snapshot = new NotificationSnapshot();
+            snapshot.setNotificationId(in.readUTF());
+            snapshot.setType(in.readUTF());
+            snapshot.setRecipient(in.readUTF());
+            snapshot.setSubject(readNullable(in));
+            snapshot.setTitle(readNullable(in));
+            snapshot.setPriority(readNullable(in));
+            snapshot.setAttempt(in.readInt());
+            snapshot.setCreatedAtEpochMs(in.readLong());
+
+            int length = in.readInt();
+            if (length >= 0) {
+                byte[] body = new byte[length];
+                if (compressed) {
+                    byte[] deflated = new byte[in.readInt()];
+                    in.readFully(deflated);
+                    inflate(deflated, body);
+                } else {
+                    in.readFully(body);
+                }
+                snapshot.setMessage(new String(body, StandardCharsets.UTF_8));
+            }
+            if (version >= VERSION) {
+                snapshot.setCampaignId(readNullable(in));
+            }
+            return snapshot;
+        } catch (IOException | DataFormatException e) {
+            throw new MessageConversionException("Failed to decode notification snapshot", e);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static byte[] deflate(byte[] input) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length / 2);
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void inflate(byte[] input, byte[] output) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            int offset = 0;
+            while (offset < output.length && !inflater.finished()) {
+                int inflated = inflater.inflate(output, offset, output.length - offset);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated notification snapshot body");
+                }
+                offset += inflated;
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.notificationservice.messaging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent-hash ring that maps a recipient to one of the shard queues, so every notification for
+ * the same recipient lands on the same queue. Virtual nodes keep the spread even and mean that
+ * changing the shard count only moves about 1/N of the recipients.
+ */
+@Component
+public class RecipientShardRouter {
+
+    public static final String SHARD_EXCHANGE = "notification.shard.exchange";
+    public static final String SHARD_PREFIX = "notification.shard.";
+
+    private static final int VIRTUAL_NODES = 64;
+
+    private final boolean enabled;
+    private final int shards;
+    private final TreeMap<Long, Integer> ring = new TreeMap<>();
+
+    public RecipientShardRouter(@Value("${notification.sharding.enabled:false}") boolean enabled,
+                                @Value("${notification.sharding.shards:8}") int shards) {
+        this.enabled = enabled;
+        this.shards = Math.max(1, shards);
+        for (int shard = 0; shard < this.shards; shard++) {
+            for (int node = 0; node < VIRTUAL_NODES; node++) {
+                ring.put(hash("shard-" + shard + "#" + node), shard);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    public int shardFor(String recipient) {
+        Map.Entry<Long, Integer> entry = ring.ceilingEntry(hash(recipient != null ? recipient : ""));
+        return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+    }
+
+    public String routingKeyFor(String recipient) {
+        return queueName(shardFor(recipient));
+    }
+
+    public static String queueName(int shard) {
+        return SHARD_PREFIX + shard;
+    }
+
+    // 64-bit FNV-1a followed by the murmur3 finalizer for avalanche
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,44 @@
+package com.notificationservice.messaging;
+
+import org.springframework.amqp.core.MessageProperties;
+
+/**
+ * Trace context carried from the publishing node to the consumer in the {@value #HEADER} header,
+ * encoded as {@code <publishedAtMillis>;<sampled 0|1>}. The AMQP timestamp property only has
+ * second precision on the wire, so broker dwell is measured from this header instead.
+ */
+public record TraceContext(long publishedAtMillis, boolean sampled) {
+
+    public static final String HEADER = "x-notification-trace";
+
+    public static TraceContext now(boolean sampled) {
+        return new TraceContext(System.currentTimeMillis(), sampled);
+    }
+
+    // Null when the message was published without a context or by an incompatible version
+    public static TraceContext read(MessageProperties properties) {
+        Object value = properties.getHeader(HEADER);
+        if (value == null) {
+            return null;
+        }
+        String header = value.toString();
+        int separator = header.indexOf(';');
+        if (separator <= 0) {
+            return null;
+        }
+        try {
+            return new TraceContext(Long.parseLong(header, 0, separator, 10),
+                    header.startsWith("1", separator + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public void writeTo(MessageProperties properties) {
+        properties.setHeader(HEADER, encode());
+    }
+
+    public String encode() {
+        return publishedAtMillis + (sampled ? ";1" : ";0");
+    }
+}
@@ -0,0 +1,50 @@
+package com.notificationservice.repository;
+
+import com.notificationservice.entity.BulkJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface BulkJobRepository extends JpaRepository<BulkJob, String> {
+
+    // Additive, so every replica can flush its own deltas for the same campaign
+    @Modifying
+    @Transactional
+    @Query("UPDATE BulkJob j SET j.acceptedCount = j.acceptedCount + :accepted, " +
+            "j.sentCount = j.sentCount + :sent, j.failedCount = j.failedCount + :failed, " +
+            "j.updatedAt = CURRENT_TIMESTAMP WHERE j.id = :id")
+    int addCounts(@Param("id") String id, @Param("accepted") long accepted,
+                  @Param("sent") long sent, @Param("failed") long failed);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE BulkJob j SET j.status = :status, j.completedAt = :completedAt, " +
+            "j.updatedAt = CURRENT_TIMESTAMP WHERE j.id = :id AND j.status <> 'CANCELLED'")
+    int finish(@Param("id") String id, @Param("status") String status,
+               @Param("completedAt") LocalDateTime completedAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE BulkJob j SET j.status = 'CANCELLED', j.completedAt = :cancelledAt, " +
+            "j.cancelledCount = j.cancelledCount + :cancelled, j.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE j.id = :id")
+    int markCancelled(@Param("id") String id, @Param("cancelled") long cancelled,
+                      @Param("cancelledAt") LocalDateTime cancelledAt);
+
+    // Rows a producer enqueued while the cancel ran, withdrawn after it stopped
+    @Modifying
+    @Transactional
+    @Query("UPDATE BulkJob j SET j.cancelledCount = j.cancelledCount + :cancelled, " +
+            "j.updatedAt = CURRENT_TIMESTAMP WHERE j.id = :id")
+    int addCancelled(@Param("id") String id, @Param("cancelled") long cancelled);
+
+    @Query("SELECT j.id FROM BulkJob j WHERE j.status = 'CANCELLED' AND j.completedAt >= :since")
+    List<String> findCancelledSince(@Param("since") LocalDateTime since);
+}
@@ -1,11 +1,13 @@
 package com.notificationservice.repository;
 
 import com.notificationservice.entity.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,51 +24,104 @@ public interface NotificationRepository extends JpaRepository<Notification, Stri
 
     long countByStatus(String status);
 
-    List<Notification> findByStatusAndRetryCountLessThan(String status, int maxRetryCount);
+    // For PENDING this is a scan of idx_notifications_pending_claim
+    @Query("SELECT MIN(n.createdAt) FROM Notification n WHERE n.status = :status")
+    LocalDateTime findOldestCreatedAtByStatus(@Param("status") String status);
 
-    // Методы для AnalyticsService
-    List<Notification> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
+    List<Notification> findByStatusAndRetryCountLessThan(String status, int maxRetryCount);
 
-    @Query("SELECT AVG(n.processingTime) FROM Notification n WHERE n.processingTime IS NOT NULL")
-    Double findAverageProcessingTime();
+    // Методы для AnalyticsService; range counts and processing times come from notification_rollups
 
-    @Query("SELECT DATE(n.createdAt) as date, COUNT(n) as count " +
+    // Indexed aggregate over idx_notifications_error_fingerprint; the raw messages are not read
+    @Query("SELECT n.errorCategory, n.errorFingerprint, COUNT(n) as count " +
             "FROM Notification n " +
-            "WHERE n.createdAt BETWEEN :start AND :end " +
-            "GROUP BY DATE(n.createdAt) " +
-            "ORDER BY date")
-    List<Object[]> getDailyCountByDateRange(@Param("start") LocalDateTime start,
-                                            @Param("end") LocalDateTime end);
-
-    @Query("SELECT n.recipient, COUNT(n) as count " +
-            "FROM Notification n " +
-            "GROUP BY n.recipient " +
-            "ORDER BY count DESC " +
-            "LIMIT :limit")
-    List<Object[]> findTopRecipients(@Param("limit") int limit);
-
-    @Query("SELECT n.errorMessage, COUNT(n) as count " +
-            "FROM Notification n " +
-            "WHERE n.errorMessage IS NOT NULL " +
-            "GROUP BY n.errorMessage " +
+            "WHERE n.errorFingerprint IS NOT NULL " +
+            "GROUP BY n.errorCategory, n.errorFingerprint " +
             "ORDER BY count DESC")
     List<Object[]> findFailureReasons();
 
-    @Query("SELECT n.type, COUNT(n) as count " +
-            "FROM Notification n " +
-            "GROUP BY n.type")
-    List<Object[]> countByType();
-
-    @Query("SELECT n.status, COUNT(n) as count " +
-            "FROM Notification n " +
-            "GROUP BY n.status")
-    List<Object[]> countByStatusGroup();
+    @Query("SELECT n.errorMessage FROM Notification n WHERE n.errorFingerprint = :errorFingerprint")
+    List<String> findErrorMessagesByFingerprint(@Param("errorFingerprint") String errorFingerprint, Pageable pageable);
 
-    @Query("SELECT n.priority, COUNT(n) as count " +
+    // Full grouped scan; only StatusCountsService reconciliation runs it, the analytics endpoints read memory
+    @Query("SELECT n.type, n.status, n.priority, COUNT(n) " +
             "FROM Notification n " +
-            "WHERE n.priority IS NOT NULL " +
-            "GROUP BY n.priority")
-    List<Object[]> countByPriority();
+            "GROUP BY n.type, n.status, n.priority")
+    List<Object[]> countByTypeStatusAndPriority();
+
+    // Outcome-only writes for senders that do not hold the row; a row cancelled meanwhile is left alone
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = 'SENT', n.sentAt = :sentAt, n.processingTime = :processingTime, " +
+            "n.provider = :provider, n.updatedAt = CURRENT_TIMESTAMP WHERE n.id = :id AND n.status = 'PENDING'")
+    int markSent(@Param("id") String id, @Param("sentAt") LocalDateTime sentAt,
+                 @Param("processingTime") Long processingTime, @Param("provider") String provider);
+
+    // A listener retry that succeeds after an earlier attempt of the same delivery wrote FAILED
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = 'SENT', n.sentAt = :sentAt, n.processingTime = :processingTime, " +
+            "n.provider = :provider, n.updatedAt = CURRENT_TIMESTAMP WHERE n.id = :id AND n.status = 'FAILED'")
+    int markSentAfterFailure(@Param("id") String id, @Param("sentAt") LocalDateTime sentAt,
+                             @Param("processingTime") Long processingTime, @Param("provider") String provider);
+
+    // Cancels up to :limit PENDING rows of the campaign over idx_notifications_campaign_status and
+    // commits; returns type, priority, creation minute and count of the cancelled rows.
+    // FAILED rows keep their status and are skipped on retry
+    @Transactional
+    @Query(value = "WITH cancelled AS (" +
+            "UPDATE notifications SET status = 'CANCELLED', updated_at = CURRENT_TIMESTAMP " +
+            "WHERE status = 'PENDING' AND id IN (SELECT id FROM notifications " +
+            "WHERE campaign_id = :campaignId AND status = 'PENDING' LIMIT :limit) " +
+            "RETURNING type, priority, created_at) " +
+            "SELECT type, priority, date_trunc('minute', created_at), COUNT(*) FROM cancelled " +
+            "GROUP BY type, priority, date_trunc('minute', created_at)", nativeQuery = true)
+    List<Object[]> cancelPendingBatch(@Param("campaignId") String campaignId, @Param("limit") int limit);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = 'FAILED', n.errorMessage = :errorMessage, " +
+            "n.errorFingerprint = :errorFingerprint, n.errorCategory = :errorCategory, " +
+            "n.retryCount = n.retryCount + 1, n.provider = :provider, n.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE n.id = :id AND n.status = 'PENDING'")
+    int markFailed(@Param("id") String id, @Param("errorMessage") String errorMessage,
+                   @Param("errorFingerprint") String errorFingerprint, @Param("errorCategory") String errorCategory,
+                   @Param("provider") String provider);
+
+    // Work-queue claim: rows locked by another worker are skipped instead of waited on.
+    // Served by the partial index idx_notifications_pending_claim (V4)
+    @Query(value = "SELECT * FROM notifications " +
+            "WHERE status = 'PENDING' AND priority = :priority " +
+            "ORDER BY created_at " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Notification> claimPending(@Param("priority") String priority, @Param("limit") int limit);
+
+    // PROCESSING rows whose worker died or overran its lease (idx_notifications_processing_lease, V11)
+    @Query(value = "SELECT * FROM notifications " +
+            "WHERE status = 'PROCESSING' AND lease_expires_at < :now " +
+            "ORDER BY lease_expires_at " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Notification> claimExpiredLeases(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // Outcome writes of the database work queue; a row reclaimed under a new lease is left alone
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = 'SENT', n.sentAt = :sentAt, n.processingTime = :processingTime, " +
+            "n.provider = :provider, n.leaseExpiresAt = NULL, n.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE n.id = :id AND n.status = 'PROCESSING' AND n.leaseExpiresAt = :leaseExpiresAt")
+    int markLeaseSent(@Param("id") String id, @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt,
+                      @Param("sentAt") LocalDateTime sentAt, @Param("processingTime") Long processingTime,
+                      @Param("provider") String provider);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = 'FAILED', n.errorMessage = :errorMessage, " +
+            "n.errorFingerprint = :errorFingerprint, n.errorCategory = :errorCategory, " +
+            "n.retryCount = n.retryCount + 1, n.provider = :provider, n.leaseExpiresAt = NULL, " +
+            "n.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE n.id = :id AND n.status = 'PROCESSING' AND n.leaseExpiresAt = :leaseExpiresAt")
+    int markLeaseFailed(@Param("id") String id, @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt,
+                        @Param("errorMessage") String errorMessage,
+                        @Param("errorFingerprint") String errorFingerprint,
+                        @Param("errorCategory") String errorCategory, @Param("provider") String provider);
 
     // Метод для RetryService
     List<Notification> findByStatusAndCreatedAtBefore(String status, LocalDateTime dateTime);
@@ -0,0 +1,65 @@
+package com.notificationservice.repository;
+
+import com.notificationservice.entity.NotificationRollup;
+import com.notificationservice.entity.NotificationRollup.Granularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationRollupRepository extends JpaRepository<NotificationRollup, String> {
+
+    // Additive so replicas can flush concurrently; 0 means the row does not exist yet
+    @Modifying
+    @Transactional
+    @Query("UPDATE NotificationRollup r SET r.count = r.count + :delta, " +
+            "r.processingTimeSum = r.processingTimeSum + :processingTimeSum, " +
+            "r.processingTimeCount = r.processingTimeCount + :processingTimeCount " +
+            "WHERE r.granularity = :granularity AND r.bucketStart = :bucketStart AND r.type = :type " +
+            "AND r.status = :status AND r.priority = :priority AND r.provider = :provider")
+    int addCount(@Param("granularity") Granularity granularity,
+                 @Param("bucketStart") LocalDateTime bucketStart,
+                 @Param("type") String type,
+                 @Param("status") String status,
+                 @Param("priority") String priority,
+                 @Param("provider") String provider,
+                 @Param("delta") long delta,
+                 @Param("processingTimeSum") long processingTimeSum,
+                 @Param("processingTimeCount") long processingTimeCount);
+
+    @Query("SELECT r.type, r.status, SUM(r.count) FROM NotificationRollup r " +
+            "WHERE r.granularity = :granularity AND r.bucketStart >= :start AND r.bucketStart < :end " +
+            "GROUP BY r.type, r.status")
+    List<Object[]> sumByTypeAndStatus(@Param("granularity") Granularity granularity,
+                                      @Param("start") LocalDateTime start,
+                                      @Param("end") LocalDateTime end);
+
+    // One row: total processing time and the number of notifications it covers
+    @Query("SELECT SUM(r.processingTimeSum), SUM(r.processingTimeCount) FROM NotificationRollup r " +
+            "WHERE r.granularity = :granularity AND r.bucketStart >= :start AND r.bucketStart < :end")
+    List<Object[]> sumProcessingTime(@Param("granularity") Granularity granularity,
+                                     @Param("start") LocalDateTime start,
+                                     @Param("end") LocalDateTime end);
+
+    @Query("SELECT SUM(r.processingTimeSum), SUM(r.processingTimeCount) FROM NotificationRollup r " +
+            "WHERE r.granularity = :granularity")
+    List<Object[]> sumProcessingTime(@Param("granularity") Granularity granularity);
+
+    @Query("SELECT r.bucketStart, SUM(r.count) FROM NotificationRollup r " +
+            "WHERE r.granularity = :granularity AND r.bucketStart >= :start AND r.bucketStart < :end " +
+            "GROUP BY r.bucketStart ORDER BY r.bucketStart")
+    List<Object[]> sumByBucket(@Param("granularity") Granularity granularity,
+                               @Param("start") LocalDateTime start,
+                               @Param("end") LocalDateTime end);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM NotificationRollup r WHERE r.granularity = :granularity AND r.bucketStart < :cutoff")
+    int deleteOlderThan(@Param("granularity") Granularity granularity, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,26 @@
+package com.notificationservice.repository;
+
+import com.notificationservice.entity.RecipientSketchSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RecipientSketchSnapshotRepository extends JpaRepository<RecipientSketchSnapshot, String> {
+
+    Optional<RecipientSketchSnapshot> findByReplicaIdAndHourStart(String replicaId, LocalDateTime hourStart);
+
+    List<RecipientSketchSnapshot> findByReplicaIdNotAndHourStartGreaterThanEqual(String replicaId, LocalDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RecipientSketchSnapshot s WHERE s.hourStart < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,15 +1,21 @@
 package com.notificationservice.repository;
 
 import com.notificationservice.entity.User;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
@@ -52,6 +58,21 @@ public interface UserRepository extends JpaRepository<User, String> {
 
     List<User> findByLastSeenAtBeforeAndActiveTrue(LocalDateTime date);
 
+    // Segment fan-out cursors: scalar projections, so nothing accumulates in the persistence context.
+    // Must be consumed inside a transaction and closed.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT u.email FROM User u WHERE u.email IS NOT NULL AND u.active = true ORDER BY u.id")
+    Stream<String> streamEmailRecipients();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT u.id FROM User u WHERE u.pushToken IS NOT NULL AND u.active = true " +
+            "AND (:platform IS NULL OR u.platform = :platform) ORDER BY u.id")
+    Stream<String> streamPushRecipients(@Param("platform") User.Platform platform);
+
+    @Query("SELECT COUNT(u) FROM User u WHERE u.pushToken IS NOT NULL AND u.active = true " +
+            "AND (:platform IS NULL OR u.platform = :platform)")
+    long countPushRecipients(@Param("platform") User.Platform platform);
+
     @Query("SELECT u.platform, COUNT(u) FROM User u WHERE u.active = true GROUP BY u.platform")
     List<Object[]> countUsersByPlatform();
 }
@@ -0,0 +1,177 @@
+package com.notificationservice.service;
+
+import com.notificationservice.entity.NotificationRollup;
+import com.notificationservice.entity.NotificationRollup.Granularity;
+import com.notificationservice.repository.NotificationRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps {@code notification_rollups} up to date from status transitions. A transition moves one
+ * notification from its previous status to the new one inside the bucket it was created in, so
+ * per-bucket counts always reflect current statuses. SENT rows also total the processing time of
+ * their notifications, so averages can be taken over any range of buckets. Deltas are merged in
+ * memory per minute and key and added to the minute, hour and day rows on a schedule.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsRollupService implements StatusTransitionObserver {
+
+    static final String NO_PROVIDER = "NONE";
+
+    private final NotificationRollupRepository rollupRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${notification.analytics.rollup.minute-retention-hours:48}")
+    private long minuteRetentionHours = 48;
+
+    @Value("${notification.analytics.rollup.hour-retention-days:90}")
+    private long hourRetentionDays = 90;
+
+    private final ConcurrentMap<RollupKey, RollupDelta> deltas = new ConcurrentHashMap<>();
+
+    @Override
+    public void onStatusTransition(StatusTransition transition) {
+        if (transition.status() == null || transition.type() == null) {
+            return;
+        }
+        LocalDateTime created = transition.createdAt() != null ? transition.createdAt() : transition.occurredAt();
+        LocalDateTime minute = created.truncatedTo(ChronoUnit.MINUTES);
+        String priority = transition.priority() != null ? transition.priority() : "NORMAL";
+
+        if (transition.previousStatus() != null) {
+            add(new RollupKey(minute, transition.type(), transition.previousStatus(), priority,
+                    provider(transition.previousStatus(), transition.previousProvider())),
+                    RollupDelta.of(-transition.count(), transition.previousStatus(), transition.processingTime()));
+        }
+        add(new RollupKey(minute, transition.type(), transition.status(), priority,
+                provider(transition.status(), transition.provider())),
+                RollupDelta.of(transition.count(), transition.status(), transition.processingTime()));
+    }
+
+    @Scheduled(fixedDelayString = "${notification.analytics.rollup.flush-interval:5000}")
+    public void flush() {
+        Map<RollupKey, RollupDelta> batch = new HashMap<>();
+        for (RollupKey key : deltas.keySet()) {
+            RollupDelta delta = deltas.remove(key);
+            if (delta != null && !delta.isZero()) {
+                batch.put(key, delta);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        Map<RollupKey, RollupDelta> rows = new HashMap<>();
+        batch.forEach((key, delta) -> {
+            for (Granularity granularity : Granularity.values()) {
+                rows.merge(key.withBucket(bucketStart(granularity, key.bucketStart()), granularity), delta,
+                        RollupDelta::plus);
+            }
+        });
+
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                    rows.forEach((key, delta) -> {
+                        if (!delta.isZero()) {
+                            write(key, delta);
+                        }
+                    }));
+        } catch (Exception e) {
+            // Nothing was committed, so the whole batch goes back for the next flush
+            log.warn("Failed to flush {} analytics rollup rows: {}", rows.size(), e.getMessage());
+            batch.forEach((key, delta) -> deltas.merge(key, delta, RollupDelta::plus));
+        }
+    }
+
+    @Scheduled(cron = "${notification.analytics.rollup.purge-cron:0 15 * * * *}")
+    public void purge() {
+        LocalDateTime now = LocalDateTime.now();
+        int minutes = rollupRepository.deleteOlderThan(Granularity.MINUTE, now.minusHours(minuteRetentionHours));
+        int hours = rollupRepository.deleteOlderThan(Granularity.HOUR, now.minusDays(hourRetentionDays));
+        log.debug("Purged {} minute and {} hour rollup rows", minutes, hours);
+    }
+
+    public static LocalDateTime bucketStart(Granularity granularity, LocalDateTime time) {
+        return switch (granularity) {
+            case MINUTE -> time.truncatedTo(ChronoUnit.MINUTES);
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+        };
+    }
+
+    private void add(RollupKey key, RollupDelta delta) {
+        deltas.merge(key, delta, RollupDelta::plus);
+    }
+
+    private void write(RollupKey key, RollupDelta delta) {
+        int updated = rollupRepository.addCount(key.granularity(), key.bucketStart(), key.type(), key.status(),
+                key.priority(), key.provider(), delta.count(), delta.processingTimeSum(), delta.processingTimeCount());
+        if (updated == 0) {
+            NotificationRollup row = new NotificationRollup();
+            row.setGranularity(key.granularity());
+            row.setBucketStart(key.bucketStart());
+            row.setType(key.type());
+            row.setStatus(key.status());
+            row.setPriority(key.priority());
+            row.setProvider(key.provider());
+            row.setCount(delta.count());
+            row.setProcessingTimeSum(delta.processingTimeSum());
+            row.setProcessingTimeCount(delta.processingTimeCount());
+            rollupRepository.save(row);
+        }
+    }
+
+    // Only attempted sends have a provider; PENDING and CANCELLED are counted without one
+    private static String provider(String status, String provider) {
+        if (provider == null || "PENDING".equals(status) || "CANCELLED".equals(status)) {
+            return NO_PROVIDER;
+        }
+        return provider;
+    }
+
+    record RollupDelta(long count, long processingTimeSum, long processingTimeCount) {
+
+        // Only SENT notifications carry a processing time into the average
+        static RollupDelta of(long count, String status, Long processingTime) {
+            if (processingTime == null || !"SENT".equals(status)) {
+                return new RollupDelta(count, 0, 0);
+            }
+            return new RollupDelta(count, count * processingTime, count);
+        }
+
+        RollupDelta plus(RollupDelta other) {
+            return new RollupDelta(count + other.count, processingTimeSum + other.processingTimeSum,
+                    processingTimeCount + other.processingTimeCount);
+        }
+
+        boolean isZero() {
+            return count == 0 && processingTimeSum == 0 && processingTimeCount == 0;
+        }
+    }
+
+    record RollupKey(LocalDateTime bucketStart, String type, String status, String priority, String provider,
+                     Granularity granularity) {
+
+        RollupKey(LocalDateTime minute, String type, String status, String priority, String provider) {
+            this(minute, type, status, priority, provider, Granularity.MINUTE);
+        }
+
+        RollupKey withBucket(LocalDateTime bucketStart, Granularity granularity) {
+            return new RollupKey(bucketStart, type, status, priority, provider, granularity);
+        }
+    }
+}
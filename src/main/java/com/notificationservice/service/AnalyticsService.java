@@ -1,8 +1,9 @@
 package com.notificationservice.service;
 
 import com.notificationservice.dto.NotificationStats;
-import com.notificationservice.entity.Notification;
+import com.notificationservice.entity.NotificationRollup.Granularity;
 import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.repository.NotificationRollupRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -10,8 +11,10 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 @RequiredArgsConstructor
@@ -19,29 +22,37 @@ import java.util.Map;
 public class AnalyticsService {
 
     private final NotificationRepository notificationRepository;
+    private final NotificationRollupRepository rollupRepository;
+    private final TopRecipientsService topRecipientsService;
+    private final FailureAnalyticsService failureAnalyticsService;
+    private final StatusCountsService statusCountsService;
 
+    // Served from the DAY rollups: one row per day and key instead of every notification in the range
     public NotificationStats getNotificationStats(LocalDate startDate, LocalDate endDate) {
         LocalDateTime start = startDate.atStartOfDay();
         LocalDateTime end = endDate.plusDays(1).atStartOfDay();
 
-        List<Notification> notifications = notificationRepository.findByCreatedAtBetween(start, end);
+        List<Object[]> results = rollupRepository.sumByTypeAndStatus(Granularity.DAY, start, end);
 
         NotificationStats stats = new NotificationStats();
-        stats.setTotalNotifications(notifications.size());
         stats.setPeriodStart(start);
         stats.setPeriodEnd(end);
 
         Map<String, Long> notificationsByType = new HashMap<>();
         Map<String, Long> notificationsByStatus = new HashMap<>();
+        long totalNotifications = 0;
 
-        for (Notification notification : notifications) {
-            // Count by type
-            notificationsByType.merge(notification.getType(), 1L, Long::sum);
-
-            // Count by status
-            notificationsByStatus.merge(notification.getStatus(), 1L, Long::sum);
+        for (Object[] result : results) {
+            long count = ((Number) result[2]).longValue();
+            if (count == 0) {
+                continue;
+            }
+            notificationsByType.merge((String) result[0], count, Long::sum);
+            notificationsByStatus.merge((String) result[1], count, Long::sum);
+            totalNotifications += count;
         }
 
+        stats.setTotalNotifications((int) totalNotifications);
         stats.setNotificationsByType(notificationsByType);
         stats.setNotificationsByStatus(notificationsByStatus);
 
@@ -56,23 +67,23 @@ public class AnalyticsService {
             stats.setSuccessRate(0.0);
         }
 
-        // Calculate average processing time
-        Double avgTime = notificationRepository.findAverageProcessingTime();
-        stats.setAverageProcessingTimeMs(avgTime != null ? (long) (avgTime * 1000) : 0L);
+        // Average processing time of the notifications created in the range
+        stats.setAverageProcessingTimeMs((long) average(rollupRepository.sumProcessingTime(Granularity.DAY, start, end)));
 
         return stats;
     }
 
     public Map<LocalDate, Long> getDailyNotificationCount(LocalDate startDate, LocalDate endDate) {
-        List<Object[]> results = notificationRepository.getDailyCountByDateRange(
+        List<Object[]> results = rollupRepository.sumByBucket(
+                Granularity.DAY,
                 startDate.atStartOfDay(),
                 endDate.plusDays(1).atStartOfDay()
         );
 
         Map<LocalDate, Long> dailyCounts = new HashMap<>();
         for (Object[] result : results) {
-            LocalDate date = ((java.sql.Date) result[0]).toLocalDate();
-            Long count = ((Long) result[1]);
+            LocalDate date = ((LocalDateTime) result[0]).toLocalDate();
+            Long count = ((Number) result[1]).longValue();
             dailyCounts.put(date, count);
         }
 
@@ -86,74 +97,69 @@ public class AnalyticsService {
         return dailyCounts;
     }
 
-    public Map<String, Long> getTopRecipients(int limit) {
-        List<Object[]> results = notificationRepository.findTopRecipients(limit);
-        Map<String, Long> topRecipients = new HashMap<>();
+    // Created notifications per minute, hour or day bucket; minute rows are kept for two days by default
+    public Map<LocalDateTime, Long> getTimeSeries(Granularity granularity, LocalDateTime start, LocalDateTime end) {
+        List<Object[]> results = rollupRepository.sumByBucket(granularity,
+                AnalyticsRollupService.bucketStart(granularity, start), end);
 
+        Map<LocalDateTime, Long> series = new TreeMap<>();
         for (Object[] result : results) {
-            String recipient = (String) result[0];
-            Long count = (Long) result[1];
-            topRecipients.put(recipient, count);
+            series.put((LocalDateTime) result[0], ((Number) result[1]).longValue());
         }
+        return series;
+    }
 
+    // Approximate, from the recipient sketches; ordered by count, highest first
+    public Map<String, Long> getTopRecipients(int limit, TopRecipientsService.Window window) {
+        Map<String, Long> topRecipients = new LinkedHashMap<>();
+        for (SpaceSavingSketch.Estimate estimate : topRecipientsService.top(limit, window)) {
+            topRecipients.put(estimate.item(), estimate.count());
+        }
         return topRecipients;
     }
 
+    // Grouped by error fingerprint, highest first; failures recorded before fingerprinting are not included
     public Map<String, Long> getFailureReasons() {
         List<Object[]> results = notificationRepository.findFailureReasons();
-        Map<String, Long> failureReasons = new HashMap<>();
+        Map<String, Long> failureReasons = new LinkedHashMap<>();
 
         for (Object[] result : results) {
-            String errorMessage = (String) result[0];
-            Long count = (Long) result[1];
-            failureReasons.put(errorMessage != null ? errorMessage : "Unknown error", count);
+            String label = failureAnalyticsService.describe((String) result[0], (String) result[1]);
+            Long count = (Long) result[2];
+            failureReasons.merge(label, count, Long::sum);
         }
 
         return failureReasons;
     }
 
+    public Map<String, Long> getLiveFailureReasons() {
+        return failureAnalyticsService.getLiveCounts();
+    }
+
+    // Over all DAY rollups, which are kept indefinitely
     public double getAverageProcessingTime() {
-        Double avgTime = notificationRepository.findAverageProcessingTime();
-        return avgTime != null ? avgTime : 0.0;
+        return average(rollupRepository.sumProcessingTime(Granularity.DAY));
     }
 
     // Дополнительные методы аналитики
     public Map<String, Long> getNotificationsByType() {
-        List<Object[]> results = notificationRepository.countByType();
-        Map<String, Long> byType = new HashMap<>();
-
-        for (Object[] result : results) {
-            String type = (String) result[0];
-            Long count = (Long) result[1];
-            byType.put(type, count);
-        }
-
-        return byType;
+        return statusCountsService.getCounts(StatusCountsService.Dimension.TYPE);
     }
 
     public Map<String, Long> getNotificationsByStatus() {
-        List<Object[]> results = notificationRepository.countByStatusGroup();
-        Map<String, Long> byStatus = new HashMap<>();
-
-        for (Object[] result : results) {
-            String status = (String) result[0];
-            Long count = (Long) result[1];
-            byStatus.put(status, count);
-        }
-
-        return byStatus;
+        return statusCountsService.getCounts(StatusCountsService.Dimension.STATUS);
     }
 
     public Map<String, Long> getNotificationsByPriority() {
-        List<Object[]> results = notificationRepository.countByPriority();
-        Map<String, Long> byPriority = new HashMap<>();
+        return statusCountsService.getCounts(StatusCountsService.Dimension.PRIORITY);
+    }
 
-        for (Object[] result : results) {
-            String priority = (String) result[0];
-            Long count = (Long) result[1];
-            byPriority.put(priority, count);
+    private static double average(List<Object[]> totals) {
+        if (totals.isEmpty() || totals.get(0)[0] == null) {
+            return 0.0;
         }
-
-        return byPriority;
+        long sum = ((Number) totals.get(0)[0]).longValue();
+        long count = ((Number) totals.get(0)[1]).longValue();
+        return count > 0 ? (double) sum / count : 0.0;
     }
 }
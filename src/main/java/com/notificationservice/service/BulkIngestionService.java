@@ -0,0 +1,170 @@
+package com.notificationservice.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationservice.dto.BulkIngestionResult;
+import com.notificationservice.dto.EmailRequest;
+import com.notificationservice.entity.Notification;
+import com.notificationservice.messaging.NotificationDispatcher;
+import com.notificationservice.repository.NotificationRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Ingests newline-delimited {@link EmailRequest} JSON without materialising the stream.
+ * <p>
+ * Records are parsed one at a time and validated, then persisted and enqueued in batches. At most
+ * one batch is being written while the next one is parsed. The request thread waits for that
+ * write before it reads further, so a slow database or broker slows down reading from the socket.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkIngestionService {
+
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final NotificationService notificationService;
+    private final NotificationRepository notificationRepository;
+    private final NotificationDispatcher notificationDispatcher;
+    private final TemplateService templateService;
+
+    @Value("${notification.bulk.stream.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${notification.bulk.render-cache-size:10000}")
+    private int renderCacheSize = 10000;
+
+    // One thread per active stream at most: each stream has a single batch in flight
+    private final ExecutorService writer = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "bulk-ingest-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // priority only applies to records that do not set their own
+    public BulkIngestionResult ingest(InputStream input, EmailRequest.Priority priority) throws IOException {
+        long start = System.currentTimeMillis();
+        BulkIngestionResult result = new BulkIngestionResult();
+        AtomicLong accepted = new AtomicLong();
+        BulkRenderCache renderCache = new BulkRenderCache(notificationService, templateService, renderCacheSize);
+
+        List<Notification> batch = new ArrayList<>(batchSize);
+        CompletableFuture<Void> inFlight = CompletableFuture.completedFuture(null);
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(input)) {
+            long record = 0;
+            while (parser.nextToken() != null) {
+                record++;
+                result.setReceived(record);
+
+                EmailRequest request = read(parser, record, priority, result);
+                if (request == null) {
+                    continue;
+                }
+                batch.add(notificationService.prepareEmailNotification(request, renderCache.render(request)));
+
+                if (batch.size() >= batchSize) {
+                    inFlight.join();
+                    List<Notification> full = batch;
+                    inFlight = CompletableFuture.runAsync(() -> accepted.addAndGet(persist(full)), writer);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            result.setTruncated(true);
+            String line = e.getLocation() != null ? "line " + e.getLocation().getLineNr() : "end of stream";
+            reject(result, line + ": malformed JSON, stopped reading: " + e.getOriginalMessage());
+        } finally {
+            inFlight.join();
+        }
+
+        if (!batch.isEmpty()) {
+            accepted.addAndGet(persist(batch));
+        }
+
+        result.setAccepted(accepted.get());
+        result.setProcessingTimeMs(System.currentTimeMillis() - start);
+        log.info("Bulk stream ingested: {} received, {} accepted, {} rejected{}",
+                result.getReceived(), result.getAccepted(), result.getRejected(),
+                result.isTruncated() ? " (truncated)" : "");
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    private EmailRequest read(JsonParser parser, long record, EmailRequest.Priority defaultPriority,
+                              BulkIngestionResult result) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            reject(result, "record " + record + ": expected a JSON object");
+            return null;
+        }
+
+        // Tree first: a record that does not bind leaves the parser at the next record
+        JsonNode node = objectMapper.readTree(parser);
+        EmailRequest request;
+        try {
+            request = objectMapper.treeToValue(node, EmailRequest.class);
+        } catch (JsonProcessingException e) {
+            reject(result, "record " + record + ": " + e.getOriginalMessage());
+            return null;
+        }
+        // EmailRequest defaults to NORMAL, so an absent priority is only visible in the tree
+        if (!node.hasNonNull("priority")) {
+            request.setPriority(defaultPriority);
+        }
+
+        Set<ConstraintViolation<EmailRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            reject(result, "record " + record + ": " + violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return null;
+        }
+        return request;
+    }
+
+    private int persist(List<Notification> batch) {
+        List<Notification> saved = notificationRepository.saveAll(batch);
+        try {
+            notificationDispatcher.publishAll(saved).join();
+        } catch (Exception e) {
+            // Rows stay PENDING and are picked up by the stuck-notification sweep
+            log.warn("Failed to enqueue part of a bulk batch of {}: {}", saved.size(), e.getMessage());
+        }
+        return saved.size();
+    }
+
+    private static void reject(BulkIngestionResult result, String error) {
+        result.setRejected(result.getRejected() + 1);
+        if (result.getErrors().size() < MAX_REPORTED_ERRORS) {
+            result.getErrors().add(error);
+        }
+    }
+}
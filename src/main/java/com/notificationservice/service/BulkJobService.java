@@ -0,0 +1,146 @@
+package com.notificationservice.service;
+
+import com.notificationservice.dto.BulkJobStatus;
+import com.notificationservice.entity.BulkJob;
+import com.notificationservice.repository.BulkJobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks bulk jobs, which double as campaigns: every notification created by a job carries its id
+ * as {@code campaignId}. Status transitions of those notifications are counted in memory on
+ * {@link LongAdder}s, so send threads never contend on a row lock, and the deltas are added to
+ * {@code bulk_jobs} on a schedule. Each replica flushes its own deltas, so a campaign's row is
+ * the sum over all consumers, and a dashboard reads one row instead of grouping notifications.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkJobService implements StatusTransitionObserver {
+
+    private final BulkJobRepository bulkJobRepository;
+
+    // One small entry per campaign with counts not yet flushed; flushed entries are dropped until the next transition
+    private final ConcurrentMap<String, CampaignDelta> deltas = new ConcurrentHashMap<>();
+
+    public BulkJobStatus createJob(String type, String priority, long accepted, long duplicates) {
+        BulkJob job = new BulkJob();
+        job.setType(type);
+        job.setPriority(priority);
+        job.setAcceptedCount(accepted);
+        job.setDuplicateCount(duplicates);
+        job.setCreatedAt(LocalDateTime.now());
+        BulkJob saved = bulkJobRepository.save(job);
+
+        log.info("Created bulk job {} for {} recipients", saved.getId(), accepted);
+        return toStatus(saved, null);
+    }
+
+    // For jobs that discover their size while running, such as segment fan-outs
+    public void recordAccepted(String jobId, int count) {
+        deltas.compute(jobId, (id, delta) -> orNew(delta).accept(count));
+    }
+
+    /**
+     * Counters follow the current state of each notification: a transition leaves its previous
+     * bucket and enters the new one, so a FAILED notification that is retried and sent moves from
+     * failed to sent instead of being counted twice.
+     */
+    @Override
+    public void onStatusTransition(StatusTransition transition) {
+        if (transition.campaignId() == null) {
+            return;
+        }
+        deltas.compute(transition.campaignId(), (id, delta) ->
+                orNew(delta).bucket(transition.previousStatus(), -transition.count())
+                        .bucket(transition.status(), transition.count()));
+    }
+
+    public void complete(String jobId, String status) {
+        bulkJobRepository.finish(jobId, status, LocalDateTime.now());
+    }
+
+    public Optional<BulkJobStatus> getStatus(String jobId) {
+        return bulkJobRepository.findById(jobId).map(job -> toStatus(job, deltas.get(jobId)));
+    }
+
+    @Scheduled(fixedDelayString = "${notification.bulk.jobs.flush-interval:2000}")
+    public void flush() {
+        for (Map.Entry<String, CampaignDelta> entry : deltas.entrySet()) {
+            CampaignDelta delta = entry.getValue();
+            long accepted = delta.accepted.sumThenReset();
+            long sent = delta.sent.sumThenReset();
+            long failed = delta.failed.sumThenReset();
+            if (accepted != 0 || sent != 0 || failed != 0) {
+                try {
+                    bulkJobRepository.addCounts(entry.getKey(), accepted, sent, failed);
+                } catch (Exception e) {
+                    log.warn("Failed to flush counters of bulk job {}: {}", entry.getKey(), e.getMessage());
+                    delta.accepted.add(accepted);
+                    delta.sent.add(sent);
+                    delta.failed.add(failed);
+                    continue;
+                }
+            }
+            // Everything is in bulk_jobs now, so a finished campaign leaves nothing behind. Updates run
+            // under the same key lock, so none can land on the entry while it is removed
+            deltas.computeIfPresent(entry.getKey(), (id, current) -> current.isEmpty() ? null : current);
+        }
+    }
+
+    private static CampaignDelta orNew(CampaignDelta delta) {
+        return delta != null ? delta : new CampaignDelta();
+    }
+
+    private static BulkJobStatus toStatus(BulkJob job, CampaignDelta delta) {
+        long accepted = job.getAcceptedCount() + (delta != null ? delta.accepted.sum() : 0);
+        long sent = job.getSentCount() + (delta != null ? delta.sent.sum() : 0);
+        long failed = job.getFailedCount() + (delta != null ? delta.failed.sum() : 0);
+        long cancelled = job.getCancelledCount();
+        return BulkJobStatus.builder()
+                .jobId(job.getId())
+                .status(job.getStatus())
+                .accepted(accepted)
+                .duplicates(job.getDuplicateCount())
+                .sent(sent)
+                .failed(failed)
+                .cancelled(cancelled)
+                .pending(Math.max(0, accepted - sent - failed - cancelled))
+                .createdAt(job.getCreatedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+
+    private static final class CampaignDelta {
+        private final LongAdder accepted = new LongAdder();
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+        private CampaignDelta accept(int count) {
+            accepted.add(count);
+            return this;
+        }
+
+        private CampaignDelta bucket(String status, long change) {
+            if ("SENT".equals(status)) {
+                sent.add(change);
+            } else if ("FAILED".equals(status) || "FAILED_PERMANENTLY".equals(status)) {
+                failed.add(change);
+            }
+            return this;
+        }
+
+        private boolean isEmpty() {
+            return accepted.sum() == 0 && sent.sum() == 0 && failed.sum() == 0;
+        }
+    }
+}
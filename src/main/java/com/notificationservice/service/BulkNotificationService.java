@@ -1,48 +1,231 @@
 package com.notificationservice.service;
 
 import com.notificationservice.dto.BulkEmailRequest;
+import com.notificationservice.dto.BulkJobStatus;
+import com.notificationservice.dto.BulkProcessingStats;
 import com.notificationservice.dto.EmailRequest;
-import com.notificationservice.dto.NotificationResponse;
+import com.notificationservice.entity.Notification;
+import com.notificationservice.repository.NotificationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Sends a bulk request in chunks. Each chunk is inserted in one batch and sent on a fixed-size
+ * pool, then each outcome is written with an update that only applies to a still-PENDING row.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class BulkNotificationService {
 
     private final NotificationService notificationService;
+    private final NotificationRepository notificationRepository;
+    private final MetricsService metricsService;
+    private final RetryBudgetService retryBudgetService;
+    private final BulkJobService bulkJobService;
+    private final CampaignCancellationService campaignCancellationService;
+    private final TemplateService templateService;
+    private final StatusTransitionPublisher statusTransitionPublisher;
 
-    public List<NotificationResponse> sendBulkEmails(BulkEmailRequest request) {
+    @Value("${notification.bulk.chunk-size:100}")
+    private int chunkSize = 100;
+
+    // Concurrent SMTP sends across all bulk requests
+    @Value("${notification.bulk.parallelism:8}")
+    private int parallelism = 8;
+
+    // Bulk jobs driven at the same time; their sends share the pool above
+    @Value("${notification.bulk.jobs.concurrency:2}")
+    private int jobConcurrency = 2;
+
+    // Distinct template renders kept per bulk send
+    @Value("${notification.bulk.render-cache-size:10000}")
+    private int renderCacheSize = 10000;
+
+    private ExecutorService sendExecutor;
+    private ExecutorService jobExecutor;
+    private ForkJoinPool renderPool;
+
+    @PostConstruct
+    public void init() {
+        sendExecutor = Executors.newFixedThreadPool(parallelism, daemonThreads("bulk-send-"));
+        jobExecutor = Executors.newFixedThreadPool(jobConcurrency, daemonThreads("bulk-job-"));
+        renderPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdown();
+        sendExecutor.shutdown();
+        renderPool.shutdown();
+    }
+
+    public BulkProcessingStats sendBulkEmails(BulkEmailRequest request) {
         log.info("Processing bulk email request for {} recipients", request.getEmails().size());
 
-        return request.getEmails().stream()
-                .map(emailRequest -> {
-                    // Устанавливаем приоритет из bulk запроса в каждый отдельный email
-                    emailRequest.setPriority(convertPriority(request.getPriority()));
-                    return notificationService.sendEmail(emailRequest);
-                })
-                .toList();
-    }
-
-    public CompletableFuture<List<NotificationResponse>> sendBulkEmailsAsync(BulkEmailRequest request) {
-        log.info("Processing async bulk email request for {} recipients", request.getEmails().size());
-
-        List<CompletableFuture<NotificationResponse>> futures = request.getEmails().stream()
-                .map(emailRequest -> {
-                    emailRequest.setPriority(convertPriority(request.getPriority()));
-                    return notificationService.sendEmailAsync(emailRequest);
-                })
-                .toList();
-
-        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                .thenApply(v -> futures.stream()
-                        .map(CompletableFuture::join)
-                        .toList());
+        BulkProcessingStats stats = new BulkProcessingStats();
+        stats.setStartTime(LocalDateTime.now());
+
+        List<EmailRequest> recipients = dedupe(request.getEmails());
+        stats.setDuplicateCount(request.getEmails().size() - recipients.size());
+        processChunks(recipients, convertPriority(request.getPriority()), stats, null);
+
+        stats.setTotalProcessed(stats.getSuccessCount() + stats.getFailureCount());
+        stats.complete();
+        metricsService.recordBulkNotificationProcessed("EMAIL", stats.getTotalProcessed());
+        log.info("Bulk email request done: {} sent, {} failed, {} duplicates skipped in {} ms",
+                stats.getSuccessCount(), stats.getFailureCount(), stats.getDuplicateCount(),
+                stats.getProcessingTimeMs());
+        return stats;
+    }
+
+    @Async
+    public CompletableFuture<BulkProcessingStats> sendBulkEmailsAsync(BulkEmailRequest request) {
+        return CompletableFuture.completedFuture(sendBulkEmails(request));
+    }
+
+    /**
+     * Starts the bulk send in the background and returns its job at once; progress is read with
+     * {@link BulkJobService#getStatus(String)}.
+     */
+    public BulkJobStatus submitBulkEmails(BulkEmailRequest request) {
+        List<EmailRequest> recipients = dedupe(request.getEmails());
+        EmailRequest.Priority priority = convertPriority(request.getPriority());
+        BulkJobStatus job = bulkJobService.createJob("EMAIL", priority.name(),
+                recipients.size(), request.getEmails().size() - recipients.size());
+
+        jobExecutor.execute(() -> runJob(job.getJobId(), recipients, priority));
+        return job;
+    }
+
+    private void runJob(String jobId, List<EmailRequest> recipients, EmailRequest.Priority priority) {
+        BulkProcessingStats stats = new BulkProcessingStats();
+        stats.setStartTime(LocalDateTime.now());
+        try {
+            processChunks(recipients, priority, stats, jobId);
+            bulkJobService.complete(jobId, "COMPLETED");
+        } catch (Exception e) {
+            log.error("Bulk job {} failed after {} sends: {}", jobId,
+                    stats.getSuccessCount() + stats.getFailureCount(), e.getMessage());
+            bulkJobService.complete(jobId, "FAILED");
+        }
+        stats.complete();
+        metricsService.recordBulkNotificationProcessed("EMAIL", stats.getSuccessCount() + stats.getFailureCount());
+        log.info("Bulk job {} done: {} sent, {} failed in {} ms", jobId,
+                stats.getSuccessCount(), stats.getFailureCount(), stats.getProcessingTimeMs());
+    }
+
+    // Same address in different case or with stray spaces is one recipient
+    private List<EmailRequest> dedupe(List<EmailRequest> emails) {
+        Map<String, EmailRequest> unique = new LinkedHashMap<>();
+        for (EmailRequest emailRequest : emails) {
+            unique.putIfAbsent(emailRequest.getTo().trim().toLowerCase(Locale.ROOT), emailRequest);
+        }
+        return new ArrayList<>(unique.values());
+    }
+
+    private void processChunks(List<EmailRequest> recipients, EmailRequest.Priority priority,
+                               BulkProcessingStats stats, String jobId) {
+        BulkRenderCache renderCache = new BulkRenderCache(notificationService, templateService, renderCacheSize);
+        renderCache.prerender(recipients, renderPool);
+
+        for (int from = 0; from < recipients.size(); from += chunkSize) {
+            if (jobId != null && campaignCancellationService.isCancelled(jobId)) {
+                log.info("Bulk job {} cancelled, {} recipients not sent", jobId, recipients.size() - from);
+                campaignCancellationService.withdrawRemaining(jobId);
+                break;
+            }
+            List<EmailRequest> chunk = recipients.subList(from, Math.min(from + chunkSize, recipients.size()));
+            processChunk(chunk, priority, stats, jobId, renderCache);
+        }
+
+        log.debug("Bulk send rendered {} distinct bodies, {} reused", renderCache.getRenderCount(), renderCache.getHitCount());
+    }
+
+    private void processChunk(List<EmailRequest> chunk, EmailRequest.Priority priority,
+                              BulkProcessingStats stats, String jobId, BulkRenderCache renderCache) {
+        List<Notification> prepared = new ArrayList<>(chunk.size());
+        for (EmailRequest emailRequest : chunk) {
+            emailRequest.setPriority(priority);
+            Notification notification = notificationService.prepareEmailNotification(emailRequest, renderCache.render(emailRequest));
+            notification.setCampaignId(jobId);
+            prepared.add(notification);
+        }
+        List<Notification> saved = notificationRepository.saveAll(prepared);
+
+        CompletableFuture<?>[] sends = saved.stream()
+                .map(notification -> CompletableFuture.runAsync(() -> send(notification), sendExecutor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(sends).join();
+
+        int sent = 0;
+        for (Notification notification : saved) {
+            writeOutcome(notification);
+            if ("SENT".equals(notification.getStatus())) {
+                sent++;
+            } else if (jobId == null) {
+                stats.getFailedIds().add(notification.getId());
+            }
+        }
+        stats.setSuccessCount(stats.getSuccessCount() + sent);
+        stats.setFailureCount(stats.getFailureCount() + saved.size() - sent);
+    }
+
+    // Guarded on PENDING like the consumers' writes, so a row cancelled while its chunk was sending stays CANCELLED
+    private void writeOutcome(Notification notification) {
+        int written = "SENT".equals(notification.getStatus())
+                ? notificationRepository.markSent(notification.getId(), notification.getSentAt(),
+                        notification.getProcessingTime(), notification.getProvider())
+                : notificationRepository.markFailed(notification.getId(), notification.getErrorMessage(),
+                        notification.getErrorFingerprint(), notification.getErrorCategory(), notification.getProvider());
+        if (written == 0) {
+            log.debug("Bulk notification {} was no longer PENDING when its send completed", notification.getId());
+        } else {
+            // Update queries bypass the entity listener, so report the transition here
+            statusTransitionPublisher.statusChanged(notification, "PENDING");
+        }
+    }
+
+    private void send(Notification notification) {
+        try {
+            notificationService.deliver(notification);
+            notification.setStatus("SENT");
+            notification.setSentAt(LocalDateTime.now());
+            metricsService.recordEmailSent();
+            retryBudgetService.recordSuccess("EMAIL", notification.getProvider());
+        } catch (Exception e) {
+            log.error("Failed to send bulk email notification {}: {}", notification.getId(), e.getMessage());
+            notification.setStatus("FAILED");
+            notification.setErrorMessage(e.getMessage());
+            metricsService.recordEmailFailed();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 
     private EmailRequest.Priority convertPriority(BulkEmailRequest.Priority bulkPriority) {
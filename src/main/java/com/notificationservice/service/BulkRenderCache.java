@@ -0,0 +1,101 @@
+package com.notificationservice.service;
+
+import com.notificationservice.dto.EmailRequest;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Render cache for a single bulk send. Recipients with the same template, template version,
+ * variables and fallback message get one shared rendered body. At most {@code maxEntries} bodies are kept, so a
+ * campaign with per-recipient variables cannot grow it without bound.
+ */
+final class BulkRenderCache {
+
+    private final NotificationService notificationService;
+    private final TemplateService templateService;
+    private final int maxEntries;
+
+    private final ConcurrentMap<RenderKey, String> rendered = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> versions = new ConcurrentHashMap<>();
+    private final LongAdder renders = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    BulkRenderCache(NotificationService notificationService, TemplateService templateService, int maxEntries) {
+        this.notificationService = notificationService;
+        this.templateService = templateService;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Renders each distinct combination in {@code requests} once, in parallel on {@code pool}.
+     */
+    void prerender(Collection<EmailRequest> requests, ForkJoinPool pool) {
+        Map<RenderKey, EmailRequest> distinct = new LinkedHashMap<>();
+        for (EmailRequest request : requests) {
+            if (distinct.size() >= maxEntries) {
+                break;
+            }
+            if (isTemplated(request)) {
+                distinct.putIfAbsent(keyFor(request), request);
+            }
+        }
+        if (distinct.isEmpty()) {
+            return;
+        }
+        pool.submit(() -> distinct.entrySet().parallelStream()
+                        .forEach(entry -> rendered.computeIfAbsent(entry.getKey(), key -> renderNow(entry.getValue()))))
+                .join();
+    }
+
+    String render(EmailRequest request) {
+        if (!isTemplated(request)) {
+            return request.getMessage();
+        }
+        RenderKey key = keyFor(request);
+        String message = rendered.get(key);
+        if (message != null) {
+            hits.increment();
+            return message;
+        }
+        message = renderNow(request);
+        if (rendered.size() < maxEntries) {
+            rendered.putIfAbsent(key, message);
+        }
+        return message;
+    }
+
+    long getRenderCount() {
+        return renders.sum();
+    }
+
+    long getHitCount() {
+        return hits.sum();
+    }
+
+    private String renderNow(EmailRequest request) {
+        renders.increment();
+        return notificationService.renderMessage(request);
+    }
+
+    private RenderKey keyFor(EmailRequest request) {
+        String templateId = request.getTemplateId();
+        String version = versions.computeIfAbsent(templateId, templateService::getTemplateVersion);
+        Map<String, Object> variables = request.getTemplateVariables() != null ? request.getTemplateVariables() : Map.of();
+        return new RenderKey(templateId, version, variables, request.getMessage());
+    }
+
+    private static boolean isTemplated(EmailRequest request) {
+        return request.getTemplateId() != null && !request.getTemplateId().isEmpty();
+    }
+
+    // The variables map is part of the key, so equal hashes alone never share a body. So is the
+    // fallback message, which renderMessage returns when the template fails
+    private record RenderKey(String templateId, String version, Map<String, Object> variables, String fallbackMessage) {
+    }
+}
@@ -0,0 +1,124 @@
+package com.notificationservice.service;
+
+import com.notificationservice.dto.BulkJobStatus;
+import com.notificationservice.entity.BulkJob;
+import com.notificationservice.repository.BulkJobRepository;
+import com.notificationservice.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cancels campaigns (bulk jobs). The cancel withdraws every still-PENDING notification of the
+ * campaign with guarded batch updates, each committed on its own, and publishes one aggregated
+ * transition per type, priority and creation minute of a batch so the rollups and live counts
+ * follow; messages already queued are dropped by the consumers, which check {@link #isCancelled(String)} against an in-memory set instead of reading
+ * the row. Other replicas learn about a cancel by polling {@code bulk_jobs}, so the set converges
+ * within one poll interval whatever dispatch backend is in use. Cancels are forgotten after
+ * {@code cancel-retention-hours}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CampaignCancellationService {
+
+    private final BulkJobRepository bulkJobRepository;
+    private final NotificationRepository notificationRepository;
+    private final BulkJobService bulkJobService;
+    private final StatusTransitionPublisher statusTransitionPublisher;
+
+    @Value("${notification.campaign.cancel-retention-hours:72}")
+    private long retentionHours = 72;
+
+    // Polls overlap by this much so clock skew between replicas cannot hide a cancel
+    @Value("${notification.campaign.cancel-poll-overlap-seconds:60}")
+    private long pollOverlapSeconds = 60;
+
+    // Rows withdrawn per committed batch, which bounds how long their row locks are held
+    @Value("${notification.campaign.cancel-batch-size:5000}")
+    private int cancelBatchSize = 5000;
+
+    // Campaign id -> when this replica learned of the cancel
+    private final ConcurrentMap<String, LocalDateTime> cancelled = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime lastPoll;
+
+    public boolean isCancelled(String campaignId) {
+        return campaignId != null && cancelled.containsKey(campaignId);
+    }
+
+    // Not one transaction: the job is marked first so producers and other replicas stop, then the
+    // rows are withdrawn in batches that commit and count themselves
+    public Optional<BulkJobStatus> cancel(String campaignId) {
+        Optional<BulkJob> job = bulkJobRepository.findById(campaignId);
+        if (job.isEmpty()) {
+            return Optional.empty();
+        }
+        if (!"CANCELLED".equals(job.get().getStatus())) {
+            bulkJobRepository.markCancelled(campaignId, 0, LocalDateTime.now());
+            cancelled.putIfAbsent(campaignId, LocalDateTime.now());
+            long withdrawn = withdrawPending(campaignId);
+            log.info("Cancelled campaign {}: {} pending notifications withdrawn", campaignId, withdrawn);
+        }
+        cancelled.putIfAbsent(campaignId, LocalDateTime.now());
+        return bulkJobService.getStatus(campaignId);
+    }
+
+    // Called by producers once they have stopped, for rows saved while the cancel was running
+    public void withdrawRemaining(String campaignId) {
+        long withdrawn = withdrawPending(campaignId);
+        if (withdrawn > 0) {
+            log.info("Withdrew {} more notifications of cancelled campaign {}", withdrawn, campaignId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.campaign.cancel-poll-interval:2000}")
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = lastPoll != null
+                ? lastPoll.minusSeconds(pollOverlapSeconds)
+                : now.minusHours(retentionHours);
+        List<String> recent = bulkJobRepository.findCancelledSince(since);
+        for (String campaignId : recent) {
+            if (cancelled.putIfAbsent(campaignId, now) == null) {
+                log.info("Campaign {} was cancelled, dropping its queued notifications", campaignId);
+            }
+        }
+        LocalDateTime expiry = now.minusHours(retentionHours);
+        cancelled.values().removeIf(cancelledAt -> cancelledAt.isBefore(expiry));
+        lastPoll = now;
+    }
+
+    private long withdrawPending(String campaignId) {
+        long withdrawn = 0;
+        while (true) {
+            List<Object[]> groups = notificationRepository.cancelPendingBatch(campaignId, cancelBatchSize);
+            long batch = 0;
+            for (Object[] group : groups) {
+                long count = ((Number) group[3]).longValue();
+                batch += count;
+                // The batch is committed, so observers can take the change right away
+                statusTransitionPublisher.publish(StatusTransition.aggregate((String) group[0], (String) group[1],
+                        campaignId, toLocalDateTime(group[2]), "PENDING", "CANCELLED", count));
+            }
+            if (batch == 0) {
+                return withdrawn;
+            }
+            bulkJobRepository.addCancelled(campaignId, batch);
+            withdrawn += batch;
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) value;
+    }
+}
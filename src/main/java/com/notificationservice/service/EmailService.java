@@ -2,11 +2,15 @@ package com.notificationservice.service;
 
 import com.notificationservice.entity.Notification;
 import com.notificationservice.exception.EmailSendingException;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMailMessage;
 import org.springframework.stereotype.Service;
 
 @Slf4j
@@ -14,6 +18,8 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class EmailService {
 
+    public static final String PROVIDER = "smtp";
+
     private final JavaMailSender mailSender;
     private final MetricsService metricsService;
 
@@ -25,6 +31,7 @@ public class EmailService {
             throw new IllegalArgumentException("Notification cannot be null");
         }
 
+        notification.setProvider(PROVIDER);
         try {
             if (testMode) {
                 // В тестовом режиме только логируем, но считаем успешной отправку
@@ -42,7 +49,7 @@ public class EmailService {
             message.setSubject(notification.getSubject());
             message.setText(notification.getMessage());
 
-            mailSender.send(message);
+            send(message);
 
             log.info("Email sent successfully to: {}", notification.getRecipient());
             metricsService.recordEmailSent();
@@ -54,6 +61,16 @@ public class EmailService {
         }
     }
 
+    private void send(SimpleMailMessage message) throws MessagingException {
+        if (!(mailSender instanceof JavaMailSenderImpl sender)) {
+            mailSender.send(message);
+            return;
+        }
+        MimeMessage mimeMessage = sender.createMimeMessage();
+        message.copyTo(new MimeMailMessage(mimeMessage));
+        TimedMailTransport.send(sender, mimeMessage, metricsService);
+    }
+
     public void sendEmailWithTemplate(String to, String subject, String templateId, Object variables) {
         if (testMode) {
             log.info("📧 [TEST MODE] Mock template email sent to: {} with template: {}", to, templateId);
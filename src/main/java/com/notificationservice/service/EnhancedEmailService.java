@@ -23,6 +23,7 @@ public class EnhancedEmailService {
 
     private final EmailProviderRepository emailProviderRepository;
     private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final RetryBudgetService retryBudgetService;
 
     private final AtomicInteger currentProviderIndex = new AtomicInteger(0);
     private List<EmailProvider> activeProviders;
@@ -37,8 +38,14 @@ public class EnhancedEmailService {
 
             while (!sent && attempts < maxAttempts) {
                 EmailProvider provider = getNextProvider();
+                if (attempts > 0 && !retryBudgetService.tryAcquire("EMAIL", provider.getName())) {
+                    // Failing over is a retry too; stop here and let the deferred retry pick it up
+                    log.warn("Retry budget exhausted, not failing over to provider {}", provider.getName());
+                    break;
+                }
                 try {
                     sendEmailWithProvider(notification, provider);
+                    retryBudgetService.recordProviderSuccess(provider.getName());
                     sent = true;
                     log.info("Email sent successfully using provider: {}", provider.getName());
                 } catch (Exception e) {
@@ -0,0 +1,95 @@
+package com.notificationservice.service;
+
+import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.utils.ErrorFingerprint;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live failure counters per error fingerprint, counted from transitions into FAILED since startup,
+ * and the readable labels ("CATEGORY: normalized message") used by the failure analytics.
+ * Both maps are bounded; fingerprints beyond the limit are counted together as {@link #OTHER}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FailureAnalyticsService implements StatusTransitionObserver {
+
+    static final String OTHER = "OTHER";
+
+    private final NotificationRepository notificationRepository;
+
+    @Value("${notification.analytics.failures.max-fingerprints:500}")
+    private int maxFingerprints = 500;
+
+    private final ConcurrentMap<String, FailureCounter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> templates = new ConcurrentHashMap<>();
+
+    @Override
+    public void onStatusTransition(StatusTransition transition) {
+        if (!"FAILED".equals(transition.status()) || transition.errorMessage() == null) {
+            return;
+        }
+        ErrorFingerprint fingerprint = ErrorFingerprint.of(transition.errorMessage());
+        remember(fingerprint.fingerprint(), fingerprint.template());
+
+        FailureCounter counter = counters.get(fingerprint.fingerprint());
+        if (counter == null) {
+            counter = counters.size() < maxFingerprints
+                    ? counters.computeIfAbsent(fingerprint.fingerprint(), fp -> new FailureCounter(fingerprint.category()))
+                    : counters.computeIfAbsent(OTHER, fp -> new FailureCounter(OTHER));
+        }
+        counter.count.increment();
+    }
+
+    // Failure counts since startup, highest first
+    public Map<String, Long> getLiveCounts() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        counters.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, FailureCounter> entry) -> entry.getValue().count.sum())
+                        .reversed())
+                .forEach(entry -> result.merge(describe(entry.getValue().category, entry.getKey()),
+                        entry.getValue().count.sum(), Long::sum));
+        return result;
+    }
+
+    public String describe(String category, String fingerprint) {
+        if (OTHER.equals(fingerprint)) {
+            return OTHER + ": fingerprints over the tracking limit";
+        }
+        String template = templates.get(fingerprint);
+        if (template == null) {
+            // First time this replica sees the fingerprint: normalize one stored message of it
+            List<String> samples = notificationRepository.findErrorMessagesByFingerprint(fingerprint, PageRequest.of(0, 1));
+            template = samples.isEmpty() ? fingerprint : ErrorFingerprint.of(samples.get(0)).template();
+            remember(fingerprint, template);
+        }
+        return (category != null ? category : ErrorFingerprint.UNKNOWN) + ": " + template;
+    }
+
+    private void remember(String fingerprint, String template) {
+        if (templates.size() < maxFingerprints || templates.containsKey(fingerprint)) {
+            templates.putIfAbsent(fingerprint, template);
+        }
+    }
+
+    private static final class FailureCounter {
+        private final String category;
+        private final LongAdder count = new LongAdder();
+
+        private FailureCounter(String category) {
+            this.category = category;
+        }
+    }
+}
@@ -6,103 +6,334 @@ import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Meters of the send path. Known tag values map to fixed slots in meter arrays, so recording resolves
+ * a meter with an index lookup and allocates nothing once the slot is filled. Slots are filled on
+ * first use; registering the same meter twice returns the same instance, so racing fills are harmless.
+ * Unknown tag values go through a bounded map and are folded into {@link #OTHER} once it is full.
+ */
 @Service
 @RequiredArgsConstructor
-public class MetricsService {
+public class MetricsService implements StatusTransitionObserver {
+
+    public static final String STAGE_TIMER = "notification.pipeline.stage";
+
+    // Buckets for SLO queries on created -> sent latency, e.g. share of notifications sent within 5s
+    static final Duration[] DELIVERY_LATENCY_SLOS = {
+            Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(5), Duration.ofSeconds(30),
+            Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofMinutes(15)
+    };
+
+    static final String OTHER = "OTHER";
+    static final int MAX_FALLBACK_METERS = 200;
+
+    // Known tag values; the position in the array is the slot index
+    private static final String[] TYPES = {"EMAIL", "PUSH", "UNKNOWN", RetryBudgetService.ANY};
+    private static final String[] STATUSES = {"SUCCESS", "FAILED", "PERMANENT_FAILURE", "SENT", "PENDING", "CANCELLED"};
+    private static final String[] PRIORITIES = {"HIGH", "NORMAL", "LOW"};
+    private static final String[] PROVIDERS = {EmailService.PROVIDER, PushService.PROVIDER, "NONE"};
+
+    // Lower-cased once for the notification.<type>.<status> counter names
+    private static final String[] TYPE_NAMES = lowerCase(TYPES);
+    private static final String[] STATUS_NAMES = lowerCase(STATUSES);
+
+    private static final String EMAILS_SENT = "notification.emails.sent";
+    private static final String EMAILS_FAILED = "notification.emails.failed";
+    private static final String PUSH_SENT = "notification.push.sent";
+    private static final String PUSH_FAILED = "notification.push.failed";
+    private static final String EMAIL_PROCESSING_TIME = "notification.email.processing.time";
+    private static final String PUSH_PROCESSING_TIME = "notification.push.processing.time";
+    private static final String DELIVERY_LATENCY = "notification.delivery.latency";
 
     private final MeterRegistry meterRegistry;
-    private final ConcurrentMap<String, Counter> countersCache = new ConcurrentHashMap<>();
-    private final ConcurrentMap<String, Timer> timersCache = new ConcurrentHashMap<>();
+
+    private volatile Counter emailsSent;
+    private volatile Counter emailsFailed;
+    private volatile Counter pushSent;
+    private volatile Counter pushFailed;
+    private volatile Timer emailProcessingTime;
+    private volatile Timer pushProcessingTime;
+
+    private final Counter[] statusCounters = new Counter[TYPES.length * STATUSES.length];
+    private final Counter[] metricCounters = new Counter[TYPES.length * STATUSES.length];
+    private final Counter[] bulkCounters = new Counter[TYPES.length];
+    private final Counter[] retryCounters = new Counter[TYPES.length];
+    private final Counter[] deferredCounters = new Counter[TYPES.length];
+    private final Timer[] latencyTimers = new Timer[TYPES.length * PRIORITIES.length * PROVIDERS.length];
+    private final Timer[] stageTimers = new Timer[PipelineStage.values().length];
+
+    // Fallback for tag values outside the known sets, keyed by meter name and tags
+    private final ConcurrentMap<String, Counter> fallbackCounters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> fallbackTimers = new ConcurrentHashMap<>();
 
     // Email metrics
     public void recordEmailSent() {
-        getOrCreateCounter("notification.emails.sent").increment();
+        Counter counter = emailsSent;
+        if (counter == null) {
+            emailsSent = counter = meterRegistry.counter(EMAILS_SENT);
+        }
+        counter.increment();
     }
 
     public void recordEmailFailed() {
-        getOrCreateCounter("notification.emails.failed").increment();
+        Counter counter = emailsFailed;
+        if (counter == null) {
+            emailsFailed = counter = meterRegistry.counter(EMAILS_FAILED);
+        }
+        counter.increment();
     }
 
     // Push metrics
     public void recordPushSent() {
-        getOrCreateCounter("notification.push.sent").increment();
+        Counter counter = pushSent;
+        if (counter == null) {
+            pushSent = counter = meterRegistry.counter(PUSH_SENT);
+        }
+        counter.increment();
     }
 
     public void recordPushFailed() {
-        getOrCreateCounter("notification.push.failed").increment();
+        Counter counter = pushFailed;
+        if (counter == null) {
+            pushFailed = counter = meterRegistry.counter(PUSH_FAILED);
+        }
+        counter.increment();
     }
 
     // Processing time metrics
     public void recordEmailProcessingTime(long duration, TimeUnit unit) {
-        getOrCreateTimer("notification.email.processing.time").record(duration, unit);
+        Timer timer = emailProcessingTime;
+        if (timer == null) {
+            emailProcessingTime = timer = meterRegistry.timer(EMAIL_PROCESSING_TIME);
+        }
+        timer.record(duration, unit);
     }
 
     public void recordPushProcessingTime(long duration, TimeUnit unit) {
-        getOrCreateTimer("notification.push.processing.time").record(duration, unit);
+        Timer timer = pushProcessingTime;
+        if (timer == null) {
+            pushProcessingTime = timer = meterRegistry.timer(PUSH_PROCESSING_TIME);
+        }
+        timer.record(duration, unit);
+    }
+
+    // End-to-end latency from creation to a successful send, including queueing and retries
+    public void recordDeliveryLatency(String type, String priority, String provider, long duration, TimeUnit unit) {
+        int typeIndex = indexOf(TYPES, type);
+        int priorityIndex = indexOf(PRIORITIES, priority);
+        int providerIndex = indexOf(PROVIDERS, provider);
+        if (typeIndex < 0 || priorityIndex < 0 || providerIndex < 0) {
+            fallbackLatencyTimer(type, priority, provider).record(duration, unit);
+            return;
+        }
+        int slot = (typeIndex * PRIORITIES.length + priorityIndex) * PROVIDERS.length + providerIndex;
+        Timer timer = latencyTimers[slot];
+        if (timer == null) {
+            latencyTimers[slot] = timer = registerLatencyTimer(type, priority, provider);
+        }
+        timer.record(duration, unit);
+    }
+
+    @Override
+    public void onStatusTransition(StatusTransition transition) {
+        if (!"SENT".equals(transition.status()) || transition.processingTime() == null || transition.type() == null) {
+            return;
+        }
+        recordDeliveryLatency(transition.type(),
+                transition.priority() != null ? transition.priority() : "NORMAL",
+                transition.provider() != null ? transition.provider() : "NONE",
+                transition.processingTime(), TimeUnit.MILLISECONDS);
+    }
+
+    // Hot-path stage timing: callers take System.nanoTime() before the stage and pass it here
+    public void recordStage(PipelineStage stage, long startNanos) {
+        long durationNanos = System.nanoTime() - startNanos;
+        stageTimer(stage).record(durationNanos, TimeUnit.NANOSECONDS);
+        SpanRecorder.recordStage(stage, durationNanos);
+    }
+
+    public void recordStage(PipelineStage stage, long duration, TimeUnit unit) {
+        stageTimer(stage).record(duration, unit);
+        SpanRecorder.recordStage(stage, unit.toNanos(duration));
     }
 
     // Notification status metrics with tags
     public void recordNotificationStatus(String type, String status) {
-        String cacheKey = String.format("notification.status.type.%s.status.%s", type, status);
-        getOrCreateCounterWithTags("notification.status", cacheKey,
-                new String[]{"type", type, "status", status}).increment();
+        int typeIndex = indexOf(TYPES, type);
+        int statusIndex = indexOf(STATUSES, status);
+        if (typeIndex < 0 || statusIndex < 0) {
+            fallbackCounter("notification.status", "type", type, "status", status).increment();
+            return;
+        }
+        int slot = typeIndex * STATUSES.length + statusIndex;
+        Counter counter = statusCounters[slot];
+        if (counter == null) {
+            statusCounters[slot] = counter = meterRegistry.counter("notification.status", "type", type, "status", status);
+        }
+        counter.increment();
     }
 
     // Generic counter for any notification type and status
     public void recordNotificationMetric(String type, String status) {
-        String counterName = String.format("notification.%s.%s", type.toLowerCase(), status.toLowerCase());
-        getOrCreateCounter(counterName).increment();
+        int typeIndex = indexOfIgnoreCase(TYPES, type);
+        int statusIndex = indexOfIgnoreCase(STATUSES, status);
+        if (typeIndex < 0 || statusIndex < 0) {
+            fallbackCounter(String.format("notification.%s.%s", type.toLowerCase(), status.toLowerCase())).increment();
+            return;
+        }
+        int slot = typeIndex * STATUSES.length + statusIndex;
+        Counter counter = metricCounters[slot];
+        if (counter == null) {
+            metricCounters[slot] = counter = meterRegistry.counter(
+                    "notification." + TYPE_NAMES[typeIndex] + "." + STATUS_NAMES[statusIndex]);
+        }
+        counter.increment();
     }
 
     // Bulk notification metrics
     public void recordBulkNotificationProcessed(String type, int count) {
-        String cacheKey = String.format("notification.bulk.processed.type.%s", type);
-        getOrCreateCounterWithTags("notification.bulk.processed", cacheKey,
-                new String[]{"type", type}).increment(count);
+        typeCounter(bulkCounters, "notification.bulk.processed", type).increment(count);
     }
 
     // Retry metrics
     public void recordNotificationRetry(String type) {
-        String cacheKey = String.format("notification.retry.count.type.%s", type);
-        getOrCreateCounterWithTags("notification.retry.count", cacheKey,
-                new String[]{"type", type}).increment();
+        typeCounter(retryCounters, "notification.retry.count", type).increment();
+    }
+
+    public void recordRetryDeferred(String type) {
+        typeCounter(deferredCounters, "notification.retry.deferred", type).increment();
+    }
+
+    private Counter typeCounter(Counter[] slots, String name, String type) {
+        int typeIndex = indexOf(TYPES, type);
+        if (typeIndex < 0) {
+            return fallbackCounter(name, "type", type);
+        }
+        Counter counter = slots[typeIndex];
+        if (counter == null) {
+            slots[typeIndex] = counter = meterRegistry.counter(name, "type", type);
+        }
+        return counter;
+    }
+
+    private Timer stageTimer(PipelineStage stage) {
+        Timer timer = stageTimers[stage.ordinal()];
+        if (timer == null) {
+            timer = Timer.builder(STAGE_TIMER)
+                    .description("Time spent in one stage of the send pipeline")
+                    .tag("stage", stage.tag())
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry);
+            stageTimers[stage.ordinal()] = timer;
+        }
+        return timer;
+    }
+
+    private Timer registerLatencyTimer(String type, String priority, String provider) {
+        return Timer.builder(DELIVERY_LATENCY)
+                .description("Time from notification creation until it was sent")
+                .tag("type", type)
+                .tag("priority", priority)
+                .tag("provider", provider)
+                // Percentiles are computed in-process from an HdrHistogram per time window
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .serviceLevelObjectives(DELIVERY_LATENCY_SLOS)
+                .minimumExpectedValue(Duration.ofMillis(10))
+                .maximumExpectedValue(Duration.ofHours(1))
+                .register(meterRegistry);
+    }
+
+    // Slow path: builds a key per call, and stops creating meters once the map is full
+    private Counter fallbackCounter(String name, String... tags) {
+        String key = name + Arrays.toString(tags);
+        Counter counter = fallbackCounters.get(key);
+        if (counter != null) {
+            return counter;
+        }
+        if (fallbackCounters.size() >= MAX_FALLBACK_METERS) {
+            return fallbackCounters.computeIfAbsent(name + OTHER, k -> meterRegistry.counter(name, otherTags(tags)));
+        }
+        return fallbackCounters.computeIfAbsent(key, k -> meterRegistry.counter(name, tags));
+    }
+
+    private Timer fallbackLatencyTimer(String type, String priority, String provider) {
+        String key = type + '|' + priority + '|' + provider;
+        Timer timer = fallbackTimers.get(key);
+        if (timer != null) {
+            return timer;
+        }
+        if (fallbackTimers.size() >= MAX_FALLBACK_METERS) {
+            return fallbackTimers.computeIfAbsent(OTHER, k -> registerLatencyTimer(OTHER, OTHER, OTHER));
+        }
+        return fallbackTimers.computeIfAbsent(key, k -> registerLatencyTimer(type, priority, provider));
+    }
+
+    private static String[] otherTags(String[] tags) {
+        String[] other = tags.clone();
+        for (int i = 1; i < other.length; i += 2) {
+            other[i] = OTHER;
+        }
+        return other;
     }
 
-    private Counter getOrCreateCounter(String name) {
-        return countersCache.computeIfAbsent(name, key ->
-                Counter.builder(key)
-                        .register(meterRegistry)
-        );
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
     }
 
-    private Counter getOrCreateCounterWithTags(String baseName, String cacheKey, String... tags) {
-        return countersCache.computeIfAbsent(cacheKey, key -> {
-            Counter.Builder builder = Counter.builder(baseName);
-            for (int i = 0; i < tags.length; i += 2) {
-                builder.tag(tags[i], tags[i + 1]);
+    private static int indexOfIgnoreCase(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equalsIgnoreCase(value)) {
+                return i;
             }
-            return builder.register(meterRegistry);
-        });
+        }
+        return -1;
     }
 
-    private Timer getOrCreateTimer(String name) {
-        return timersCache.computeIfAbsent(name, key ->
-                Timer.builder(key)
-                        .register(meterRegistry)
-        );
+    private static String[] lowerCase(String[] values) {
+        return Arrays.stream(values).map(String::toLowerCase).toArray(String[]::new);
     }
 
     // Методы для тестирования
     public void clearCache() {
-        countersCache.clear();
-        timersCache.clear();
+        emailsSent = null;
+        emailsFailed = null;
+        pushSent = null;
+        pushFailed = null;
+        emailProcessingTime = null;
+        pushProcessingTime = null;
+        Arrays.fill(statusCounters, null);
+        Arrays.fill(metricCounters, null);
+        Arrays.fill(bulkCounters, null);
+        Arrays.fill(retryCounters, null);
+        Arrays.fill(deferredCounters, null);
+        Arrays.fill(latencyTimers, null);
+        Arrays.fill(stageTimers, null);
+        fallbackCounters.clear();
+        fallbackTimers.clear();
     }
 
     public int getCacheSize() {
-        return countersCache.size() + timersCache.size();
+        int size = fallbackCounters.size() + fallbackTimers.size();
+        for (Object meter : new Object[]{emailsSent, emailsFailed, pushSent, pushFailed,
+                emailProcessingTime, pushProcessingTime}) {
+            size += meter != null ? 1 : 0;
+        }
+        for (Object[] slots : new Object[][]{statusCounters, metricCounters, bulkCounters, retryCounters,
+                deferredCounters, latencyTimers, stageTimers}) {
+            size += (int) Arrays.stream(slots).filter(Objects::nonNull).count();
+        }
+        return size;
     }
 }
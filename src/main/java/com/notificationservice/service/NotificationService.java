@@ -27,14 +27,29 @@ public class NotificationService {
     private final PushService pushService;
     private final TemplateService templateService;
     private final MetricsService metricsService;
+    private final RetryBudgetService retryBudgetService;
+    private final SpanRecorder spanRecorder;
 
     @Transactional
     public NotificationResponse sendEmail(EmailRequest request) {
         String notificationId = generateId();
+        boolean traced = spanRecorder.begin(notificationId);
+        try {
+            return traced(sendEmail(request, notificationId));
+        } finally {
+            if (traced) {
+                spanRecorder.end();
+            }
+        }
+    }
 
+    private NotificationResponse sendEmail(EmailRequest request, String notificationId) {
         try {
             // Validate request
-            if (!isValidEmailRequest(request)) {
+            long stageStart = System.nanoTime();
+            boolean valid = isValidEmailRequest(request);
+            metricsService.recordStage(PipelineStage.VALIDATION, stageStart);
+            if (!valid) {
                 log.warn("Invalid email request: {}", request);
                 metricsService.recordEmailFailed();
                 return NotificationResponse.failed(
@@ -43,26 +58,15 @@ public class NotificationService {
                 );
             }
 
-            // Process template if provided
-            String finalMessage = request.getMessage();
-            if (request.getTemplateId() != null && !request.getTemplateId().isEmpty()) {
-                try {
-                    String processedContent = templateService.processTemplate(
-                            request.getTemplateId(),
-                            request.getTemplateVariables() != null ? request.getTemplateVariables() : Map.of()
-                    );
-                    finalMessage = processedContent;
-                } catch (Exception e) {
-                    log.warn("Failed to process template {}, using fallback message", request.getTemplateId(), e);
-                    // Continue with original message if template processing fails
-                }
-            }
-
             // Create and save notification entity with PENDING status
             Notification notification = createEmailNotification(request, notificationId);
-            notification.setMessage(finalMessage);
+            stageStart = System.nanoTime();
+            notification.setMessage(renderMessage(request));
+            metricsService.recordStage(PipelineStage.TEMPLATE_RENDER, stageStart);
 
+            stageStart = System.nanoTime();
             Notification savedNotification = notificationRepository.save(notification);
+            metricsService.recordStage(PipelineStage.DB_INSERT, stageStart);
             log.info("Saved email notification with ID: {}", savedNotification.getId());
 
             try {
@@ -72,9 +76,12 @@ public class NotificationService {
                 // If sending successful - update status to SENT
                 savedNotification.setStatus("SENT");
                 savedNotification.setSentAt(LocalDateTime.now());
+                stageStart = System.nanoTime();
                 notificationRepository.save(savedNotification);
+                metricsService.recordStage(PipelineStage.STATUS_WRITE, stageStart);
 
                 metricsService.recordEmailSent();
+                retryBudgetService.recordSuccess("EMAIL", notification.getProvider());
                 log.info("Email sent successfully for notification ID: {}", savedNotification.getId());
 
                 return NotificationResponse.success(
@@ -90,7 +97,9 @@ public class NotificationService {
                 // If sending failed - update status to FAILED
                 savedNotification.setStatus("FAILED");
                 savedNotification.setErrorMessage(e.getMessage());
+                stageStart = System.nanoTime();
                 notificationRepository.save(savedNotification);
+                metricsService.recordStage(PipelineStage.STATUS_WRITE, stageStart);
 
                 metricsService.recordEmailFailed();
                 return NotificationResponse.failed(
@@ -120,7 +129,17 @@ public class NotificationService {
     @Transactional
     public NotificationResponse sendPush(PushRequest request) {
         String notificationId = generateId();
+        boolean traced = spanRecorder.begin(notificationId);
+        try {
+            return traced(sendPush(request, notificationId));
+        } finally {
+            if (traced) {
+                spanRecorder.end();
+            }
+        }
+    }
 
+    private NotificationResponse sendPush(PushRequest request, String notificationId) {
         try {
             // Validate request
             if (!isValidPushRequest(request)) {
@@ -149,6 +168,7 @@ public class NotificationService {
                 notificationRepository.save(savedNotification);
 
                 metricsService.recordPushSent();
+                retryBudgetService.recordSuccess("PUSH", notification.getProvider());
                 log.info("Push notification sent successfully for notification ID: {}", savedNotification.getId());
 
                 return NotificationResponse.success(
@@ -185,6 +205,13 @@ public class NotificationService {
         }
     }
 
+    private NotificationResponse traced(NotificationResponse response) {
+        if (!response.isSuccess()) {
+            spanRecorder.fail(response.getErrorMessage());
+        }
+        return response;
+    }
+
     @Transactional(readOnly = true)
     public Notification getNotificationStatus(String id) {
         return notificationRepository.findById(id)
@@ -202,20 +229,12 @@ public class NotificationService {
         }
 
         try {
-            switch (notification.getType()) {
-                case "EMAIL":
-                    emailService.sendEmail(notification);
-                    break;
-                case "PUSH":
-                    pushService.sendPush(notification);
-                    break;
-                default:
-                    throw new IllegalArgumentException("Unsupported notification type: " + notification.getType());
-            }
+            deliver(notification);
 
             notification.setStatus("SENT");
             notification.setSentAt(LocalDateTime.now());
             notificationRepository.save(notification);
+            retryBudgetService.recordSuccess(notification.getType(), notification.getProvider());
             log.info("Successfully processed notification: {}", notificationId);
 
         } catch (Exception e) {
@@ -227,6 +246,55 @@ public class NotificationService {
         }
     }
 
+    /**
+     * Builds an unsaved PENDING email notification with the template rendered. The id is left to
+     * Hibernate so that callers saving many of them get batched inserts.
+     */
+    public Notification prepareEmailNotification(EmailRequest request) {
+        return prepareEmailNotification(request, renderMessage(request));
+    }
+
+    public Notification prepareEmailNotification(EmailRequest request, String renderedMessage) {
+        Notification notification = createEmailNotification(request, null);
+        notification.setMessage(renderedMessage);
+        return notification;
+    }
+
+    /**
+     * Sends through the notification's channel only; the caller records the outcome.
+     */
+    public void deliver(Notification notification) {
+        switch (notification.getType()) {
+            case "EMAIL":
+                emailService.sendEmail(notification);
+                break;
+            case "PUSH":
+                pushService.sendPush(notification);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported notification type: " + notification.getType());
+        }
+    }
+
+    /**
+     * Message body for the request: the rendered template, or the plain message as a fallback.
+     */
+    public String renderMessage(EmailRequest request) {
+        if (request.getTemplateId() == null || request.getTemplateId().isEmpty()) {
+            return request.getMessage();
+        }
+        try {
+            return templateService.processTemplate(
+                    request.getTemplateId(),
+                    request.getTemplateVariables() != null ? request.getTemplateVariables() : Map.of()
+            );
+        } catch (Exception e) {
+            log.warn("Failed to process template {}, using fallback message", request.getTemplateId(), e);
+            // Continue with original message if template processing fails
+            return request.getMessage();
+        }
+    }
+
     private boolean isValidEmailRequest(EmailRequest request) {
         return request.getTo() != null && !request.getTo().isEmpty() &&
                 request.getSubject() != null && !request.getSubject().isEmpty() &&
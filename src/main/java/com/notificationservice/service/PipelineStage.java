@@ -0,0 +1,26 @@
+package com.notificationservice.service;
+
+/**
+ * Stages of the send pipeline in the order a notification passes through them, from the API
+ * request to the final status write in the consumer.
+ */
+public enum PipelineStage {
+    VALIDATION,
+    TEMPLATE_RENDER,
+    DB_INSERT,
+    QUEUE_PUBLISH,
+    // Time between publish and delivery to a consumer, from the message timestamp
+    BROKER_DWELL,
+    DB_FETCH,
+    PROVIDER_SELECTION,
+    // JavaMail performs the greeting, STARTTLS and AUTH inside connect, so they are timed together
+    SMTP_CONNECT,
+    SMTP_DATA,
+    STATUS_WRITE;
+
+    private final String tag = name().toLowerCase();
+
+    public String tag() {
+        return tag;
+    }
+}
@@ -10,6 +10,8 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class PushService {
 
+    public static final String PROVIDER = "fcm";
+
     private final MetricsService metricsService;
 
     public void sendPush(Notification notification) {
@@ -17,6 +19,7 @@ public class PushService {
             throw new IllegalArgumentException("Notification cannot be null");
         }
 
+        notification.setProvider(PROVIDER);
         try {
             // Имитация отправки push-уведомления
             log.info("Sending push notification to user: {}, title: {}, message: {}",
@@ -0,0 +1,131 @@
+package com.notificationservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caps retries as a fraction of successful traffic. Every success deposits {@code ratio} tokens
+ * into the global, channel and provider buckets; every retry has to withdraw one token from each
+ * bucket it touches. A small time-based trickle keeps a fully failing provider probeable.
+ */
+@Service
+@Slf4j
+public class RetryBudgetService {
+
+    public static final String ANY = "*";
+
+    @Value("${notification.retry.budget.ratio:0.1}")
+    private double ratio = 0.1;
+
+    @Value("${notification.retry.budget.min-per-second:1.0}")
+    private double minPerSecond = 1.0;
+
+    @Value("${notification.retry.budget.max-tokens:100}")
+    private double maxTokens = 100;
+
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public void recordSuccess(String channel, String provider) {
+        bucket(ANY).deposit(ratio);
+        if (channel != null) {
+            bucket(channelKey(channel)).deposit(ratio);
+        }
+        if (provider != null) {
+            bucket(providerKey(provider)).deposit(ratio);
+        }
+    }
+
+    public void recordProviderSuccess(String provider) {
+        bucket(providerKey(provider)).deposit(ratio);
+    }
+
+    public boolean tryAcquire(String channel, String provider) {
+        TokenBucket global = bucket(ANY);
+        TokenBucket channelBucket = channel != null && !ANY.equals(channel) ? bucket(channelKey(channel)) : null;
+        TokenBucket providerBucket = provider != null ? bucket(providerKey(provider)) : null;
+
+        if (!global.tryWithdraw()) {
+            return denied(channel, provider);
+        }
+        if (channelBucket != null && !channelBucket.tryWithdraw()) {
+            global.deposit(1);
+            return denied(channel, provider);
+        }
+        if (providerBucket != null && !providerBucket.tryWithdraw()) {
+            global.deposit(1);
+            if (channelBucket != null) {
+                channelBucket.deposit(1);
+            }
+            return denied(channel, provider);
+        }
+        return true;
+    }
+
+    public Map<String, Double> getAvailableTokens() {
+        Map<String, Double> tokens = new TreeMap<>();
+        buckets.forEach((key, bucket) -> tokens.put(key, bucket.available()));
+        return tokens;
+    }
+
+    private boolean denied(String channel, String provider) {
+        log.debug("Retry budget exhausted for channel={} provider={}", channel, provider);
+        return false;
+    }
+
+    private TokenBucket bucket(String key) {
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(maxTokens, minPerSecond));
+    }
+
+    private static String channelKey(String channel) {
+        return "channel:" + channel;
+    }
+
+    private static String providerKey(String provider) {
+        return "provider:" + provider;
+    }
+
+    static final class TokenBucket {
+
+        private final double capacity;
+        private final double tricklePerNano;
+        private double tokens;
+        private long lastTrickle;
+
+        TokenBucket(double capacity, double tricklePerSecond) {
+            this.capacity = capacity;
+            this.tricklePerNano = tricklePerSecond / 1_000_000_000d;
+            this.tokens = capacity;
+            this.lastTrickle = System.nanoTime();
+        }
+
+        synchronized void deposit(double amount) {
+            tokens = Math.min(capacity, tokens + amount);
+        }
+
+        synchronized boolean tryWithdraw() {
+            trickle();
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized double available() {
+            trickle();
+            return tokens;
+        }
+
+        private void trickle() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastTrickle) * tricklePerNano);
+            lastTrickle = now;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.notificationservice.service;
 
 import com.notificationservice.entity.Notification;
+import com.notificationservice.messaging.NotificationDispatcher;
 import com.notificationservice.repository.NotificationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
@@ -12,6 +14,14 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @RequiredArgsConstructor
@@ -19,8 +29,16 @@ import java.util.Optional;
 public class RetryService {
 
     private final NotificationRepository notificationRepository;
-    private final RabbitTemplate rabbitTemplate;
     private final NotificationService notificationService;
+    private final RetryBudgetService retryBudgetService;
+    private final MetricsService metricsService;
+    private final NotificationDispatcher notificationDispatcher;
+    private final CampaignCancellationService campaignCancellationService;
+    private final SpanRecorder spanRecorder;
+
+    // Retries refused by the budget wait here until successes refill it
+    private final Queue<String> deferredRetries = new ConcurrentLinkedQueue<>();
+    private final Set<String> deferredIds = ConcurrentHashMap.newKeySet();
 
     @Value("${notification.retry.max-attempts:3}")
     private int maxRetryAttempts;
@@ -28,6 +46,34 @@ public class RetryService {
     @Value("${notification.retry.backoff-delay:1000}")
     private long backoffDelay;
 
+    @Value("${notification.retry.budget.max-deferred:10000}")
+    private int maxDeferred;
+
+    // Deferred retries released per drain tick; the rest wait for the next one
+    @Value("${notification.retry.budget.drain-batch-size:100}")
+    private int drainBatchSize = 100;
+
+    // Retries wait out their backoff here instead of on the caller's or the scheduler's thread
+    @Value("${notification.retry.workers:4}")
+    private int retryWorkers = 4;
+
+    private ScheduledExecutorService retryExecutor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        retryExecutor = Executors.newScheduledThreadPool(retryWorkers, runnable -> {
+            Thread thread = new Thread(runnable, "retry-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        retryExecutor.shutdown();
+    }
+
     public void retryFailedNotification(String notificationId) {
         Optional<Notification> notificationOpt = notificationRepository.findById(notificationId);
 
@@ -38,6 +84,12 @@ public class RetryService {
 
         Notification notification = notificationOpt.get();
 
+        if (campaignCancellationService.isCancelled(notification.getCampaignId())) {
+            log.info("Not retrying notification {}: campaign {} was cancelled",
+                    notificationId, notification.getCampaignId());
+            return;
+        }
+
         if (notification.getRetryCount() >= maxRetryAttempts) {
             log.warn("Notification {} has reached maximum retry attempts ({}), moving to DLQ",
                     notificationId, maxRetryAttempts);
@@ -45,19 +97,80 @@ public class RetryService {
             return;
         }
 
-        try {
-            // Apply exponential backoff
-            long delay = calculateBackoffDelay(notification.getRetryCount());
-            Thread.sleep(delay);
+        if (!retryBudgetService.tryAcquire(notification.getType(), notification.getProvider())) {
+            deferRetry(notificationId, notification.getType());
+            return;
+        }
+
+        executeRetry(notification);
+    }
 
+    public void deferRetry(String notificationId, String type) {
+        metricsService.recordRetryDeferred(type != null ? type : RetryBudgetService.ANY);
+        if (deferredIds.size() >= maxDeferred) {
+            log.warn("Deferred retry queue is full, notification {} stays FAILED until the next retry sweep",
+                    notificationId);
+            return;
+        }
+        if (deferredIds.add(notificationId)) {
+            deferredRetries.offer(notificationId);
+            log.info("Retry budget exhausted, deferring retry of notification {}", notificationId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${notification.retry.budget.drain-interval:5000}")
+    public void retryDeferredNotifications() {
+        int pending = Math.min(deferredRetries.size(), drainBatchSize);
+        int retried = 0;
+
+        for (int i = 0; i < pending; i++) {
+            String notificationId = deferredRetries.poll();
+            if (notificationId == null) {
+                break;
+            }
+
+            Optional<Notification> notificationOpt = notificationRepository.findById(notificationId);
+            if (notificationOpt.isEmpty()) {
+                deferredIds.remove(notificationId);
+                continue;
+            }
+
+            Notification notification = notificationOpt.get();
+            if (!retryBudgetService.tryAcquire(notification.getType(), notification.getProvider())) {
+                // Still over budget for this channel, keep its place for the next tick
+                deferredRetries.offer(notificationId);
+                continue;
+            }
+
+            deferredIds.remove(notificationId);
+            executeRetry(notification);
+            retried++;
+        }
+
+        if (retried > 0) {
+            log.info("Released {} deferred retries, {} still waiting", retried, deferredRetries.size());
+        }
+    }
+
+    public int getDeferredRetryCount() {
+        return deferredIds.size();
+    }
+
+    private void executeRetry(Notification notification) {
+        // Exponential backoff, waited out on the retry pool
+        long delay = calculateBackoffDelay(notification.getRetryCount());
+        retryExecutor.schedule(() -> runRetry(notification), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void runRetry(Notification notification) {
+        String notificationId = notification.getId();
+
+        try {
             log.info("Retrying notification {} (attempt {})",
                     notificationId, notification.getRetryCount() + 1);
 
             notificationService.processNotification(notificationId);
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Retry interrupted for notification {}", notificationId);
         } catch (Exception e) {
             log.error("Retry failed for notification {}: {}", notificationId, e.getMessage());
             incrementRetryCount(notification);
@@ -72,17 +185,28 @@ public class RetryService {
         List<Notification> stuckNotifications = notificationRepository
                 .findByStatusAndCreatedAtBefore("PENDING", cutoffTime);
 
+        int deferred = 0;
         for (Notification notification : stuckNotifications) {
+            if (!retryBudgetService.tryAcquire(notification.getType(), notification.getProvider())) {
+                // Left PENDING, the next sweep picks it up again
+                deferred++;
+                continue;
+            }
             log.info("Retrying stuck notification: {}", notification.getId());
-            rabbitTemplate.convertAndSend(
-                    "notification.exchange",
-                    "notification.routing.key",
-                    notification.getId()
-            );
+            // Stuck notifications are always traced, here and on the consuming node
+            boolean traced = spanRecorder.begin(notification.getId(), true);
+            try {
+                notificationDispatcher.publish(notification);
+            } finally {
+                if (traced) {
+                    spanRecorder.end();
+                }
+            }
         }
 
         if (!stuckNotifications.isEmpty()) {
-            log.info("Retried {} stuck notifications", stuckNotifications.size());
+            log.info("Retried {} stuck notifications, {} deferred by retry budget",
+                    stuckNotifications.size() - deferred, deferred);
         }
     }
 
@@ -103,11 +227,7 @@ public class RetryService {
         notification.setStatus("FAILED_PERMANENTLY");
         notificationRepository.save(notification);
 
-        // Send to DLQ for manual processing
-        rabbitTemplate.convertAndSend(
-                "notification.dlq.exchange",
-                "notification.dlq.routing.key",
-                notification.getId()
-        );
+        // The RabbitMQ backend also sends it to the DLQ for manual processing
+        notificationDispatcher.deadLetter(notification);
     }
 }
@@ -5,7 +5,6 @@ import com.notificationservice.entity.Notification;
 import com.notificationservice.repository.EmailProviderRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
@@ -21,8 +20,10 @@ public class RoutedEmailService {
 
     private final EmailProviderRepository emailProviderRepository;
     private final MetricsService metricsService;
+    private final RetryBudgetService retryBudgetService;
 
     public void sendRoutedEmail(Notification notification) {
+        long stageStart = System.nanoTime();
         List<EmailProvider> availableProviders = emailProviderRepository.findAvailableProviders();
 
         if (availableProviders.isEmpty()) {
@@ -30,6 +31,8 @@ public class RoutedEmailService {
         }
 
         EmailProvider selectedProvider = selectBestProvider(availableProviders);
+        metricsService.recordStage(PipelineStage.PROVIDER_SELECTION, stageStart);
+        notification.setProvider(selectedProvider.getName());
 
         try {
             // В тестовой среде просто логируем отправку
@@ -43,6 +46,7 @@ public class RoutedEmailService {
 
             sendWithProvider(notification, selectedProvider);
             updateProviderUsage(selectedProvider);
+            retryBudgetService.recordProviderSuccess(selectedProvider.getName());
             log.info("Email sent successfully using provider: {}", selectedProvider.getName());
 
         } catch (Exception e) {
@@ -75,7 +79,7 @@ public class RoutedEmailService {
     }
 
     private void sendWithProvider(Notification notification, EmailProvider provider) {
-        JavaMailSender mailSender = createMailSender(provider);
+        JavaMailSenderImpl mailSender = createMailSender(provider);
 
         try {
             MimeMessage message = mailSender.createMimeMessage();
@@ -86,7 +90,7 @@ public class RoutedEmailService {
             helper.setText(notification.getMessage(), true);
             helper.setFrom(provider.getFromEmail());
 
-            mailSender.send(message);
+            TimedMailTransport.send(mailSender, message, metricsService);
             metricsService.recordEmailSent();
 
         } catch (Exception e) {
@@ -95,7 +99,7 @@ public class RoutedEmailService {
         }
     }
 
-    private JavaMailSender createMailSender(EmailProvider provider) {
+    private JavaMailSenderImpl createMailSender(EmailProvider provider) {
         JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
         mailSender.setHost(provider.getHost());
         mailSender.setPort(provider.getPort());
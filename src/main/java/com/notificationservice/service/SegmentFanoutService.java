@@ -0,0 +1,172 @@
+package com.notificationservice.service;
+
+import com.notificationservice.dto.BulkJobStatus;
+import com.notificationservice.dto.SegmentSendRequest;
+import com.notificationservice.entity.Notification;
+import com.notificationservice.entity.User;
+import com.notificationservice.exception.NotificationException;
+import com.notificationservice.messaging.NotificationDispatcher;
+import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Expands a user segment on the server and enqueues it as one bulk job. Recipients are read through
+ * a database cursor and written in batches, so memory does not depend on the audience size. The
+ * release is paced to {@code notification.segment.rate-per-second}, which keeps a large audience
+ * from flooding the queue ahead of transactional traffic.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SegmentFanoutService {
+
+    private final UserRepository userRepository;
+    private final NotificationRepository notificationRepository;
+    private final NotificationDispatcher notificationDispatcher;
+    private final BulkJobService bulkJobService;
+    private final CampaignCancellationService campaignCancellationService;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${notification.segment.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${notification.segment.rate-per-second:2000}")
+    private int ratePerSecond = 2000;
+
+    private final ExecutorService fanoutExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "segment-fanout");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public BulkJobStatus submit(SegmentSendRequest request) {
+        validate(request);
+        User.Platform platform = request.getPlatform() != null ? User.Platform.valueOf(request.getPlatform()) : null;
+        long audience = request.getChannel() == SegmentSendRequest.Channel.EMAIL
+                ? userRepository.countUsersWithEmailEnabled()
+                : userRepository.countPushRecipients(platform);
+
+        // Accepted grows as recipients are enqueued; the count above is only logged as the estimate
+        BulkJobStatus job = bulkJobService.createJob(request.getChannel().name(), request.getPriority().name(), 0, 0);
+        log.info("Segment fan-out {} started: {} to about {} recipients", job.getJobId(), request.getChannel(), audience);
+
+        fanoutExecutor.execute(() -> fanOut(job.getJobId(), request, platform));
+        return job;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanoutExecutor.shutdownNow();
+    }
+
+    private void fanOut(String jobId, SegmentSendRequest request, User.Platform platform) {
+        TransactionTemplate cursorTransaction = new TransactionTemplate(transactionManager);
+        cursorTransaction.setReadOnly(true);
+        // Batches commit on their own while the cursor transaction stays open
+        TransactionTemplate batchTransaction = new TransactionTemplate(transactionManager);
+        batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        long started = System.nanoTime();
+        long[] enqueued = {0};
+        try {
+            cursorTransaction.executeWithoutResult(status -> {
+                try (Stream<String> recipients = request.getChannel() == SegmentSendRequest.Channel.EMAIL
+                        ? userRepository.streamEmailRecipients()
+                        : userRepository.streamPushRecipients(platform)) {
+                    Iterator<String> iterator = recipients.iterator();
+                    List<Notification> batch = new ArrayList<>(batchSize);
+                    while (iterator.hasNext() && !campaignCancellationService.isCancelled(jobId)) {
+                        batch.add(createNotification(request, jobId, iterator.next()));
+                        if (batch.size() == batchSize || !iterator.hasNext()) {
+                            List<Notification> saved = batchTransaction.execute(tx -> notificationRepository.saveAll(batch));
+                            enqueue(saved);
+                            bulkJobService.recordAccepted(jobId, batch.size());
+                            enqueued[0] += batch.size();
+                            batch.clear();
+                            pace(started, enqueued[0]);
+                        }
+                    }
+                }
+            });
+            if (campaignCancellationService.isCancelled(jobId)) {
+                campaignCancellationService.withdrawRemaining(jobId);
+                log.info("Segment fan-out {} cancelled after {} notifications", jobId, enqueued[0]);
+                return;
+            }
+            bulkJobService.complete(jobId, "COMPLETED");
+            log.info("Segment fan-out {} enqueued {} notifications", jobId, enqueued[0]);
+        } catch (Exception e) {
+            log.error("Segment fan-out {} failed after {} notifications: {}", jobId, enqueued[0], e.getMessage());
+            bulkJobService.complete(jobId, "FAILED");
+        }
+    }
+
+    private void enqueue(List<Notification> saved) {
+        try {
+            notificationDispatcher.publishAll(saved).join();
+        } catch (Exception e) {
+            // Rows stay PENDING and are picked up by the stuck-notification sweep
+            log.warn("Failed to enqueue part of a segment batch of {}: {}", saved.size(), e.getMessage());
+        }
+    }
+
+    private void pace(long startedNanos, long released) {
+        long dueNanos = startedNanos + TimeUnit.SECONDS.toNanos(released) / ratePerSecond;
+        long waitNanos = dueNanos - System.nanoTime();
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Segment fan-out interrupted", e);
+            }
+        }
+    }
+
+    private Notification createNotification(SegmentSendRequest request, String jobId, String recipient) {
+        Notification notification = new Notification();
+        notification.setCampaignId(jobId);
+        notification.setType(request.getChannel().name());
+        notification.setStatus("PENDING");
+        notification.setRecipient(recipient);
+        notification.setSubject(request.getSubject());
+        notification.setTitle(request.getTitle());
+        notification.setMessage(request.getMessage());
+        notification.setPriority(request.getPriority().name());
+        notification.setCreatedAt(LocalDateTime.now());
+        return notification;
+    }
+
+    private void validate(SegmentSendRequest request) {
+        if (request.getChannel() == SegmentSendRequest.Channel.EMAIL && isBlank(request.getSubject())) {
+            throw new NotificationException("Subject is required for an email segment send");
+        }
+        if (request.getChannel() == SegmentSendRequest.Channel.PUSH && isBlank(request.getTitle())) {
+            throw new NotificationException("Title is required for a push segment send");
+        }
+        if (request.getChannel() == SegmentSendRequest.Channel.EMAIL && request.getPlatform() != null) {
+            throw new NotificationException("Platform only applies to push segment sends");
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
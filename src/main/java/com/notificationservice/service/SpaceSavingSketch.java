@@ -0,0 +1,157 @@
+package com.notificationservice.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Space-Saving heavy-hitter summary over at most {@code capacity} items. Every reported count
+ * overestimates the true count by at most its {@code error}, and that error never exceeds
+ * {@code total / capacity}, so any item seen more often than that is guaranteed to be tracked.
+ * Summaries of the same capacity can be merged, which is how replicas and hourly windows combine.
+ */
+public final class SpaceSavingSketch {
+
+    public record Estimate(String item, long count, long error) {
+    }
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    // count -> items with that count, so the minimum is found in O(log k)
+    private final TreeMap<Long, Set<String>> buckets = new TreeMap<>();
+    private long total;
+
+    public SpaceSavingSketch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Sketch capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    public static SpaceSavingSketch restore(int capacity, long total, List<Estimate> estimates) {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+        estimates.stream()
+                .sorted(Comparator.comparingLong(Estimate::count).reversed())
+                .limit(capacity)
+                .forEach(estimate -> sketch.put(estimate.item(), estimate.count(), estimate.error()));
+        sketch.total = total;
+        return sketch;
+    }
+
+    /**
+     * Combines summaries as in Agarwal et al., "Mergeable Summaries": an item missing from a full
+     * summary may have been evicted there, so it is charged that summary's minimum as count and error.
+     */
+    public static SpaceSavingSketch merge(int capacity, List<SpaceSavingSketch> sketches) {
+        Map<String, long[]> merged = new HashMap<>();
+        long total = 0;
+        long missingCount = 0;
+        List<Map<String, Counter>> snapshots = new ArrayList<>(sketches.size());
+        long[] minimums = new long[sketches.size()];
+
+        for (int i = 0; i < sketches.size(); i++) {
+            SpaceSavingSketch sketch = sketches.get(i);
+            synchronized (sketch) {
+                Map<String, Counter> copy = new HashMap<>(sketch.counters.size());
+                sketch.counters.forEach((item, counter) -> copy.put(item, new Counter(counter.count, counter.error)));
+                snapshots.add(copy);
+                minimums[i] = sketch.counters.size() >= sketch.capacity ? sketch.buckets.firstKey() : 0;
+                total += sketch.total;
+            }
+            missingCount += minimums[i];
+        }
+
+        long charged = missingCount;
+        for (int i = 0; i < snapshots.size(); i++) {
+            for (Map.Entry<String, Counter> entry : snapshots.get(i).entrySet()) {
+                // Start from what every summary would charge for a missing item, then replace our own share
+                long[] value = merged.computeIfAbsent(entry.getKey(), item -> new long[]{charged, charged});
+                value[0] += entry.getValue().count - minimums[i];
+                value[1] += entry.getValue().error - minimums[i];
+            }
+        }
+
+        List<Estimate> estimates = new ArrayList<>(merged.size());
+        merged.forEach((item, value) -> estimates.add(new Estimate(item, value[0], value[1])));
+        return restore(capacity, total, estimates);
+    }
+
+    public synchronized void offer(String item) {
+        total++;
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            move(item, counter, counter.count + 1);
+            return;
+        }
+        if (counters.size() < capacity) {
+            put(item, 1, 0);
+            return;
+        }
+        // Evict an item with the minimum count; the newcomer inherits it as its error
+        Map.Entry<Long, Set<String>> smallest = buckets.firstEntry();
+        Iterator<String> victims = smallest.getValue().iterator();
+        String victim = victims.next();
+        victims.remove();
+        if (smallest.getValue().isEmpty()) {
+            buckets.remove(smallest.getKey());
+        }
+        counters.remove(victim);
+        put(item, smallest.getKey() + 1, smallest.getKey());
+    }
+
+    public synchronized List<Estimate> top(int limit) {
+        List<Estimate> result = new ArrayList<>(Math.min(limit, counters.size()));
+        for (Map.Entry<Long, Set<String>> bucket : buckets.descendingMap().entrySet()) {
+            for (String item : bucket.getValue()) {
+                if (result.size() == limit) {
+                    return result;
+                }
+                result.add(new Estimate(item, bucket.getKey(), counters.get(item).error));
+            }
+        }
+        return result;
+    }
+
+    public synchronized List<Estimate> estimates() {
+        return top(Integer.MAX_VALUE);
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private void put(String item, long count, long error) {
+        counters.put(item, new Counter(count, error));
+        buckets.computeIfAbsent(count, c -> new LinkedHashSet<>()).add(item);
+    }
+
+    private void move(String item, Counter counter, long newCount) {
+        Set<String> bucket = buckets.get(counter.count);
+        bucket.remove(item);
+        if (bucket.isEmpty()) {
+            buckets.remove(counter.count);
+        }
+        counter.count = newCount;
+        buckets.computeIfAbsent(newCount, c -> new LinkedHashSet<>()).add(item);
+    }
+
+    private static final class Counter {
+        private long count;
+        private final long error;
+
+        private Counter(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.notificationservice.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-process trace of the send pipeline. While a notification is handled, every stage timed through
+ * {@link MetricsService#recordStage} is also noted on the handling thread. When handling ends, the
+ * stages of sampled notifications and of every failed one are written into a fixed-size ring buffer,
+ * overwriting the oldest spans. Sampling is decided from the notification id, so every replica makes
+ * the same choice for the same notification; stages of unsampled notifications only fill a reused
+ * per-thread buffer and are dropped unless handling fails. Spans carry the node that recorded them,
+ * so the output of several replicas can be merged into one trace.
+ */
+@Component
+@Slf4j
+public class SpanRecorder {
+
+    static final String FAILURE_STAGE = "failure";
+    static final int MAX_SPANS_PER_TRACE = 32;
+
+    private static final ThreadLocal<ActiveTrace> ACTIVE = ThreadLocal.withInitial(ActiveTrace::new);
+
+    @Value("${notification.tracing.sample-percent:1.0}")
+    private double samplePercent = 1.0;
+
+    @Value("${notification.tracing.buffer-size:8192}")
+    private int bufferSize = 8192;
+
+    // Kubernetes sets HOSTNAME to the pod name
+    @Value("${notification.tracing.node:${HOSTNAME:local}}")
+    private String node = "local";
+
+    private AtomicReferenceArray<Span> buffer;
+    private int mask;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public record Span(String notificationId, String node, String stage, Instant startedAt, long durationMicros,
+                       String error) {
+    }
+
+    @PostConstruct
+    void init() {
+        int capacity = Integer.highestOneBit(Math.max(1, bufferSize - 1)) << 1;
+        buffer = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+        log.info("Span recorder keeps the last {} spans, sampling {}% of notifications", capacity, samplePercent);
+    }
+
+    /**
+     * Starts tracing the notification on this thread. Returns false when the thread already traces
+     * it; only the caller that got true may call {@link #end()}.
+     */
+    public boolean begin(String notificationId) {
+        return begin(notificationId, false);
+    }
+
+    // forceSample keeps the whole trace, e.g. when the publishing node already sampled it
+    public boolean begin(String notificationId, boolean forceSample) {
+        ActiveTrace trace = ACTIVE.get();
+        if (trace.notificationId != null || notificationId == null) {
+            return false;
+        }
+        trace.recorder = this;
+        trace.notificationId = notificationId;
+        trace.sampled = forceSample || isSampled(notificationId);
+        return true;
+    }
+
+    // Whether the notification's spans will be kept: decided by the active trace when this thread has one
+    public boolean isTraceSampled(String notificationId) {
+        ActiveTrace trace = ACTIVE.get();
+        if (notificationId != null && notificationId.equals(trace.notificationId)) {
+            return trace.sampled;
+        }
+        return notificationId != null && isSampled(notificationId);
+    }
+
+    public void fail(String error) {
+        ActiveTrace trace = ACTIVE.get();
+        if (trace.notificationId != null) {
+            trace.error = error != null ? error : "unknown error";
+        }
+    }
+
+    public void end() {
+        ActiveTrace trace = ACTIVE.get();
+        try {
+            if (trace.notificationId != null && (trace.sampled || trace.error != null)) {
+                trace.flush();
+            }
+        } finally {
+            trace.reset();
+        }
+    }
+
+    // Called for every stage timing; without an active trace this is a thread-local read
+    static void recordStage(PipelineStage stage, long durationNanos) {
+        ActiveTrace trace = ACTIVE.get();
+        if (trace.notificationId != null && trace.size < MAX_SPANS_PER_TRACE) {
+            int i = trace.size++;
+            trace.stages[i] = stage;
+            trace.endMillis[i] = System.currentTimeMillis();
+            trace.durations[i] = durationNanos;
+        }
+    }
+
+    public boolean isSampled(String notificationId) {
+        if (samplePercent >= 100) {
+            return true;
+        }
+        // String hashes are cached, so this allocates nothing
+        int bucket = (notificationId.hashCode() & Integer.MAX_VALUE) % 10_000;
+        return bucket < samplePercent * 100;
+    }
+
+    // Most recent first, optionally only those of one notification
+    public List<Span> getSpans(String notificationId, int limit) {
+        List<Span> result = new ArrayList<>();
+        long last = sequence.get();
+        for (long seq = last - 1; seq >= 0 && seq >= last - buffer.length() && result.size() < limit; seq--) {
+            Span span = buffer.get((int) (seq & mask));
+            if (span != null && (notificationId == null || notificationId.equals(span.notificationId()))) {
+                result.add(span);
+            }
+        }
+        return result;
+    }
+
+    private void append(Span span) {
+        buffer.set((int) (sequence.getAndIncrement() & mask), span);
+    }
+
+    // One per thread and reused, so tracing an unsampled notification allocates nothing
+    private static final class ActiveTrace {
+        private final PipelineStage[] stages = new PipelineStage[MAX_SPANS_PER_TRACE];
+        private final long[] endMillis = new long[MAX_SPANS_PER_TRACE];
+        private final long[] durations = new long[MAX_SPANS_PER_TRACE];
+        private SpanRecorder recorder;
+        private String notificationId;
+        private boolean sampled;
+        private String error;
+        private int size;
+
+        private void flush() {
+            for (int i = 0; i < size; i++) {
+                long durationMicros = durations[i] / 1_000;
+                recorder.append(new Span(notificationId, recorder.node, stages[i].tag(),
+                        Instant.ofEpochMilli(endMillis[i] - durationMicros / 1_000), durationMicros, null));
+            }
+            if (error != null) {
+                recorder.append(new Span(notificationId, recorder.node, FAILURE_STAGE, Instant.now(), 0, error));
+            }
+        }
+
+        private void reset() {
+            recorder = null;
+            notificationId = null;
+            sampled = false;
+            error = null;
+            for (int i = 0; i < size; i++) {
+                stages[i] = null;
+            }
+            size = 0;
+        }
+    }
+}
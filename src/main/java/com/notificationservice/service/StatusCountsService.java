@@ -0,0 +1,165 @@
+package com.notificationservice.service;
+
+import com.notificationservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Current notification counts by status, type and priority, kept in memory so analytics reads and
+ * gauges do not aggregate the notifications table. Transitions observed by this replica adjust the
+ * counts immediately; a periodic grouped query replaces them, which picks up changes made by other
+ * replicas and by bulk updates that publish no transitions. Transitions observed while that query
+ * runs are replayed on top of its result.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StatusCountsService implements StatusTransitionObserver {
+
+    public enum Dimension {
+        STATUS, TYPE, PRIORITY;
+
+        private final String tag = name().toLowerCase();
+    }
+
+    private final NotificationRepository notificationRepository;
+    private final MeterRegistry meterRegistry;
+
+    // Transitions hold the read lock so that none is lost while reconcile swaps the counts
+    private final ReentrantReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Counts counts;
+    private volatile Counts inFlight;
+
+    private final Set<String> registeredGauges = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void onStatusTransition(StatusTransition transition) {
+        swapLock.readLock().lock();
+        try {
+            apply(counts, transition);
+            apply(inFlight, transition);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Long> getCounts(Dimension dimension) {
+        Counts current = counts;
+        if (current == null) {
+            reconcile();
+            current = counts;
+        }
+        Map<String, Long> result = new HashMap<>();
+        if (current != null) {
+            current.of(dimension).forEach((value, count) -> {
+                long sum = count.sum();
+                if (sum > 0) {
+                    result.put(value, sum);
+                }
+            });
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.analytics.status-counts.reconcile-interval:60000}")
+    public synchronized void reconcile() {
+        Counts replay = new Counts();
+        inFlight = replay;
+
+        Counts fresh = new Counts();
+        try {
+            for (Object[] row : notificationRepository.countByTypeStatusAndPriority()) {
+                long count = ((Number) row[3]).longValue();
+                fresh.add(Dimension.TYPE, (String) row[0], count);
+                fresh.add(Dimension.STATUS, (String) row[1], count);
+                fresh.add(Dimension.PRIORITY, (String) row[2], count);
+            }
+        } catch (Exception e) {
+            inFlight = null;
+            log.warn("Failed to reconcile notification counts: {}", e.getMessage());
+            return;
+        }
+
+        swapLock.writeLock().lock();
+        try {
+            fresh.addAll(replay);
+            counts = fresh;
+            inFlight = null;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        registerGauges(fresh);
+    }
+
+    private static void apply(Counts target, StatusTransition transition) {
+        if (target == null || transition.status() == null) {
+            return;
+        }
+        long count = transition.count();
+        if (transition.previousStatus() == null) {
+            // A new notification enters every dimension once
+            target.add(Dimension.TYPE, transition.type(), count);
+            target.add(Dimension.PRIORITY, transition.priority(), count);
+        } else {
+            target.add(Dimension.STATUS, transition.previousStatus(), -count);
+        }
+        target.add(Dimension.STATUS, transition.status(), count);
+    }
+
+    private void registerGauges(Counts current) {
+        for (Dimension dimension : Dimension.values()) {
+            for (String value : current.of(dimension).keySet()) {
+                if (registeredGauges.add(dimension.tag + '|' + value)) {
+                    Gauge.builder("notification.current." + dimension.tag, this, service -> service.current(dimension, value))
+                            .description("Notifications currently in this " + dimension.tag)
+                            .tag(dimension.tag, value)
+                            .register(meterRegistry);
+                }
+            }
+        }
+    }
+
+    private double current(Dimension dimension, String value) {
+        Counts current = counts;
+        LongAdder count = current != null ? current.of(dimension).get(value) : null;
+        return count != null ? count.sum() : 0;
+    }
+
+    private static final class Counts {
+        private final Map<Dimension, ConcurrentMap<String, LongAdder>> byDimension = new EnumMap<>(Dimension.class);
+
+        private Counts() {
+            for (Dimension dimension : Dimension.values()) {
+                byDimension.put(dimension, new ConcurrentHashMap<>());
+            }
+        }
+
+        private ConcurrentMap<String, LongAdder> of(Dimension dimension) {
+            return byDimension.get(dimension);
+        }
+
+        private void add(Dimension dimension, String value, long delta) {
+            if (value != null) {
+                of(dimension).computeIfAbsent(value, v -> new LongAdder()).add(delta);
+            }
+        }
+
+        private void addAll(Counts other) {
+            other.byDimension.forEach((dimension, values) ->
+                    values.forEach((value, count) -> add(dimension, value, count.sum())));
+        }
+    }
+}
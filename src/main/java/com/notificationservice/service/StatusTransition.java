@@ -0,0 +1,56 @@
+package com.notificationservice.service;
+
+import com.notificationservice.entity.Notification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable copy of a notification status change, taken when the change is flushed.
+ * {@code previousStatus} is null for a newly persisted notification; {@code previousProvider}
+ * is the provider the notification had in its previous status. {@code count} is 1 for a single
+ * notification; an {@link #aggregate aggregated} transition stands for that many notifications of
+ * one type and priority created in the same minute, and carries no id, recipient or provider.
+ */
+public record StatusTransition(
+        String notificationId,
+        String type,
+        String recipient,
+        String priority,
+        String provider,
+        String campaignId,
+        String previousStatus,
+        String previousProvider,
+        String status,
+        String errorMessage,
+        LocalDateTime createdAt,
+        Long processingTime,
+        LocalDateTime occurredAt,
+        long count
+) {
+
+    public static StatusTransition of(Notification notification, String previousStatus, String previousProvider) {
+        return new StatusTransition(
+                notification.getId(),
+                notification.getType(),
+                notification.getRecipient(),
+                notification.getPriority(),
+                notification.getProvider(),
+                notification.getCampaignId(),
+                previousStatus,
+                previousProvider,
+                notification.getStatus(),
+                notification.getErrorMessage(),
+                notification.getCreatedAt(),
+                notification.getProcessingTime(),
+                LocalDateTime.now(),
+                1
+        );
+    }
+
+    // For bulk update queries, which change many rows without loading them
+    public static StatusTransition aggregate(String type, String priority, String campaignId, LocalDateTime createdAt,
+                                             String previousStatus, String status, long count) {
+        return new StatusTransition(null, type, null, priority, null, campaignId, previousStatus, null, status,
+                null, createdAt, null, LocalDateTime.now(), count);
+    }
+}
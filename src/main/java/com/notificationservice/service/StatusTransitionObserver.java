@@ -0,0 +1,9 @@
+package com.notificationservice.service;
+
+/**
+ * Receives committed notification status changes, see {@link StatusTransitionPublisher}.
+ */
+public interface StatusTransitionObserver {
+
+    void onStatusTransition(StatusTransition transition);
+}
@@ -0,0 +1,58 @@
+package com.notificationservice.service;
+
+import com.notificationservice.entity.Notification;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Fans notification status changes out to every {@link StatusTransitionObserver}. Inside a
+ * transaction the observers run after commit, so rolled-back changes are never counted.
+ * <p>
+ * Entity writes arrive through {@link com.notificationservice.entity.NotificationStatusListener};
+ * code that changes status with bulk update queries has to call {@link #statusChanged} itself.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StatusTransitionPublisher {
+
+    // Resolved per call: observers depend on repositories, which are built after the entity listener
+    private final ObjectProvider<StatusTransitionObserver> observers;
+
+    // For changes away from PENDING, which carries no provider
+    public void statusChanged(Notification notification, String previousStatus) {
+        statusChanged(notification, previousStatus, null);
+    }
+
+    public void statusChanged(Notification notification, String previousStatus, String previousProvider) {
+        publish(StatusTransition.of(notification, previousStatus, previousProvider));
+    }
+
+    public void publish(StatusTransition transition) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(transition);
+                }
+            });
+        } else {
+            dispatch(transition);
+        }
+    }
+
+    private void dispatch(StatusTransition transition) {
+        observers.orderedStream().forEach(observer -> {
+            try {
+                observer.onStatusTransition(transition);
+            } catch (Exception e) {
+                log.warn("Status observer {} failed for notification {}: {}",
+                        observer.getClass().getSimpleName(), transition.notificationId(), e.getMessage());
+            }
+        });
+    }
+}
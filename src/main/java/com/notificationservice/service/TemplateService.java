@@ -38,6 +38,11 @@ public class TemplateService {
         }
     }
 
+    // Templates are not versioned yet, so the content itself identifies the version
+    public String getTemplateVersion(String templateId) {
+        return Integer.toHexString(getTemplateContent(templateId).hashCode());
+    }
+
     private String getTemplateContent(String templateId) {
         // Имитация получения шаблона из базы данных или файловой системы
         switch (templateId) {
@@ -0,0 +1,43 @@
+package com.notificationservice.service;
+
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.util.StringUtils;
+
+import java.util.Date;
+
+/**
+ * Sends through the transport of a {@link JavaMailSenderImpl} the way {@code JavaMailSenderImpl.send}
+ * does, but records connecting and the message transfer as separate pipeline stages.
+ */
+final class TimedMailTransport {
+
+    private TimedMailTransport() {
+    }
+
+    static void send(JavaMailSenderImpl sender, MimeMessage message, MetricsService metricsService)
+            throws MessagingException {
+        String protocol = sender.getProtocol() != null ? sender.getProtocol() : "smtp";
+        Transport transport = sender.getSession().getTransport(protocol);
+
+        long start = System.nanoTime();
+        transport.connect(sender.getHost(), sender.getPort(),
+                StringUtils.hasLength(sender.getUsername()) ? sender.getUsername() : null,
+                StringUtils.hasLength(sender.getPassword()) ? sender.getPassword() : null);
+        metricsService.recordStage(PipelineStage.SMTP_CONNECT, start);
+
+        try {
+            if (message.getSentDate() == null) {
+                message.setSentDate(new Date());
+            }
+            message.saveChanges();
+            start = System.nanoTime();
+            transport.sendMessage(message, message.getAllRecipients());
+            metricsService.recordStage(PipelineStage.SMTP_DATA, start);
+        } finally {
+            transport.close();
+        }
+    }
+}
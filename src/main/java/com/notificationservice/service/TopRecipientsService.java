@@ -0,0 +1,158 @@
+package com.notificationservice.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationservice.entity.RecipientSketchSnapshot;
+import com.notificationservice.repository.RecipientSketchSnapshotRepository;
+import com.notificationservice.service.SpaceSavingSketch.Estimate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Approximate top recipients of sent notifications, without aggregating the notifications table.
+ * Sends are counted into one {@link SpaceSavingSketch} per hour. Every replica periodically stores
+ * its hourly sketches and merges the ones of the other replicas, so answers cover the whole fleet:
+ * the current hour live for this replica, the last 24 hours as of the latest snapshot.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TopRecipientsService implements StatusTransitionObserver {
+
+    public enum Window {
+        HOUR, DAY
+    }
+
+    private static final int WINDOW_HOURS = 24;
+
+    private final RecipientSketchSnapshotRepository snapshotRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${notification.analytics.top-recipients.capacity:1000}")
+    private int capacity = 1000;
+
+    // A restarted replica starts new rows; the old ones still count until they age out
+    private final String replicaId = UUID.randomUUID().toString();
+
+    private final ConcurrentMap<LocalDateTime, SpaceSavingSketch> localHours = new ConcurrentHashMap<>();
+    private final Map<LocalDateTime, Long> snapshottedTotals = new HashMap<>();
+
+    private volatile Map<LocalDateTime, List<SpaceSavingSketch>> remoteHours = Map.of();
+    private volatile SpaceSavingSketch dayView;
+
+    @Override
+    public void onStatusTransition(StatusTransition transition) {
+        if (!"SENT".equals(transition.status()) || transition.recipient() == null) {
+            return;
+        }
+        localHours.computeIfAbsent(transition.occurredAt().truncatedTo(ChronoUnit.HOURS),
+                hour -> new SpaceSavingSketch(capacity)).offer(transition.recipient());
+    }
+
+    public List<Estimate> top(int limit, Window window) {
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        if (window == Window.HOUR) {
+            List<SpaceSavingSketch> parts = new ArrayList<>(remoteHours.getOrDefault(currentHour, List.of()));
+            SpaceSavingSketch local = localHours.get(currentHour);
+            if (local != null) {
+                parts.add(local);
+            }
+            return SpaceSavingSketch.merge(capacity, parts).top(limit);
+        }
+        SpaceSavingSketch day = dayView;
+        if (day == null) {
+            day = buildDayView(currentHour);
+        }
+        return day.top(limit);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.analytics.top-recipients.snapshot-interval:60000}")
+    public synchronized void snapshot() {
+        LocalDateTime currentHour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        LocalDateTime windowStart = currentHour.minusHours(WINDOW_HOURS - 1);
+
+        localHours.forEach((hour, sketch) -> {
+            long total = sketch.getTotal();
+            if (!Long.valueOf(total).equals(snapshottedTotals.get(hour))) {
+                store(hour, sketch);
+                snapshottedTotals.put(hour, total);
+            }
+        });
+        localHours.keySet().removeIf(hour -> hour.isBefore(windowStart));
+        snapshottedTotals.keySet().removeIf(hour -> hour.isBefore(windowStart));
+
+        Map<LocalDateTime, List<SpaceSavingSketch>> remote = new HashMap<>();
+        for (RecipientSketchSnapshot row : snapshotRepository.findByReplicaIdNotAndHourStartGreaterThanEqual(replicaId, windowStart)) {
+            SpaceSavingSketch sketch = decode(row);
+            if (sketch != null) {
+                remote.computeIfAbsent(row.getHourStart(), hour -> new ArrayList<>()).add(sketch);
+            }
+        }
+        remoteHours = remote;
+        dayView = buildDayView(currentHour);
+
+        snapshotRepository.deleteOlderThan(windowStart.minusHours(WINDOW_HOURS));
+    }
+
+    private SpaceSavingSketch buildDayView(LocalDateTime currentHour) {
+        LocalDateTime windowStart = currentHour.minusHours(WINDOW_HOURS - 1);
+        List<SpaceSavingSketch> parts = new ArrayList<>();
+        remoteHours.forEach((hour, sketches) -> {
+            if (!hour.isBefore(windowStart)) {
+                parts.addAll(sketches);
+            }
+        });
+        localHours.forEach((hour, sketch) -> {
+            if (!hour.isBefore(windowStart)) {
+                parts.add(sketch);
+            }
+        });
+        return SpaceSavingSketch.merge(capacity, parts);
+    }
+
+    private void store(LocalDateTime hour, SpaceSavingSketch sketch) {
+        try {
+            List<Object[]> entries = sketch.estimates().stream()
+                    .map(estimate -> new Object[]{estimate.item(), estimate.count(), estimate.error()})
+                    .toList();
+            RecipientSketchSnapshot row = snapshotRepository.findByReplicaIdAndHourStart(replicaId, hour)
+                    .orElseGet(RecipientSketchSnapshot::new);
+            row.setReplicaId(replicaId);
+            row.setHourStart(hour);
+            row.setTotal(sketch.getTotal());
+            row.setPayload(objectMapper.writeValueAsString(entries));
+            row.setUpdatedAt(LocalDateTime.now());
+            snapshotRepository.save(row);
+        } catch (Exception e) {
+            log.warn("Failed to store recipient sketch for {}: {}", hour, e.getMessage());
+        }
+    }
+
+    private SpaceSavingSketch decode(RecipientSketchSnapshot row) {
+        try {
+            Object[][] entries = objectMapper.readValue(row.getPayload(), Object[][].class);
+            List<Estimate> estimates = Arrays.stream(entries)
+                    .map(entry -> new Estimate((String) entry[0], ((Number) entry[1]).longValue(),
+                            ((Number) entry[2]).longValue()))
+                    .toList();
+            return SpaceSavingSketch.restore(capacity, row.getTotal(), estimates);
+        } catch (JsonProcessingException e) {
+            log.warn("Skipping unreadable recipient sketch {}: {}", row.getId(), e.getMessage());
+            return null;
+        }
+    }
+}
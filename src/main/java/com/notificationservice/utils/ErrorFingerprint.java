@@ -0,0 +1,101 @@
+package com.notificationservice.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes delivery error messages so that failures with the same cause group together.
+ * Variable tokens (addresses, ids, timestamps, numbers, quoted values) are replaced with
+ * placeholders, the result is classified into a small fixed set of categories and hashed
+ * into a fixed-length fingerprint.
+ */
+public record ErrorFingerprint(String fingerprint, String category, String template) {
+
+    public static final int FINGERPRINT_LENGTH = 16;
+    public static final int MAX_TEMPLATE_LENGTH = 200;
+
+    private static final List<Replacement> REPLACEMENTS = List.of(
+            new Replacement("[\\w.+-]+@[\\w-]+(\\.[\\w-]+)+", "<email>"),
+            new Replacement("https?://\\S+", "<url>"),
+            new Replacement("\\b[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}\\b", "<uuid>"),
+            new Replacement("\\b\\d{4}-\\d{2}-\\d{2}([T ]\\d{2}:\\d{2}(:\\d{2}(\\.\\d+)?)?(Z|[+-]\\d{2}:?\\d{2})?)?\\b", "<time>"),
+            new Replacement("\\b\\d{1,3}(\\.\\d{1,3}){3}(:\\d+)?\\b", "<ip>"),
+            new Replacement("\\b(?=[0-9a-fA-F]*\\d)(?=[0-9a-fA-F]*[a-fA-F])[0-9a-fA-F]{8,}\\b", "<hex>"),
+            new Replacement("'[^']*'|\"[^\"]*\"", "<str>"),
+            new Replacement("\\b\\d+(\\.\\d+)*\\b", "<n>"),
+            new Replacement("\\s+", " ")
+    );
+
+    // Checked in order: keywords against the lower-cased template, status codes against the raw message
+    private static final List<Rule> CATEGORIES = List.of(
+            new Rule("RATE_LIMITED", "421|429|452", "rate limit", "too many", "throttl", "quota"),
+            new Rule("TIMEOUT", "", "timeout", "timed out"),
+            new Rule("AUTHENTICATION", "401|403|530|535", "authenticat", "credential", "unauthorized", "forbidden"),
+            new Rule("INVALID_RECIPIENT", "550|551|553", "invalid address", "user unknown", "no such user",
+                    "mailbox unavailable", "recipient", "invalid token", "unregistered"),
+            new Rule("CONNECTION", "502|503|504", "connection", "connect", "unreachable", "unknownhost",
+                    "unknown host", "unavailable", "refused", "broken pipe", "reset by peer"),
+            new Rule("TEMPLATE", "", "template"),
+            new Rule("CONFIGURATION", "", "unsupported", "no available", "not configured", "illegalargument")
+    );
+
+    public static final String UNKNOWN = "UNKNOWN";
+
+    public static ErrorFingerprint of(String errorMessage) {
+        if (errorMessage == null) {
+            return null;
+        }
+        String template = normalize(errorMessage);
+        String category = categorize(errorMessage, template.toLowerCase(Locale.ROOT));
+        return new ErrorFingerprint(hash(category + '|' + template), category, template);
+    }
+
+    static String normalize(String message) {
+        String result = message;
+        for (Replacement replacement : REPLACEMENTS) {
+            result = replacement.pattern().matcher(result).replaceAll(replacement.placeholder());
+        }
+        result = result.trim();
+        return result.length() > MAX_TEMPLATE_LENGTH ? result.substring(0, MAX_TEMPLATE_LENGTH) : result;
+    }
+
+    private static String categorize(String message, String lowerCaseTemplate) {
+        for (Rule rule : CATEGORIES) {
+            if (rule.codes() != null && rule.codes().matcher(message).find()) {
+                return rule.category();
+            }
+            for (String keyword : rule.keywords()) {
+                if (lowerCaseTemplate.contains(keyword)) {
+                    return rule.category();
+                }
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, FINGERPRINT_LENGTH / 2);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record Replacement(Pattern pattern, String placeholder) {
+        Replacement(String regex, String placeholder) {
+            this(Pattern.compile(regex), placeholder);
+        }
+    }
+
+    private record Rule(String category, Pattern codes, String... keywords) {
+        Rule(String category, String codes, String... keywords) {
+            this(category, !codes.isEmpty() ? Pattern.compile("(?<![\\w.-])(" + codes + ")(?![\\w-])") : null, keywords);
+        }
+    }
+}
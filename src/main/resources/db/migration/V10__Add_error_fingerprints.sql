@@ -0,0 +1,10 @@
+-- Migration: V10__Add_error_fingerprints.sql
+-- Description: Normalized error fingerprint and category for failure analytics
+
+ALTER TABLE notifications ADD COLUMN error_fingerprint VARCHAR(16);
+ALTER TABLE notifications ADD COLUMN error_category VARCHAR(30);
+
+-- Failure-reason aggregates read only this index; rows without an error are left out
+CREATE INDEX idx_notifications_error_fingerprint
+    ON notifications (error_category, error_fingerprint)
+    WHERE error_fingerprint IS NOT NULL;
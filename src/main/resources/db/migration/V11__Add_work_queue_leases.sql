@@ -0,0 +1,9 @@
+-- Migration: V11__Add_work_queue_leases.sql
+-- Description: Lease of PROCESSING rows claimed by the database dispatch backend
+
+ALTER TABLE notifications ADD COLUMN lease_expires_at TIMESTAMP;
+
+-- Expired leases are reclaimed in lease order; only PROCESSING rows carry one
+CREATE INDEX IF NOT EXISTS idx_notifications_processing_lease
+    ON notifications (lease_expires_at)
+    WHERE status = 'PROCESSING';
@@ -0,0 +1,22 @@
+-- Migration: V12__Add_rollup_processing_time.sql
+-- Description: Processing-time totals per rollup row, so averages follow the requested date range
+
+ALTER TABLE notification_rollups ADD COLUMN processing_time_sum BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE notification_rollups ADD COLUMN processing_time_count BIGINT NOT NULL DEFAULT 0;
+
+-- Backfill from sent notifications; rows are keyed as AnalyticsRollupService keys SENT transitions
+UPDATE notification_rollups r
+SET processing_time_sum = s.time_sum,
+    processing_time_count = s.time_count
+FROM (
+    SELECT g.granularity, date_trunc(lower(g.granularity), n.created_at) AS bucket_start,
+           n.type, n.status, COALESCE(n.priority, 'NORMAL') AS priority, COALESCE(n.provider, 'NONE') AS provider,
+           SUM(n.processing_time) AS time_sum, COUNT(*) AS time_count
+    FROM notifications n
+    CROSS JOIN (VALUES ('MINUTE'), ('HOUR'), ('DAY')) AS g(granularity)
+    WHERE n.status = 'SENT' AND n.processing_time IS NOT NULL AND n.created_at IS NOT NULL
+    GROUP BY g.granularity, date_trunc(lower(g.granularity), n.created_at), n.type, n.status,
+             COALESCE(n.priority, 'NORMAL'), COALESCE(n.provider, 'NONE')
+) s
+WHERE r.granularity = s.granularity AND r.bucket_start = s.bucket_start AND r.type = s.type
+  AND r.status = s.status AND r.priority = s.priority AND r.provider = s.provider;
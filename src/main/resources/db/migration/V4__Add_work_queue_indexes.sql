@@ -0,0 +1,12 @@
+-- Migration: V4__Add_work_queue_indexes.sql
+-- Description: Partial indexes for the database dispatch backend (notification.dispatch.backend=database)
+
+-- Claims scan PENDING rows of one priority in created_at order
+CREATE INDEX IF NOT EXISTS idx_notifications_pending_claim
+    ON notifications (priority, created_at)
+    WHERE status = 'PENDING';
+
+-- Retry sweeps only look at FAILED rows
+CREATE INDEX IF NOT EXISTS idx_notifications_failed_retry
+    ON notifications (retry_count)
+    WHERE status = 'FAILED';
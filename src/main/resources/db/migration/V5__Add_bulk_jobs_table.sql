@@ -0,0 +1,18 @@
+-- Migration: V5__Add_bulk_jobs_table.sql
+-- Description: Progress of asynchronous bulk sends, flushed periodically from in-memory counters
+
+CREATE TABLE bulk_jobs (
+    id VARCHAR(36) PRIMARY KEY,
+    type VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'RUNNING',
+    priority VARCHAR(20) DEFAULT 'NORMAL',
+    accepted_count BIGINT NOT NULL DEFAULT 0,
+    duplicate_count BIGINT NOT NULL DEFAULT 0,
+    sent_count BIGINT NOT NULL DEFAULT 0,
+    failed_count BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP
+);
+
+CREATE INDEX idx_bulk_jobs_status ON bulk_jobs(status) WHERE status = 'RUNNING';
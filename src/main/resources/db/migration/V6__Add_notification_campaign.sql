@@ -0,0 +1,9 @@
+-- Migration: V6__Add_notification_campaign.sql
+-- Description: Link notifications to the bulk job (campaign) that created them
+
+ALTER TABLE notifications ADD COLUMN campaign_id VARCHAR(36);
+
+-- Campaign lookups and per-campaign status updates
+CREATE INDEX idx_notifications_campaign_status
+    ON notifications (campaign_id, status)
+    WHERE campaign_id IS NOT NULL;
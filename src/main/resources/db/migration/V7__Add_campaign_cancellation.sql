@@ -0,0 +1,7 @@
+-- Migration: V7__Add_campaign_cancellation.sql
+-- Description: Count notifications withdrawn by a campaign cancel
+
+ALTER TABLE bulk_jobs ADD COLUMN cancelled_count BIGINT NOT NULL DEFAULT 0;
+
+-- Replicas poll for recent cancels to refresh their in-memory cancelled set
+CREATE INDEX idx_bulk_jobs_cancelled ON bulk_jobs(completed_at) WHERE status = 'CANCELLED';
@@ -0,0 +1,30 @@
+-- Migration: V8__Add_notification_rollups.sql
+-- Description: Pre-aggregated notification counts for analytics, maintained from status transitions
+
+ALTER TABLE notifications ADD COLUMN provider VARCHAR(50);
+
+-- One row per bucket and key; count is the number of notifications created in the bucket
+-- that currently have the status, so the statuses of a bucket sum to what was created in it
+CREATE TABLE notification_rollups (
+    id VARCHAR(36) PRIMARY KEY,
+    granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('MINUTE', 'HOUR', 'DAY')),
+    bucket_start TIMESTAMP NOT NULL,
+    type VARCHAR(50) NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    priority VARCHAR(20) NOT NULL,
+    provider VARCHAR(50) NOT NULL,
+    count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_notification_rollups_key
+        UNIQUE (granularity, bucket_start, type, status, priority, provider)
+);
+
+-- Backfill from existing notifications
+INSERT INTO notification_rollups (id, granularity, bucket_start, type, status, priority, provider, count)
+SELECT gen_random_uuid()::text, g.granularity, date_trunc(lower(g.granularity), n.created_at),
+       n.type, n.status, COALESCE(n.priority, 'NORMAL'), 'NONE', COUNT(*)
+FROM notifications n
+CROSS JOIN (VALUES ('MINUTE'), ('HOUR'), ('DAY')) AS g(granularity)
+WHERE n.created_at IS NOT NULL
+  AND (g.granularity <> 'MINUTE' OR n.created_at >= CURRENT_TIMESTAMP - INTERVAL '2 days')
+GROUP BY g.granularity, date_trunc(lower(g.granularity), n.created_at), n.type, n.status,
+         COALESCE(n.priority, 'NORMAL');
@@ -0,0 +1,14 @@
+-- Migration: V9__Add_recipient_sketches.sql
+-- Description: Hourly top-recipient sketches per replica, merged for /api/v1/analytics/top-recipients
+
+CREATE TABLE recipient_sketches (
+    id VARCHAR(36) PRIMARY KEY,
+    replica_id VARCHAR(36) NOT NULL,
+    hour_start TIMESTAMP NOT NULL,
+    total BIGINT NOT NULL DEFAULT 0,
+    payload TEXT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_recipient_sketches_replica_hour UNIQUE (replica_id, hour_start)
+);
+
+CREATE INDEX idx_recipient_sketches_hour ON recipient_sketches(hour_start);
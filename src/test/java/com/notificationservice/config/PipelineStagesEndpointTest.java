@@ -0,0 +1,55 @@
+package com.notificationservice.config;
+
+import com.notificationservice.service.MetricsService;
+import com.notificationservice.service.PipelineStage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineStagesEndpointTest {
+
+    private MetricsService metricsService;
+    private PipelineStagesEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        metricsService = new MetricsService(meterRegistry);
+        endpoint = new PipelineStagesEndpoint(meterRegistry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stages_ShouldListRecordedStagesInPipelineOrder() {
+        // Arrange
+        metricsService.recordStage(PipelineStage.SMTP_DATA, 300, TimeUnit.MILLISECONDS);
+        metricsService.recordStage(PipelineStage.VALIDATION, 20, TimeUnit.MILLISECONDS);
+        metricsService.recordStage(PipelineStage.DB_INSERT, 80, TimeUnit.MILLISECONDS);
+
+        // Act
+        Map<String, Object> result = endpoint.stages();
+
+        // Assert
+        assertEquals(400.0, (double) result.get("totalMs"), 0.001);
+        Map<String, Map<String, Object>> stages = (Map<String, Map<String, Object>>) result.get("stages");
+        assertEquals(List.of("validation", "db_insert", "smtp_data"), List.copyOf(stages.keySet()));
+        assertEquals(1L, stages.get("smtp_data").get("count"));
+        assertEquals(0.75, (double) stages.get("smtp_data").get("shareOfTotal"), 0.001);
+        assertTrue(stages.get("smtp_data").containsKey("p99Ms"));
+    }
+
+    @Test
+    void stages_ShouldBeEmptyBeforeAnythingIsRecorded() {
+        Map<String, Object> result = endpoint.stages();
+
+        assertEquals(0.0, (double) result.get("totalMs"), 0.001);
+        assertTrue(((Map<?, ?>) result.get("stages")).isEmpty());
+    }
+}
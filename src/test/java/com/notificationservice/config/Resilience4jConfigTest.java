@@ -0,0 +1,75 @@
+package com.notificationservice.config;
+
+import com.notificationservice.service.RetryBudgetService;
+import io.github.resilience4j.retry.Retry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class Resilience4jConfigTest {
+
+    @Mock
+    private RetryBudgetService retryBudgetService;
+
+    @Test
+    void retry_ShouldNotChargeBudgetForLastFailedAttempt() {
+        // Arrange
+        when(retryBudgetService.tryAcquire(RetryBudgetService.ANY, null)).thenReturn(true);
+        Retry retry = retry();
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> retry.executeRunnable(() -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("SMTP unavailable");
+        }));
+
+        // Assert
+        assertEquals(3, calls.get());
+        verify(retryBudgetService, times(2)).tryAcquire(RetryBudgetService.ANY, null);
+    }
+
+    @Test
+    void retry_WhenBudgetExhausted_ShouldFailWithOriginalError() {
+        // Arrange
+        when(retryBudgetService.tryAcquire(RetryBudgetService.ANY, null)).thenReturn(false);
+        Retry retry = retry();
+        AtomicInteger calls = new AtomicInteger();
+
+        // Act
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> retry.executeRunnable(() -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("SMTP unavailable");
+        }));
+
+        // Assert
+        assertEquals("SMTP unavailable", error.getMessage());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void retry_ShouldNotChargeBudgetForIgnoredExceptions() {
+        // Arrange
+        Retry retry = retry();
+
+        // Act
+        assertThrows(IllegalArgumentException.class, () -> retry.executeRunnable(() -> {
+            throw new IllegalArgumentException("bad request");
+        }));
+
+        // Assert
+        verifyNoInteractions(retryBudgetService);
+    }
+
+    private Retry retry() {
+        return Retry.of("test", Resilience4jConfig.budgetedRetryConfig(retryBudgetService, Duration.ofMillis(1)));
+    }
+}
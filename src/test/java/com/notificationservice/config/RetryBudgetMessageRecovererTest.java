@@ -0,0 +1,98 @@
+package com.notificationservice.config;
+
+import com.notificationservice.entity.Notification;
+import com.notificationservice.messaging.NotificationSnapshot;
+import com.notificationservice.messaging.NotificationSnapshotCodec;
+import com.notificationservice.service.RetryService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.retry.MessageRecoverer;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.retry.context.RetryContextSupport;
+import org.springframework.retry.support.RetrySynchronizationManager;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RetryBudgetMessageRecovererTest {
+
+    @Mock
+    private MessageRecoverer delegate;
+
+    @Mock
+    private RetryService retryService;
+
+    private final MessageConverter messageConverter = new Jackson2JsonMessageConverter();
+
+    private RetryBudgetMessageRecoverer recoverer;
+
+    @BeforeEach
+    void setUp() {
+        recoverer = new RetryBudgetMessageRecoverer(delegate, messageConverter, retryService);
+        RetryContextSupport context = new RetryContextSupport(null);
+        context.setAttribute(BudgetedRetryPolicy.BUDGET_EXHAUSTED, true);
+        RetrySynchronizationManager.register(context);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RetrySynchronizationManager.clear();
+    }
+
+    @Test
+    void recover_OverBudgetIdMessage_ShouldDeferRetry() {
+        // Arrange
+        Message message = messageConverter.toMessage("n-1", new MessageProperties());
+
+        // Act
+        recoverer.recover(message, new RuntimeException("SMTP unavailable"));
+
+        // Assert
+        verify(retryService).deferRetry("n-1", null);
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void recover_OverBudgetSnapshotMessage_ShouldDeferRetry() {
+        // Arrange
+        Notification notification = new Notification();
+        notification.setId("n-2");
+        notification.setType("EMAIL");
+        notification.setRecipient("user@example.com");
+        notification.setCreatedAt(LocalDateTime.now());
+        Message message = NotificationSnapshotCodec.toMessage(NotificationSnapshot.of(notification));
+
+        // Act
+        recoverer.recover(message, new RuntimeException("SMTP unavailable"));
+
+        // Assert
+        verify(retryService).deferRetry("n-2", null);
+        verifyNoInteractions(delegate);
+    }
+
+    @Test
+    void recover_UnreadableMessage_ShouldReject() {
+        // Arrange
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(NotificationSnapshotCodec.CONTENT_TYPE);
+        Message message = new Message(new byte[]{42}, properties);
+
+        // Act
+        recoverer.recover(message, new RuntimeException("SMTP unavailable"));
+
+        // Assert
+        verify(delegate).recover(eq(message), any());
+        verifyNoInteractions(retryService);
+    }
+}
@@ -2,7 +2,9 @@ package com.notificationservice.controller;
 
 import com.notificationservice.config.TestSecurityConfig;
 import com.notificationservice.dto.NotificationStats;
+import com.notificationservice.entity.NotificationRollup;
 import com.notificationservice.service.AnalyticsService;
+import com.notificationservice.service.TopRecipientsService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -12,6 +14,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -62,6 +65,22 @@ class AnalyticsControllerTest {
                 .andExpect(jsonPath("$").value(150.0));
     }
 
+    @Test
+    void getTimeSeries_ShouldPassGranularityAndRange() throws Exception {
+        // Arrange
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        when(analyticsService.getTimeSeries(NotificationRollup.Granularity.MINUTE, from, from.plusHours(1)))
+                .thenReturn(Map.of(from, 42L));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/analytics/timeseries")
+                        .param("granularity", "MINUTE")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-01-01T01:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['2024-01-01T00:00']").value(42));
+    }
+
     @Test
     void getDailyCount_ShouldReturnOk() throws Exception {
         // Arrange
@@ -78,13 +97,15 @@ class AnalyticsControllerTest {
     @Test
     void getTopRecipients_ShouldReturnOk() throws Exception {
         // Arrange
-        when(analyticsService.getTopRecipients(any(Integer.class)))
+        when(analyticsService.getTopRecipients(10, TopRecipientsService.Window.HOUR))
                 .thenReturn(Map.of("test@example.com", 5L));
 
         // Act & Assert
         mockMvc.perform(get("/api/v1/analytics/top-recipients")
-                        .param("limit", "10"))
-                .andExpect(status().isOk());
+                        .param("limit", "10")
+                        .param("window", "HOUR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['test@example.com']").value(5));
     }
 
     @Test
@@ -97,4 +118,16 @@ class AnalyticsControllerTest {
         mockMvc.perform(get("/api/v1/analytics/failure-reasons"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    void getLiveFailureReasons_ShouldReturnOk() throws Exception {
+        // Arrange
+        when(analyticsService.getLiveFailureReasons())
+                .thenReturn(Map.of("TIMEOUT: Read timed out after <n> ms", 2L));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/analytics/failure-reasons/live"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['TIMEOUT: Read timed out after <n> ms']").value(2));
+    }
 }
@@ -61,4 +61,21 @@ class NotificationTest {
         assertEquals(now, notification.getSentAt());
         assertEquals("Test Title", notification.getTitle());
     }
+
+    @Test
+    void setSentAt_ShouldRecordProcessingTimeSinceCreation() {
+        // Arrange
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 12, 0);
+        Notification notification = new Notification();
+        notification.setCreatedAt(created);
+
+        // Act
+        notification.setSentAt(created.plusSeconds(3).plusNanos(250_000_000));
+
+        // Assert
+        assertEquals(3250L, notification.getProcessingTime());
+
+        notification.setSentAt(null);
+        assertNull(notification.getProcessingTime());
+    }
 }
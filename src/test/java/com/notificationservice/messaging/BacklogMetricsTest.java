@@ -0,0 +1,85 @@
+package com.notificationservice.messaging;
+
+import com.notificationservice.repository.NotificationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BacklogMetricsTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private RabbitAdmin rabbitAdmin;
+
+    private MeterRegistry meterRegistry;
+    private BacklogMetrics backlogMetrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        StaticListableBeanFactory beans = new StaticListableBeanFactory(Map.of(
+                "rabbitAdmin", rabbitAdmin,
+                "notificationQueue", new Queue("notification.queue"),
+                "shardDeclarables", new Declarables(new Queue("notification.shard.0"))));
+        backlogMetrics = new BacklogMetrics(meterRegistry, notificationRepository,
+                beans.getBeanProvider(RabbitAdmin.class),
+                beans.getBeanProvider(RabbitListenerEndpointRegistry.class),
+                beans.getBeanProvider(Queue.class),
+                beans.getBeanProvider(Declarables.class));
+        backlogMetrics.registerGauges();
+    }
+
+    @Test
+    void refresh_ShouldPublishQueueDepthsAndPendingBacklog() {
+        // Arrange
+        when(rabbitAdmin.getQueueInfo("notification.queue")).thenReturn(new QueueInformation("notification.queue", 1200, 4));
+        when(rabbitAdmin.getQueueInfo("notification.shard.0")).thenReturn(new QueueInformation("notification.shard.0", 7, 1));
+        when(notificationRepository.countByStatus("PENDING")).thenReturn(1500L);
+        when(notificationRepository.findOldestCreatedAtByStatus("PENDING")).thenReturn(LocalDateTime.now().minusSeconds(90));
+
+        // Act
+        backlogMetrics.refresh();
+
+        // Assert
+        assertEquals(1200.0, meterRegistry.get("notification.queue.depth").tag("queue", "notification.queue").gauge().value());
+        assertEquals(7.0, meterRegistry.get("notification.queue.depth").tag("queue", "notification.shard.0").gauge().value());
+        assertEquals(1500.0, meterRegistry.get("notification.backlog.pending").gauge().value());
+        assertEquals(90.0, meterRegistry.get("notification.backlog.oldest.age").gauge().value(), 2.0);
+    }
+
+    @Test
+    void refresh_ShouldKeepLastValuesWhenBrokerIsUnreachable() {
+        // Arrange
+        when(rabbitAdmin.getQueueInfo(anyString())).thenReturn(new QueueInformation("q", 10, 1));
+        backlogMetrics.refresh();
+        when(rabbitAdmin.getQueueInfo(anyString())).thenThrow(new RuntimeException("connection refused"));
+        when(notificationRepository.findOldestCreatedAtByStatus("PENDING")).thenReturn(null);
+
+        // Act
+        backlogMetrics.refresh();
+
+        // Assert
+        assertEquals(10.0, meterRegistry.get("notification.queue.depth").tag("queue", "notification.queue").gauge().value());
+        assertEquals(0.0, meterRegistry.get("notification.backlog.oldest.age").gauge().value());
+        assertEquals(0.0, meterRegistry.get("notification.consumers.utilization").gauge().value());
+    }
+}
@@ -0,0 +1,143 @@
+package com.notificationservice.messaging;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConsumerConcurrencyTunerTest {
+
+    @Mock
+    private RabbitListenerEndpointRegistry listenerEndpointRegistry;
+
+    @Mock
+    private RabbitAdmin rabbitAdmin;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConsumerConcurrencyTuner tuner;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tuner = new ConsumerConcurrencyTuner(listenerEndpointRegistry, rabbitAdmin, meterRegistry);
+        tuner.initialise(4, 2);
+    }
+
+    @Test
+    void adjust_WithBacklogAndHeadroom_ShouldIncreaseAdditively() {
+        assertTrue(tuner.adjust(10_000, 100, 0.9));
+
+        assertEquals(5, tuner.getConsumers());
+        assertEquals(3, tuner.getPrefetch());
+    }
+
+    @Test
+    void adjust_WhenLatencyOverTarget_ShouldDecreaseMultiplicatively() {
+        tuner.initialise(16, 8);
+
+        assertTrue(tuner.adjust(10_000, 5_000, 1.0));
+
+        assertEquals(8, tuner.getConsumers());
+        assertEquals(4, tuner.getPrefetch());
+    }
+
+    @Test
+    void adjust_ShouldStayWithinConfiguredBounds() {
+        tuner.initialise(20, 10);
+        assertFalse(tuner.adjust(10_000, 100, 1.0));
+
+        tuner.initialise(3, 1);
+        assertFalse(tuner.adjust(10_000, 5_000, 1.0));
+        assertEquals(3, tuner.getConsumers());
+        assertEquals(1, tuner.getPrefetch());
+    }
+
+    @Test
+    void tune_WhenQueueIsIdle_ShouldShrinkRealContainer() {
+        // Arrange
+        tuner.initialise(8, 4);
+        SimpleMessageListenerContainer container = container(8);
+        when(listenerEndpointRegistry.getListenerContainers()).thenReturn(List.<MessageListenerContainer>of(container));
+        when(rabbitAdmin.getQueueInfo("notification.queue")).thenReturn(new QueueInformation("notification.queue", 0, 8));
+        tuner.tune();
+        assertEquals(8, tuner.getConsumers());
+
+        // Act
+        tuner.tune();
+
+        // Assert
+        assertEquals(7, tuner.getConsumers());
+        assertEquals(7, ReflectionTestUtils.getField(container, "concurrentConsumers"));
+        assertEquals(7, ReflectionTestUtils.getField(container, "maxConcurrentConsumers"));
+    }
+
+    @Test
+    void tune_WithBacklog_ShouldGrowRealContainer() {
+        // Arrange
+        tuner.initialise(3, 1);
+        ReflectionTestUtils.setField(tuner, "highUtilization", 0.0);
+        SimpleMessageListenerContainer container = container(3);
+        when(listenerEndpointRegistry.getListenerContainers()).thenReturn(List.<MessageListenerContainer>of(container));
+        when(rabbitAdmin.getQueueInfo("notification.queue")).thenReturn(new QueueInformation("notification.queue", 10_000, 3));
+        tuner.tune();
+
+        // Act
+        tuner.tune();
+
+        // Assert
+        assertEquals(4, ReflectionTestUtils.getField(container, "concurrentConsumers"));
+        assertEquals(4, ReflectionTestUtils.getField(container, "maxConcurrentConsumers"));
+    }
+
+    @Test
+    void tune_ShouldMeasureUtilizationOverElapsedTimeAndActiveConsumers() {
+        // Arrange
+        tuner.initialise(8, 4);
+        SimpleMessageListenerContainer container = mock(SimpleMessageListenerContainer.class);
+        when(container.getQueueNames()).thenReturn(new String[]{"notification.queue"});
+        // Only one of the 8 target consumers is running
+        when(container.getActiveConsumerCount()).thenReturn(1);
+        when(listenerEndpointRegistry.getListenerContainers()).thenReturn(List.<MessageListenerContainer>of(container));
+        when(rabbitAdmin.getQueueInfo("notification.queue")).thenReturn(new QueueInformation("notification.queue", 10_000, 8));
+        ReflectionTestUtils.setField(tuner, "lastTickNanos", System.nanoTime() - TimeUnit.SECONDS.toNanos(10));
+        Timer timer = meterRegistry.timer("notification.email.processing.time");
+        for (int i = 0; i < 8; i++) {
+            timer.record(Duration.ofSeconds(1));
+        }
+
+        // Act
+        tuner.tune();
+
+        // Assert: 8 s busy in 10 s is 0.8 for the one running consumer, 0.1 for the 8 targeted
+        assertEquals(9, tuner.getConsumers());
+        verify(container).setConcurrentConsumers(9);
+        verify(container).setPrefetchCount(5);
+    }
+
+    private static SimpleMessageListenerContainer container(int consumers) {
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer();
+        container.setQueueNames("notification.queue");
+        container.setMaxConcurrentConsumers(consumers);
+        container.setConcurrentConsumers(consumers);
+        return container;
+    }
+}
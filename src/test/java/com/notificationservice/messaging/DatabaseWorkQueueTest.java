@@ -0,0 +1,183 @@
+package com.notificationservice.messaging;
+
+import com.notificationservice.entity.Notification;
+import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.service.NotificationService;
+import com.notificationservice.service.RetryBudgetService;
+import com.notificationservice.service.StatusTransitionPublisher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseWorkQueueTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private RetryBudgetService retryBudgetService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private StatusTransitionPublisher statusTransitionPublisher;
+
+    @InjectMocks
+    private DatabaseWorkQueue workQueue;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(workQueue, "batchSize", 3);
+        ReflectionTestUtils.setField(workQueue, "leaseDuration", 60_000L);
+        ReflectionTestUtils.setField(workQueue, "transaction", new TransactionTemplate(transactionManager));
+        lenient().when(notificationRepository.claimExpiredLeases(any(LocalDateTime.class), anyInt()))
+                .thenReturn(List.of());
+    }
+
+    @Test
+    void claimAndSend_ShouldFillBatchInPriorityOrder() {
+        // Arrange
+        when(notificationRepository.claimPending("HIGH", 3)).thenReturn(List.of(createNotification("1", "HIGH")));
+        when(notificationRepository.claimPending("NORMAL", 2)).thenReturn(
+                List.of(createNotification("2", "NORMAL"), createNotification("3", "NORMAL")));
+
+        // Act
+        int processed = workQueue.claimAndSend();
+
+        // Assert
+        assertEquals(3, processed);
+        verify(notificationRepository, never()).claimPending(eq("LOW"), anyInt());
+        verify(notificationService, times(3)).deliver(any(Notification.class));
+        verify(notificationRepository).saveAll(anyList());
+    }
+
+    @Test
+    void claimAndSend_ShouldLeaseClaimedRowsBeforeSending() {
+        // Arrange
+        Notification notification = createNotification("1", "HIGH");
+        when(notificationRepository.claimPending(anyString(), anyInt())).thenReturn(List.of());
+        when(notificationRepository.claimPending("HIGH", 3)).thenReturn(List.of(notification));
+        doAnswer(invocation -> {
+            // The claim has already been committed when the provider is called
+            assertEquals("PROCESSING", notification.getStatus());
+            assertNotNull(notification.getLeaseExpiresAt());
+            verify(transactionManager).commit(any());
+            return null;
+        }).when(notificationService).deliver(notification);
+        LocalDateTime before = LocalDateTime.now();
+
+        // Act
+        workQueue.claimAndSend();
+
+        // Assert
+        verify(notificationRepository).saveAll(List.of(notification));
+        verify(notificationRepository).markLeaseSent(eq("1"), argThat(lease -> lease.isAfter(before.plusSeconds(59))),
+                any(LocalDateTime.class), any(), any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void claimAndSend_ShouldReclaimExpiredLeasesFirst() {
+        // Arrange
+        Notification expired = createNotification("1", "LOW");
+        expired.setStatus("PROCESSING");
+        expired.setLeaseExpiresAt(LocalDateTime.now().minusMinutes(1));
+        when(notificationRepository.claimExpiredLeases(any(LocalDateTime.class), eq(3))).thenReturn(List.of(expired));
+        when(notificationRepository.claimPending(anyString(), anyInt())).thenReturn(List.of());
+
+        // Act
+        int processed = workQueue.claimAndSend();
+
+        // Assert
+        assertEquals(1, processed);
+        verify(notificationRepository).claimPending("HIGH", 2);
+        assertTrue(expired.getLeaseExpiresAt().isAfter(LocalDateTime.now()));
+        verify(notificationService).deliver(expired);
+    }
+
+    @Test
+    void claimAndSend_WhenLeaseWasLost_ShouldNotPublishTransition() {
+        // Arrange
+        Notification notification = createNotification("1", "HIGH");
+        when(notificationRepository.claimPending(anyString(), anyInt())).thenReturn(List.of());
+        when(notificationRepository.claimPending("HIGH", 3)).thenReturn(List.of(notification));
+        when(notificationRepository.markLeaseSent(eq("1"), any(LocalDateTime.class), any(LocalDateTime.class), any(), any()))
+                .thenReturn(0);
+
+        // Act
+        workQueue.claimAndSend();
+
+        // Assert
+        verify(statusTransitionPublisher, never()).statusChanged(any(Notification.class), anyString());
+    }
+
+    @Test
+    void claimAndSend_ShouldRecordOutcomePerNotification() {
+        // Arrange
+        Notification sent = createNotification("1", "HIGH");
+        Notification failed = createNotification("2", "HIGH");
+        when(notificationRepository.claimPending(anyString(), anyInt())).thenReturn(List.of());
+        when(notificationRepository.claimPending("HIGH", 3)).thenReturn(List.of(sent, failed));
+        when(notificationRepository.markLeaseSent(eq("1"), any(LocalDateTime.class), any(LocalDateTime.class), any(), any()))
+                .thenReturn(1);
+        when(notificationRepository.markLeaseFailed(eq("2"), any(LocalDateTime.class), eq("SMTP unavailable"),
+                any(), any(), any())).thenReturn(1);
+        lenient().doThrow(new IllegalStateException("SMTP unavailable")).when(notificationService).deliver(failed);
+
+        // Act
+        workQueue.claimAndSend();
+
+        // Assert
+        assertEquals("SENT", sent.getStatus());
+        assertNotNull(sent.getSentAt());
+        assertEquals("FAILED", failed.getStatus());
+        assertEquals("SMTP unavailable", failed.getErrorMessage());
+        assertEquals(1, failed.getRetryCount());
+        verify(retryBudgetService, times(1)).recordSuccess("EMAIL", null);
+        verify(statusTransitionPublisher).statusChanged(sent, "PROCESSING");
+        verify(statusTransitionPublisher).statusChanged(failed, "PROCESSING");
+    }
+
+    @Test
+    void claimAndSend_WithNothingPending_ShouldNotSave() {
+        // Arrange
+        when(notificationRepository.claimPending(anyString(), anyInt())).thenReturn(List.of());
+
+        // Act
+        int processed = workQueue.claimAndSend();
+
+        // Assert
+        assertEquals(0, processed);
+        verify(notificationRepository, never()).saveAll(anyList());
+        verifyNoInteractions(notificationService);
+    }
+
+    private Notification createNotification(String id, String priority) {
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setType("EMAIL");
+        notification.setRecipient("user" + id + "@example.com");
+        notification.setPriority(priority);
+        return notification;
+    }
+}
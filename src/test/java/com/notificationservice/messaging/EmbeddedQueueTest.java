@@ -0,0 +1,122 @@
+package com.notificationservice.messaging;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddedQueueTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void enqueue_ShouldDeliverAndAckInJournal() throws Exception {
+        // Arrange
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        EmbeddedQueue queue = new EmbeddedQueue(new MappedJournal(directory, SEGMENT_SIZE), 16, 2, 3, 10,
+                payload -> delivered.add(text(payload)), (payload, cause) -> fail("unexpected dead letter"));
+        queue.start(50);
+
+        // Act
+        queue.enqueue(bytes("notification-1"));
+        queue.enqueue(bytes("notification-2"));
+
+        // Assert
+        await().atMost(Duration.ofSeconds(5)).until(() -> delivered.size() == 2);
+        queue.close();
+        assertTrue(new MappedJournal(directory, SEGMENT_SIZE).pending().isEmpty());
+    }
+
+    @Test
+    void journal_ShouldRedeliverUnackedMessagesAfterRestart() throws Exception {
+        // Arrange
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE);
+        long first = journal.append(bytes("notification-1"));
+        long second = journal.append(bytes("notification-2"));
+        journal.ack(first);
+        journal.close();
+
+        // Act
+        Map<Long, byte[]> pending = new MappedJournal(directory, SEGMENT_SIZE).pending();
+
+        // Assert
+        assertEquals(1, pending.size());
+        assertEquals("notification-2", text(pending.get(second)));
+    }
+
+    @Test
+    void journal_ShouldDeleteSegmentsOnceFullyAcked() throws Exception {
+        // Arrange
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE);
+        byte[] payload = new byte[1000];
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            journal.ack(journal.append(payload));
+        }
+
+        // Assert
+        assertEquals(1, journal.getSegmentCount());
+        journal.close();
+    }
+
+    @Test
+    void journal_ShouldContinueSequenceAfterRestart() throws Exception {
+        // Arrange
+        MappedJournal journal = new MappedJournal(directory, SEGMENT_SIZE);
+        journal.append(bytes("notification-1"));
+        journal.close();
+
+        // Act
+        MappedJournal reopened = new MappedJournal(directory, SEGMENT_SIZE);
+        long next = reopened.append(bytes("notification-2"));
+
+        // Assert
+        assertEquals(1, next);
+        assertEquals(List.of(0L), List.copyOf(reopened.pending().keySet()));
+        reopened.close();
+    }
+
+    @Test
+    void failingHandler_ShouldRetryThenDeadLetter() throws Exception {
+        // Arrange
+        AtomicInteger attempts = new AtomicInteger();
+        List<String> deadLetters = new CopyOnWriteArrayList<>();
+        EmbeddedQueue queue = new EmbeddedQueue(new MappedJournal(directory, SEGMENT_SIZE), 16, 1, 3, 10,
+                payload -> {
+                    attempts.incrementAndGet();
+                    throw new IllegalStateException("provider down");
+                },
+                (payload, cause) -> deadLetters.add(text(payload)));
+        queue.start(50);
+
+        // Act
+        queue.enqueue(bytes("notification-1"));
+
+        // Assert
+        await().atMost(Duration.ofSeconds(5)).until(() -> deadLetters.size() == 1);
+        assertEquals(3, attempts.get());
+        queue.close();
+        assertTrue(new MappedJournal(directory, SEGMENT_SIZE).pending().isEmpty());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,155 @@
+package com.notificationservice.messaging;
+
+import com.notificationservice.entity.Notification;
+import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.service.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.retry.support.RetryTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EnhancedNotificationConsumerTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private EmailService emailService;
+
+    @Mock
+    private PushService pushService;
+
+    @Mock
+    private MetricsService metricsService;
+
+    @Mock
+    private RetryBudgetService retryBudgetService;
+
+    @Mock
+    private StatusTransitionPublisher statusTransitionPublisher;
+
+    @Mock
+    private CampaignCancellationService campaignCancellationService;
+
+    @Mock
+    private SpanRecorder spanRecorder;
+
+    private final MessageConverter messageConverter = new Jackson2JsonMessageConverter();
+
+    private EnhancedNotificationConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new EnhancedNotificationConsumer(notificationRepository, emailService, pushService, metricsService,
+                retryBudgetService, messageConverter, statusTransitionPublisher, campaignCancellationService,
+                spanRecorder);
+    }
+
+    @Test
+    void handleDeadLetterMessage_WithIdMessage_ShouldMarkFailedPermanently() {
+        // Arrange
+        Notification notification = notification("n-1");
+        when(notificationRepository.findById("n-1")).thenReturn(Optional.of(notification));
+
+        // Act
+        consumer.handleDeadLetterMessage(messageConverter.toMessage("n-1", new MessageProperties()));
+
+        // Assert
+        assertEquals("FAILED_PERMANENTLY", notification.getStatus());
+        verify(notificationRepository).save(notification);
+    }
+
+    @Test
+    void handleDeadLetterMessage_WithSnapshotMessage_ShouldMarkFailedPermanently() {
+        // Arrange
+        Notification notification = notification("n-2");
+        when(notificationRepository.findById("n-2")).thenReturn(Optional.of(notification));
+        Message message = NotificationSnapshotCodec.toMessage(NotificationSnapshot.of(notification));
+
+        // Act
+        consumer.handleDeadLetterMessage(message);
+
+        // Assert
+        assertEquals("FAILED_PERMANENTLY", notification.getStatus());
+        verify(metricsService).recordNotificationStatus("EMAIL", "PERMANENT_FAILURE");
+    }
+
+    @Test
+    void handleDeadLetterMessage_WithUnreadableMessage_ShouldNotThrow() {
+        // Arrange
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(NotificationSnapshotCodec.CONTENT_TYPE);
+
+        // Act
+        consumer.handleDeadLetterMessage(new Message(new byte[]{42}, properties));
+
+        // Assert
+        verify(notificationRepository, never()).findById(any());
+    }
+
+    @Test
+    void onNotificationMessage_WhenListenerRetrySucceeds_ShouldEndSent() {
+        // Arrange: the row as the guarded updates see it
+        AtomicReference<String> rowStatus = new AtomicReference<>("PENDING");
+        when(notificationRepository.markFailed(eq("n-3"), any(), any(), any(), any()))
+                .thenAnswer(invocation -> rowStatus.compareAndSet("PENDING", "FAILED") ? 1 : 0);
+        when(notificationRepository.markSent(eq("n-3"), any(), any(), any()))
+                .thenAnswer(invocation -> rowStatus.compareAndSet("PENDING", "SENT") ? 1 : 0);
+        when(notificationRepository.markSentAfterFailure(eq("n-3"), any(), any(), any()))
+                .thenAnswer(invocation -> rowStatus.compareAndSet("FAILED", "SENT") ? 1 : 0);
+        List<Integer> attempts = new ArrayList<>();
+        doAnswer(invocation -> {
+            Notification sending = invocation.getArgument(0);
+            attempts.add(sending.getRetryCount() + 1);
+            if (attempts.size() == 1) {
+                throw new IllegalStateException("SMTP unavailable");
+            }
+            return null;
+        }).when(emailService).sendEmail(any(Notification.class));
+        Notification notification = notification("n-3");
+        notification.setStatus("PENDING");
+        Message message = NotificationSnapshotCodec.toMessage(NotificationSnapshot.of(notification));
+        RetryTemplate retryTemplate = RetryTemplate.builder().maxAttempts(3).noBackoff().build();
+
+        // Act
+        retryTemplate.execute(context -> {
+            consumer.onNotificationMessage(message);
+            return null;
+        });
+
+        // Assert
+        assertEquals("SENT", rowStatus.get());
+        assertEquals(List.of(1, 2), attempts);
+        verify(statusTransitionPublisher).statusChanged(any(Notification.class), eq("PENDING"));
+        verify(statusTransitionPublisher).statusChanged(argThat(sent -> "SENT".equals(sent.getStatus())), eq("FAILED"));
+    }
+
+    private static Notification notification(String id) {
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setType("EMAIL");
+        notification.setRecipient("user@example.com");
+        notification.setStatus("FAILED");
+        notification.setCreatedAt(LocalDateTime.now());
+        return notification;
+    }
+}
@@ -0,0 +1,152 @@
+package com.notificationservice.messaging;
+
+import com.notificationservice.entity.Notification;
+import com.notificationservice.exception.MessagePublishException;
+import com.notificationservice.service.MetricsService;
+import com.notificationservice.service.SpanRecorder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePostProcessor;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationPublisherTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private RecipientShardRouter shardRouter;
+
+    @Mock
+    private MetricsService metricsService;
+
+    @Mock
+    private SpanRecorder spanRecorder;
+
+    @InjectMocks
+    private NotificationPublisher notificationPublisher;
+
+    @Test
+    void publish_ShouldSetBrokerPriorityFromNotificationPriority() {
+        // Arrange
+        Notification notification = new Notification();
+        notification.setId("otp-1");
+        notification.setPriority("HIGH");
+
+        // Act
+        notificationPublisher.publish(notification);
+
+        // Assert
+        ArgumentCaptor<MessagePostProcessor> processor = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        verify(rabbitTemplate).convertAndSend(eq("notification.exchange"), eq("notification.routing.key"),
+                eq((Object) "otp-1"), processor.capture(), any(CorrelationData.class));
+
+        Message message = processor.getValue().postProcessMessage(new Message(new byte[0], new MessageProperties()));
+        assertEquals(NotificationPublisher.HIGH_PRIORITY, message.getMessageProperties().getPriority());
+        assertNotNull(message.getMessageProperties().getTimestamp());
+        TraceContext trace = TraceContext.read(message.getMessageProperties());
+        assertNotNull(trace);
+        assertEquals(message.getMessageProperties().getTimestamp().getTime(), trace.publishedAtMillis());
+    }
+
+    @Test
+    void publish_ShouldCompleteWhenBrokerConfirms() {
+        // Arrange
+        Notification notification = new Notification();
+        notification.setId("n-1");
+
+        // Act
+        CompletableFuture<Void> acknowledgement = notificationPublisher.publish(notification);
+
+        // Assert
+        ArgumentCaptor<CorrelationData> correlation = ArgumentCaptor.forClass(CorrelationData.class);
+        verify(rabbitTemplate).convertAndSend(eq("notification.exchange"), eq("notification.routing.key"),
+                eq((Object) "n-1"), any(MessagePostProcessor.class), correlation.capture());
+        assertEquals("n-1", correlation.getValue().getId());
+        assertFalse(acknowledgement.isDone());
+        assertEquals(1, notificationPublisher.getPendingConfirms());
+
+        correlation.getValue().getFuture().complete(new CorrelationData.Confirm(true, null));
+
+        assertTrue(acknowledgement.isDone());
+        assertFalse(acknowledgement.isCompletedExceptionally());
+        assertEquals(0, notificationPublisher.getPendingConfirms());
+    }
+
+    @Test
+    void publish_WhenBrokerNacks_ShouldFailAcknowledgement() {
+        // Arrange
+        Notification notification = new Notification();
+        notification.setId("n-2");
+
+        // Act
+        CompletableFuture<Void> acknowledgement = notificationPublisher.publish(notification);
+
+        // Assert
+        ArgumentCaptor<CorrelationData> correlation = ArgumentCaptor.forClass(CorrelationData.class);
+        verify(rabbitTemplate).convertAndSend(eq("notification.exchange"), eq("notification.routing.key"),
+                eq((Object) "n-2"), any(MessagePostProcessor.class), correlation.capture());
+        correlation.getValue().getFuture().complete(new CorrelationData.Confirm(false, "queue full"));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, acknowledgement::get);
+        assertInstanceOf(MessagePublishException.class, exception.getCause());
+    }
+
+    @Test
+    void publish_WithShardingEnabled_ShouldRouteByRecipient() {
+        // Arrange
+        Notification notification = new Notification();
+        notification.setId("n-3");
+        notification.setRecipient("user@example.com");
+        when(shardRouter.isEnabled()).thenReturn(true);
+        when(shardRouter.routingKeyFor("user@example.com")).thenReturn("notification.shard.3");
+
+        // Act
+        notificationPublisher.publish(notification);
+
+        // Assert
+        verify(rabbitTemplate).convertAndSend(eq("notification.shard.exchange"), eq("notification.shard.3"),
+                eq((Object) "n-3"), any(MessagePostProcessor.class), any(CorrelationData.class));
+    }
+
+    @Test
+    void toMessagePriority_ShouldDefaultToNormal() {
+        assertEquals(NotificationPublisher.NORMAL_PRIORITY, NotificationPublisher.toMessagePriority(null));
+        assertEquals(NotificationPublisher.NORMAL_PRIORITY, NotificationPublisher.toMessagePriority("NORMAL"));
+        assertEquals(NotificationPublisher.LOW_PRIORITY, NotificationPublisher.toMessagePriority("LOW"));
+    }
+
+    @Test
+    void deadLetter_ShouldSendIdToDeadLetterExchange() {
+        // Arrange
+        Notification notification = new Notification();
+        notification.setId("n-9");
+
+        // Act
+        notificationPublisher.deadLetter(notification);
+
+        // Assert
+        ArgumentCaptor<MessagePostProcessor> processor = ArgumentCaptor.forClass(MessagePostProcessor.class);
+        verify(rabbitTemplate).convertAndSend(eq("notification.dlq.exchange"), eq("notification.dlq.routing.key"),
+                eq((Object) "n-9"), processor.capture());
+        Message message = processor.getValue().postProcessMessage(new Message(new byte[0], new MessageProperties()));
+        assertTrue(TraceContext.read(message.getMessageProperties()).sampled());
+    }
+}
@@ -0,0 +1,90 @@
+package com.notificationservice.messaging;
+
+import com.notificationservice.entity.Notification;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationSnapshotCodecTest {
+
+    @Test
+    void encodeDecode_ShouldRoundTripAllFields() {
+        // Arrange
+        NotificationSnapshot snapshot = NotificationSnapshot.of(createNotification("Hello, world"));
+
+        // Act
+        NotificationSnapshot decoded = NotificationSnapshotCodec.decode(NotificationSnapshotCodec.encode(snapshot));
+
+        // Assert
+        assertEquals(snapshot, decoded);
+        assertNull(decoded.getTitle());
+        assertEquals(2, decoded.getAttempt());
+    }
+
+    @Test
+    void decode_ShouldCarryCampaignIdAndAcceptVersionOneBodies() {
+        // Arrange
+        Notification notification = createNotification("body");
+        notification.setCampaignId("campaign-1");
+        byte[] withCampaign = NotificationSnapshotCodec.encode(NotificationSnapshot.of(notification));
+        byte[] current = NotificationSnapshotCodec.encode(NotificationSnapshot.of(createNotification("body")));
+        // A version 1 body is the current layout without the trailing campaign field
+        byte[] versionOne = Arrays.copyOf(current, current.length - 1);
+        versionOne[0] = 1;
+
+        // Act & Assert
+        assertEquals("campaign-1", NotificationSnapshotCodec.decode(withCampaign).getCampaignId());
+        NotificationSnapshot legacy = NotificationSnapshotCodec.decode(versionOne);
+        assertEquals("n-1", legacy.getNotificationId());
+        assertEquals("body", legacy.getMessage());
+        assertNull(legacy.getCampaignId());
+    }
+
+    @Test
+    void encode_WithLargeBody_ShouldCompress() {
+        // Arrange
+        String body = "<p>Your weekly digest</p>".repeat(500);
+        NotificationSnapshot snapshot = NotificationSnapshot.of(createNotification(body));
+
+        // Act
+        byte[] encoded = NotificationSnapshotCodec.encode(snapshot);
+
+        // Assert
+        assertTrue(encoded.length < body.length() / 4, "large bodies should be deflated");
+        assertEquals(body, NotificationSnapshotCodec.decode(encoded).getMessage());
+    }
+
+    @Test
+    void readNotificationId_ShouldSupportSnapshotAndIdMessages() {
+        // Arrange
+        MessageConverter converter = new Jackson2JsonMessageConverter();
+        Message snapshotMessage = NotificationSnapshotCodec.toMessage(
+                NotificationSnapshot.of(createNotification("body")));
+        Message idMessage = converter.toMessage("n-1", null);
+
+        // Act & Assert
+        assertTrue(NotificationSnapshotCodec.isSnapshot(snapshotMessage));
+        assertEquals("n-1", NotificationSnapshotCodec.readNotificationId(snapshotMessage, converter));
+        assertFalse(NotificationSnapshotCodec.isSnapshot(idMessage));
+        assertEquals("n-1", NotificationSnapshotCodec.readNotificationId(idMessage, converter));
+    }
+
+    private Notification createNotification(String message) {
+        Notification notification = new Notification();
+        notification.setId("n-1");
+        notification.setType("EMAIL");
+        notification.setRecipient("user@example.com");
+        notification.setSubject("Subject");
+        notification.setMessage(message);
+        notification.setPriority("HIGH");
+        notification.setRetryCount(1);
+        notification.setCreatedAt(LocalDateTime.of(2024, 5, 1, 12, 0));
+        return notification;
+    }
+}
@@ -0,0 +1,48 @@
+package com.notificationservice.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipientShardRouterTest {
+
+    @Test
+    void shardFor_ShouldBeStableForSameRecipient() {
+        RecipientShardRouter router = new RecipientShardRouter(true, 8);
+
+        int shard = router.shardFor("user@example.com");
+
+        assertEquals(shard, router.shardFor("user@example.com"));
+        assertEquals("notification.shard." + shard, router.routingKeyFor("user@example.com"));
+    }
+
+    @Test
+    void shardFor_ShouldSpreadRecipientsAcrossShards() {
+        RecipientShardRouter router = new RecipientShardRouter(true, 8);
+        int[] counts = new int[8];
+
+        for (int i = 0; i < 8000; i++) {
+            counts[router.shardFor("user" + i + "@example.com")]++;
+        }
+
+        for (int count : counts) {
+            assertTrue(count > 500 && count < 1500, "unbalanced shard: " + count);
+        }
+    }
+
+    @Test
+    void shardFor_WhenAddingShard_ShouldMoveOnlyAFractionOfRecipients() {
+        RecipientShardRouter eight = new RecipientShardRouter(true, 8);
+        RecipientShardRouter nine = new RecipientShardRouter(true, 9);
+        int moved = 0;
+
+        for (int i = 0; i < 9000; i++) {
+            String recipient = "user" + i + "@example.com";
+            if (eight.shardFor(recipient) != nine.shardFor(recipient)) {
+                moved++;
+            }
+        }
+
+        assertTrue(moved < 2000, "too many recipients moved: " + moved);
+    }
+}
@@ -0,0 +1,50 @@
+package com.notificationservice.messaging;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.MessageProperties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceContextTest {
+
+    @Test
+    void writeTo_ShouldRoundTripThroughHeader() {
+        // Arrange
+        MessageProperties properties = new MessageProperties();
+        TraceContext trace = new TraceContext(1_760_000_000_123L, true);
+
+        // Act
+        trace.writeTo(properties);
+        TraceContext read = TraceContext.read(properties);
+
+        // Assert
+        assertEquals("1760000000123;1", properties.getHeader(TraceContext.HEADER));
+        assertEquals(trace, read);
+    }
+
+    @Test
+    void read_ShouldReturnNullWithoutValidHeader() {
+        // Arrange
+        MessageProperties missing = new MessageProperties();
+        MessageProperties malformed = new MessageProperties();
+        malformed.setHeader(TraceContext.HEADER, "not-a-trace");
+
+        // Act & Assert
+        assertNull(TraceContext.read(missing));
+        assertNull(TraceContext.read(malformed));
+    }
+
+    @Test
+    void read_ShouldParseUnsampledFlag() {
+        // Arrange
+        MessageProperties properties = new MessageProperties();
+        properties.setHeader(TraceContext.HEADER, "1760000000123;0");
+
+        // Act
+        TraceContext read = TraceContext.read(properties);
+
+        // Assert
+        assertNotNull(read);
+        assertFalse(read.sampled());
+    }
+}
@@ -0,0 +1,127 @@
+package com.notificationservice.service;
+
+import com.notificationservice.entity.NotificationRollup;
+import com.notificationservice.entity.NotificationRollup.Granularity;
+import com.notificationservice.repository.NotificationRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsRollupServiceTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 5, 1, 12, 34, 56);
+
+    @Mock
+    private NotificationRollupRepository rollupRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private AnalyticsRollupService analyticsRollupService;
+
+    @Test
+    void flush_ShouldMoveCountFromPreviousStatusInEveryGranularity() {
+        // Arrange
+        when(rollupRepository.addCount(any(), any(), anyString(), anyString(), anyString(), anyString(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(1);
+        analyticsRollupService.onStatusTransition(transition(null, null, "PENDING", null));
+        analyticsRollupService.onStatusTransition(transition(null, null, "PENDING", null));
+        analyticsRollupService.onStatusTransition(transition("PENDING", null, "SENT", "smtp"));
+
+        // Act
+        analyticsRollupService.flush();
+
+        // Assert
+        for (Granularity granularity : Granularity.values()) {
+            LocalDateTime bucket = AnalyticsRollupService.bucketStart(granularity, CREATED);
+            verify(rollupRepository).addCount(granularity, bucket, "EMAIL", "PENDING", "HIGH", "NONE", 1, 0, 0);
+            verify(rollupRepository).addCount(granularity, bucket, "EMAIL", "SENT", "HIGH", "smtp", 1, 0, 0);
+        }
+        verify(rollupRepository, times(6)).addCount(any(), any(), anyString(), anyString(), anyString(), anyString(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void flush_ForNewKey_ShouldInsertRow() {
+        // Arrange
+        analyticsRollupService.onStatusTransition(transition(null, null, "PENDING", null));
+
+        // Act
+        analyticsRollupService.flush();
+
+        // Assert
+        ArgumentCaptor<NotificationRollup> rows = ArgumentCaptor.forClass(NotificationRollup.class);
+        verify(rollupRepository, times(3)).save(rows.capture());
+        NotificationRollup day = rows.getAllValues().stream()
+                .filter(row -> row.getGranularity() == Granularity.DAY).findFirst().orElseThrow();
+        assertEquals(CREATED.toLocalDate().atStartOfDay(), day.getBucketStart());
+        assertEquals("PENDING", day.getStatus());
+        assertEquals(1, day.getCount());
+    }
+
+    @Test
+    void flush_WhenWriteFails_ShouldRetryDeltasOnNextFlush() {
+        // Arrange
+        when(rollupRepository.addCount(any(), any(), anyString(), anyString(), anyString(), anyString(), anyLong(), anyLong(), anyLong()))
+                .thenThrow(new RuntimeException("database unavailable"))
+                .thenReturn(1);
+        analyticsRollupService.onStatusTransition(transition("PENDING", null, "FAILED", "smtp"));
+
+        // Act
+        analyticsRollupService.flush();
+        analyticsRollupService.flush();
+        analyticsRollupService.flush();
+
+        // Assert: one failed attempt, then both keys in three granularities exactly once;
+        // which row failed depends on map iteration order
+        verify(rollupRepository, times(7)).addCount(any(), any(), anyString(), anyString(), anyString(), anyString(), anyLong(), anyLong(), anyLong());
+        List<List<Object>> retried = mockingDetails(rollupRepository).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("addCount"))
+                .skip(1)
+                .map(invocation -> List.of(invocation.getArguments()))
+                .toList();
+        assertEquals(6, new HashSet<>(retried).size());
+        assertTrue(retried.contains(List.of(Granularity.DAY, CREATED.toLocalDate().atStartOfDay(),
+                "EMAIL", "PENDING", "HIGH", "NONE", -1L, 0L, 0L)));
+    }
+
+    @Test
+    void flush_ForSentNotification_ShouldAddProcessingTimeToSentRows() {
+        // Arrange
+        when(rollupRepository.addCount(any(), any(), anyString(), anyString(), anyString(), anyString(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(1);
+        analyticsRollupService.onStatusTransition(transition("PENDING", null, "SENT", "smtp", 200L));
+        analyticsRollupService.onStatusTransition(transition("PENDING", null, "SENT", "smtp", 400L));
+
+        // Act
+        analyticsRollupService.flush();
+
+        // Assert
+        LocalDateTime day = CREATED.toLocalDate().atStartOfDay();
+        verify(rollupRepository).addCount(Granularity.DAY, day, "EMAIL", "SENT", "HIGH", "smtp", 2, 600, 2);
+        verify(rollupRepository).addCount(Granularity.DAY, day, "EMAIL", "PENDING", "HIGH", "NONE", -2, 0, 0);
+    }
+
+    private StatusTransition transition(String previousStatus, String previousProvider, String status, String provider) {
+        return transition(previousStatus, previousProvider, status, provider, null);
+    }
+
+    private StatusTransition transition(String previousStatus, String previousProvider, String status, String provider,
+                                        Long processingTime) {
+        return new StatusTransition("n-1", "EMAIL", "user@example.com", "HIGH", provider, null, previousStatus, previousProvider, status,
+                null, CREATED, processingTime, LocalDateTime.now(), 1);
+    }
+}
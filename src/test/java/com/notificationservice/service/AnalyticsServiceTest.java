@@ -0,0 +1,70 @@
+package com.notificationservice.service;
+
+import com.notificationservice.dto.NotificationStats;
+import com.notificationservice.entity.NotificationRollup.Granularity;
+import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.repository.NotificationRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsServiceTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private NotificationRollupRepository rollupRepository;
+
+    @Mock
+    private TopRecipientsService topRecipientsService;
+
+    @Mock
+    private FailureAnalyticsService failureAnalyticsService;
+
+    @Mock
+    private StatusCountsService statusCountsService;
+
+    @InjectMocks
+    private AnalyticsService analyticsService;
+
+    @Test
+    void getNotificationStats_ShouldAverageProcessingTimeOverRequestedDays() {
+        // Arrange
+        LocalDateTime start = LocalDate.of(2024, 5, 1).atStartOfDay();
+        LocalDateTime end = LocalDate.of(2024, 5, 3).atStartOfDay();
+        when(rollupRepository.sumByTypeAndStatus(Granularity.DAY, start, end))
+                .thenReturn(List.<Object[]>of(new Object[]{"EMAIL", "SENT", 4L}));
+        when(rollupRepository.sumProcessingTime(Granularity.DAY, start, end))
+                .thenReturn(List.<Object[]>of(new Object[]{1000L, 4L}));
+
+        // Act
+        NotificationStats stats = analyticsService.getNotificationStats(LocalDate.of(2024, 5, 1), LocalDate.of(2024, 5, 2));
+
+        // Assert
+        assertEquals(250L, stats.getAverageProcessingTimeMs());
+        assertEquals(4, stats.getTotalNotifications());
+        verifyNoInteractions(notificationRepository);
+    }
+
+    @Test
+    void getAverageProcessingTime_WithoutSentNotifications_ShouldBeZero() {
+        // Arrange
+        when(rollupRepository.sumProcessingTime(Granularity.DAY))
+                .thenReturn(Collections.singletonList(new Object[]{null, null}));
+
+        // Act & Assert
+        assertEquals(0.0, analyticsService.getAverageProcessingTime());
+    }
+}
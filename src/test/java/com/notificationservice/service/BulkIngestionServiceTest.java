@@ -0,0 +1,156 @@
+package com.notificationservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationservice.dto.BulkIngestionResult;
+import com.notificationservice.dto.EmailRequest;
+import com.notificationservice.entity.Notification;
+import com.notificationservice.messaging.NotificationDispatcher;
+import com.notificationservice.repository.NotificationRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkIngestionServiceTest {
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private NotificationDispatcher notificationDispatcher;
+
+    @Mock
+    private TemplateService templateService;
+
+    private BulkIngestionService bulkIngestionService;
+
+    @BeforeEach
+    void setUp() {
+        bulkIngestionService = new BulkIngestionService(new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                notificationService, notificationRepository, notificationDispatcher, templateService);
+        ReflectionTestUtils.setField(bulkIngestionService, "batchSize", 2);
+
+        lenient().when(notificationService.prepareEmailNotification(any(EmailRequest.class), any())).thenAnswer(invocation -> {
+            EmailRequest request = invocation.getArgument(0);
+            Notification notification = new Notification();
+            notification.setMessage(invocation.getArgument(1));
+            notification.setType("EMAIL");
+            notification.setRecipient(request.getTo());
+            notification.setPriority(request.getPriority().name());
+            return notification;
+        });
+        lenient().when(notificationRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(notificationDispatcher.publishAll(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkIngestionService.shutdown();
+    }
+
+    @Test
+    void ingest_ShouldPersistAndEnqueueInBatches() throws Exception {
+        // Arrange
+        InputStream input = ndjson(record("a@example.com"), record("b@example.com"),
+                record("c@example.com"), record("d@example.com"), record("e@example.com"));
+
+        // Act
+        BulkIngestionResult result = bulkIngestionService.ingest(input, EmailRequest.Priority.HIGH);
+
+        // Assert
+        assertEquals(5, result.getReceived());
+        assertEquals(5, result.getAccepted());
+        assertEquals(0, result.getRejected());
+        assertFalse(result.isTruncated());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> batches = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepository, times(3)).saveAll(batches.capture());
+        assertEquals(List.of(2, 2, 1), batches.getAllValues().stream().map(List::size).toList());
+        assertEquals("HIGH", batches.getAllValues().get(0).get(0).getPriority());
+        verify(notificationDispatcher, times(3)).publishAll(anyList());
+    }
+
+    @Test
+    void ingest_ShouldRejectInvalidRecordsAndContinue() throws Exception {
+        // Arrange
+        InputStream input = ndjson(record("a@example.com"), record("not-an-email"),
+                "{\"to\":\"b@example.com\",\"subject\":\"Hi\"}", "[1,2]",
+                "{\"to\":\"c@example.com\",\"subject\":\"Hi\",\"message\":\"Hello\",\"templateVariables\":5}",
+                record("d@example.com"));
+
+        // Act
+        BulkIngestionResult result = bulkIngestionService.ingest(input, EmailRequest.Priority.NORMAL);
+
+        // Assert
+        assertEquals(6, result.getReceived());
+        assertEquals(2, result.getAccepted());
+        assertEquals(4, result.getRejected());
+        assertEquals(4, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).startsWith("record 2: to "));
+    }
+
+    @Test
+    void ingest_WithMalformedJson_ShouldKeepAcceptedRecordsAndStop() throws Exception {
+        // Arrange
+        InputStream input = ndjson(record("a@example.com"), "{\"to\": oops", record("b@example.com"));
+
+        // Act
+        BulkIngestionResult result = bulkIngestionService.ingest(input, EmailRequest.Priority.NORMAL);
+
+        // Assert
+        assertTrue(result.isTruncated());
+        assertEquals(1, result.getAccepted());
+        assertTrue(result.getErrors().get(0).startsWith("line 2: malformed JSON"));
+        verify(notificationRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void ingest_WithMixedPriorities_ShouldKeepEachRecordsOwnPriority() throws Exception {
+        // Arrange
+        InputStream input = ndjson(
+                "{\"to\":\"a@example.com\",\"subject\":\"Hi\",\"message\":\"Hello\",\"priority\":\"HIGH\"}",
+                record("b@example.com"),
+                "{\"to\":\"c@example.com\",\"subject\":\"Hi\",\"message\":\"Hello\",\"priority\":\"LOW\"}",
+                "{\"to\":\"d@example.com\",\"subject\":\"Hi\",\"message\":\"Hello\",\"priority\":null}");
+
+        // Act
+        bulkIngestionService.ingest(input, EmailRequest.Priority.NORMAL);
+
+        // Assert
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> batches = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepository, times(2)).saveAll(batches.capture());
+        assertEquals(List.of("HIGH", "NORMAL", "LOW", "NORMAL"), batches.getAllValues().stream()
+                .flatMap(List::stream).map(Notification::getPriority).toList());
+    }
+
+    private static String record(String to) {
+        return "{\"to\":\"" + to + "\",\"subject\":\"Hi\",\"message\":\"Hello\"}";
+    }
+
+    private static InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,144 @@
+package com.notificationservice.service;
+
+import com.notificationservice.dto.BulkJobStatus;
+import com.notificationservice.entity.BulkJob;
+import com.notificationservice.repository.BulkJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkJobServiceTest {
+
+    @Mock
+    private BulkJobRepository bulkJobRepository;
+
+    @InjectMocks
+    private BulkJobService bulkJobService;
+
+    private BulkJob row;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(bulkJobRepository.save(any(BulkJob.class))).thenAnswer(invocation -> {
+            BulkJob job = invocation.getArgument(0);
+            job.setId("job-1");
+            row = job;
+            return job;
+        });
+        lenient().when(bulkJobRepository.findById("job-1")).thenAnswer(invocation -> Optional.ofNullable(row));
+    }
+
+    @Test
+    void getStatus_ShouldAddUnflushedTransitionsToStoredRow() {
+        // Arrange
+        bulkJobService.createJob("EMAIL", "NORMAL", 10, 2);
+        row.setSentCount(3);
+
+        // Act
+        bulkJobService.onStatusTransition(transition("job-1", "PENDING", "SENT"));
+        bulkJobService.onStatusTransition(transition("job-1", "PENDING", "FAILED"));
+        bulkJobService.onStatusTransition(transition(null, "PENDING", "SENT"));
+        BulkJobStatus status = bulkJobService.getStatus("job-1").orElseThrow();
+
+        // Assert
+        assertEquals("RUNNING", status.getStatus());
+        assertEquals(10, status.getAccepted());
+        assertEquals(2, status.getDuplicates());
+        assertEquals(4, status.getSent());
+        assertEquals(1, status.getFailed());
+        assertEquals(5, status.getPending());
+    }
+
+    @Test
+    void onStatusTransition_RetriedFailure_ShouldMoveFromFailedToSent() {
+        // Arrange
+        bulkJobService.createJob("EMAIL", "NORMAL", 1, 0);
+
+        // Act
+        bulkJobService.onStatusTransition(transition("job-1", "PENDING", "FAILED"));
+        bulkJobService.onStatusTransition(transition("job-1", "FAILED", "SENT"));
+        BulkJobStatus status = bulkJobService.getStatus("job-1").orElseThrow();
+
+        // Assert
+        assertEquals(1, status.getSent());
+        assertEquals(0, status.getFailed());
+        assertEquals(0, status.getPending());
+    }
+
+    @Test
+    void flush_ShouldAddDeltasOnceAndKeepThemOnFailure() {
+        // Arrange
+        bulkJobService.recordAccepted("job-1", 5);
+        bulkJobService.onStatusTransition(transition("job-1", "PENDING", "SENT"));
+        when(bulkJobRepository.addCounts("job-1", 5, 1, 0))
+                .thenThrow(new RuntimeException("database unavailable"))
+                .thenReturn(1);
+
+        // Act
+        bulkJobService.flush();
+        bulkJobService.flush();
+        bulkJobService.flush();
+
+        // Assert
+        verify(bulkJobRepository, times(2)).addCounts("job-1", 5, 1, 0);
+        verify(bulkJobRepository, times(2)).addCounts(anyString(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    void flush_ShouldDropEntryOnceItsDeltasAreWritten() {
+        // Arrange
+        bulkJobService.recordAccepted("job-1", 2);
+        bulkJobService.onStatusTransition(transition("job-1", "PENDING", "SENT"));
+        when(bulkJobRepository.addCounts("job-1", 2, 1, 0))
+                .thenThrow(new RuntimeException("database unavailable"))
+                .thenReturn(1);
+        Map<?, ?> deltas = (Map<?, ?>) ReflectionTestUtils.getField(bulkJobService, "deltas");
+
+        // Act & Assert
+        bulkJobService.flush();
+        assertTrue(deltas.containsKey("job-1"));
+
+        bulkJobService.flush();
+        assertTrue(deltas.isEmpty());
+
+        // a late retry of the finished campaign starts a fresh entry
+        bulkJobService.onStatusTransition(transition("job-1", "FAILED", "SENT"));
+        assertTrue(deltas.containsKey("job-1"));
+    }
+
+    @Test
+    void complete_ShouldWriteFinalStatusImmediately() {
+        // Act
+        bulkJobService.complete("job-1", "COMPLETED");
+
+        // Assert
+        verify(bulkJobRepository).finish(eq("job-1"), eq("COMPLETED"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void getStatus_ForUnknownJob_ShouldBeEmpty() {
+        // Arrange
+        when(bulkJobRepository.findById("missing")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertTrue(bulkJobService.getStatus("missing").isEmpty());
+    }
+
+    private StatusTransition transition(String campaignId, String previousStatus, String status) {
+        return new StatusTransition("n-1", "EMAIL", "user@example.com", "NORMAL", "smtp", campaignId, previousStatus, null, status,
+                null, LocalDateTime.now(), null, LocalDateTime.now(), 1);
+    }
+}
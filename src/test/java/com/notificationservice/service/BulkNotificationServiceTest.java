@@ -1,20 +1,34 @@
 package com.notificationservice.service;
 
 import com.notificationservice.dto.BulkEmailRequest;
+import com.notificationservice.dto.BulkJobStatus;
+import com.notificationservice.dto.BulkProcessingStats;
 import com.notificationservice.dto.EmailRequest;
-import com.notificationservice.dto.NotificationResponse;
+import com.notificationservice.entity.Notification;
+import com.notificationservice.repository.NotificationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class BulkNotificationServiceTest {
@@ -22,68 +36,242 @@ class BulkNotificationServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private MetricsService metricsService;
+
+    @Mock
+    private RetryBudgetService retryBudgetService;
+
+    @Mock
+    private BulkJobService bulkJobService;
+
+    @Mock
+    private CampaignCancellationService campaignCancellationService;
+
+    @Mock
+    private TemplateService templateService;
+
+    @Mock
+    private StatusTransitionPublisher statusTransitionPublisher;
+
     @InjectMocks
     private BulkNotificationService bulkNotificationService;
 
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bulkNotificationService, "chunkSize", 2);
+        bulkNotificationService.init();
+
+        lenient().when(notificationService.prepareEmailNotification(any(EmailRequest.class), any())).thenAnswer(invocation -> {
+            EmailRequest request = invocation.getArgument(0);
+            Notification notification = new Notification();
+            notification.setMessage(invocation.getArgument(1));
+            notification.setType("EMAIL");
+            notification.setRecipient(request.getTo());
+            notification.setPriority(request.getPriority().name());
+            return notification;
+        });
+        lenient().when(notificationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Notification> batch = invocation.getArgument(0);
+            batch.stream().filter(n -> n.getId() == null).forEach(n -> n.setId("id" + ids.incrementAndGet()));
+            return batch;
+        });
+        lenient().when(notificationRepository.markSent(anyString(), any(), any(), any())).thenReturn(1);
+        lenient().when(notificationRepository.markFailed(anyString(), any(), any(), any(), any())).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bulkNotificationService.shutdown();
+    }
+
     @Test
-    void sendBulkEmails_WithValidRequest_ShouldReturnResponses() {
+    void sendBulkEmails_WithValidRequest_ShouldReturnSummary() {
         // Arrange
-        EmailRequest emailRequest1 = new EmailRequest();
-        emailRequest1.setTo("test1@example.com");
-        emailRequest1.setSubject("Test 1");
-        emailRequest1.setMessage("Message 1");
+        BulkEmailRequest bulkRequest = new BulkEmailRequest();
+        bulkRequest.setEmails(List.of(createEmailRequest("test1@example.com"), createEmailRequest("test2@example.com"),
+                createEmailRequest("test3@example.com")));
+        bulkRequest.setPriority(BulkEmailRequest.Priority.HIGH);
+
+        // Act
+        BulkProcessingStats stats = bulkNotificationService.sendBulkEmails(bulkRequest);
 
-        EmailRequest emailRequest2 = new EmailRequest();
-        emailRequest2.setTo("test2@example.com");
-        emailRequest2.setSubject("Test 2");
-        emailRequest2.setMessage("Message 2");
+        // Assert
+        assertEquals(3, stats.getTotalProcessed());
+        assertEquals(3, stats.getSuccessCount());
+        assertEquals(0, stats.getFailureCount());
+        assertTrue(stats.getFailedIds().isEmpty());
+        assertEquals(100.0, stats.getSuccessRate());
+        assertNotNull(stats.getEndTime());
+        verify(notificationService, times(3)).deliver(argThat(n -> "HIGH".equals(n.getPriority())));
+        verify(metricsService).recordBulkNotificationProcessed("EMAIL", 3);
+    }
 
+    @Test
+    void sendBulkEmails_ShouldDedupeRecipientsAndPersistPerChunk() {
+        // Arrange
         BulkEmailRequest bulkRequest = new BulkEmailRequest();
-        bulkRequest.setEmails(List.of(emailRequest1, emailRequest2));
+        bulkRequest.setEmails(List.of(createEmailRequest("a@example.com"), createEmailRequest(" A@Example.com"),
+                createEmailRequest("b@example.com"), createEmailRequest("c@example.com")));
 
-        NotificationResponse response1 = NotificationResponse.success("id1", "EMAIL", "test1@example.com", "Test 1", "Success");
-        NotificationResponse response2 = NotificationResponse.success("id2", "EMAIL", "test2@example.com", "Test 2", "Success");
+        // Act
+        BulkProcessingStats stats = bulkNotificationService.sendBulkEmails(bulkRequest);
 
-        when(notificationService.sendEmail(any(EmailRequest.class)))
-                .thenReturn(response1)
-                .thenReturn(response2);
+        // Assert
+        assertEquals(1, stats.getDuplicateCount());
+        assertEquals(3, stats.getTotalProcessed());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> batches = ArgumentCaptor.forClass(List.class);
+        // one insert per chunk, then one guarded outcome update per notification
+        verify(notificationRepository, times(2)).saveAll(batches.capture());
+        assertEquals(List.of(2, 1), batches.getAllValues().stream().map(List::size).toList());
+        verify(notificationRepository, times(3)).markSent(anyString(), any(LocalDateTime.class), any(), any());
+        verify(statusTransitionPublisher, times(3)).statusChanged(any(Notification.class), eq("PENDING"));
+    }
+
+    @Test
+    void sendBulkEmails_WhenCancelledDuringSend_ShouldNotPublishOutcome() {
+        // Arrange
+        BulkEmailRequest bulkRequest = new BulkEmailRequest();
+        bulkRequest.setEmails(List.of(createEmailRequest("a@example.com"), createEmailRequest("b@example.com")));
+        // the cancel withdrew the rows while the chunk was sending
+        when(notificationRepository.markSent(anyString(), any(), any(), any())).thenReturn(0);
 
         // Act
-        List<NotificationResponse> responses = bulkNotificationService.sendBulkEmails(bulkRequest);
+        bulkNotificationService.sendBulkEmails(bulkRequest);
 
         // Assert
-        assertNotNull(responses);
-        assertEquals(2, responses.size());
-        assertEquals("id1", responses.get(0).getId());
-        assertEquals("id2", responses.get(1).getId());
+        verify(notificationRepository, times(1)).saveAll(anyList());
+        verify(statusTransitionPublisher, never()).statusChanged(any(Notification.class), anyString());
     }
 
     @Test
-    void sendBulkEmailsAsync_WithValidRequest_ShouldReturnCompletableFuture() {
+    void sendBulkEmails_WhenSendFails_ShouldReportFailedIds() {
         // Arrange
-        EmailRequest emailRequest = new EmailRequest();
-        emailRequest.setTo("test@example.com");
-        emailRequest.setSubject("Test");
-        emailRequest.setMessage("Message");
-
         BulkEmailRequest bulkRequest = new BulkEmailRequest();
-        bulkRequest.setEmails(List.of(emailRequest));
+        bulkRequest.setEmails(List.of(createEmailRequest("ok@example.com"), createEmailRequest("bounce@example.com")));
+        lenient().doThrow(new RuntimeException("SMTP error")).when(notificationService)
+                .deliver(argThat(n -> "bounce@example.com".equals(n.getRecipient())));
 
-        NotificationResponse response = NotificationResponse.success("id1", "EMAIL", "test@example.com", "Test", "Success");
-        CompletableFuture<NotificationResponse> future = CompletableFuture.completedFuture(response);
+        // Act
+        BulkProcessingStats stats = bulkNotificationService.sendBulkEmails(bulkRequest);
 
-        when(notificationService.sendEmailAsync(any(EmailRequest.class)))
-                .thenReturn(future);
+        // Assert
+        assertEquals(1, stats.getSuccessCount());
+        assertEquals(1, stats.getFailureCount());
+        assertEquals(List.of("id2"), stats.getFailedIds());
+        verify(metricsService).recordEmailFailed();
+        verify(notificationRepository).markFailed(eq("id2"), eq("SMTP error"), any(), any(), any());
+    }
+
+    @Test
+    void sendBulkEmailsAsync_WithValidRequest_ShouldReturnCompletableFuture() {
+        // Arrange
+        BulkEmailRequest bulkRequest = new BulkEmailRequest();
+        bulkRequest.setEmails(List.of(createEmailRequest("test@example.com")));
 
         // Act
-        CompletableFuture<List<NotificationResponse>> resultFuture = bulkNotificationService.sendBulkEmailsAsync(bulkRequest);
+        CompletableFuture<BulkProcessingStats> resultFuture = bulkNotificationService.sendBulkEmailsAsync(bulkRequest);
 
         // Assert
         assertNotNull(resultFuture);
         assertDoesNotThrow(() -> {
-            List<NotificationResponse> responses = resultFuture.get();
-            assertNotNull(responses);
-            assertEquals(1, responses.size());
+            BulkProcessingStats stats = resultFuture.get();
+            assertNotNull(stats);
+            assertEquals(1, stats.getSuccessCount());
         });
     }
+
+    @Test
+    void submitBulkEmails_ShouldReturnJobAndReportProgressInBackground() {
+        // Arrange
+        BulkEmailRequest bulkRequest = new BulkEmailRequest();
+        bulkRequest.setEmails(List.of(createEmailRequest("a@example.com"), createEmailRequest("a@example.com"),
+                createEmailRequest("b@example.com"), createEmailRequest("c@example.com")));
+        BulkJobStatus job = BulkJobStatus.builder().jobId("job-1").status("RUNNING").accepted(3).duplicates(1).build();
+        when(bulkJobService.createJob("EMAIL", "NORMAL", 3, 1)).thenReturn(job);
+
+        // Act
+        BulkJobStatus result = bulkNotificationService.submitBulkEmails(bulkRequest);
+
+        // Assert
+        assertEquals("job-1", result.getJobId());
+        verify(bulkJobService, timeout(5000)).complete("job-1", "COMPLETED");
+        verify(bulkJobService, never()).complete(anyString(), eq("FAILED"));
+        // progress is counted from the status transitions of notifications tagged with the job
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Notification>> batches = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepository, atLeastOnce()).saveAll(batches.capture());
+        assertTrue(batches.getAllValues().stream().flatMap(List::stream)
+                .allMatch(notification -> "job-1".equals(notification.getCampaignId())));
+    }
+
+    @Test
+    void sendBulkEmails_WithSharedTemplateVariables_ShouldRenderOncePerCombination() {
+        // Arrange
+        BulkEmailRequest bulkRequest = new BulkEmailRequest();
+        bulkRequest.setEmails(List.of(
+                createTemplatedRequest("a@example.com", Map.of("company", "Acme")),
+                createTemplatedRequest("b@example.com", Map.of("company", "Acme")),
+                createTemplatedRequest("c@example.com", Map.of("company", "Globex")),
+                createTemplatedRequest("d@example.com", Map.of("company", "Acme"))));
+        when(templateService.getTemplateVersion("welcome-template")).thenReturn("v1");
+        when(notificationService.renderMessage(any(EmailRequest.class)))
+                .thenAnswer(invocation -> "Welcome to " + ((EmailRequest) invocation.getArgument(0))
+                        .getTemplateVariables().get("company"));
+
+        // Act
+        BulkProcessingStats stats = bulkNotificationService.sendBulkEmails(bulkRequest);
+
+        // Assert
+        assertEquals(4, stats.getSuccessCount());
+        verify(notificationService, times(2)).renderMessage(any(EmailRequest.class));
+        verify(notificationService, times(3)).prepareEmailNotification(
+                argThat(r -> r.getTemplateVariables().get("company").equals("Acme")), eq("Welcome to Acme"));
+        verify(notificationService).prepareEmailNotification(
+                argThat(r -> r.getTemplateVariables().get("company").equals("Globex")), eq("Welcome to Globex"));
+    }
+
+    @Test
+    void sendBulkEmails_WhenTemplateFails_ShouldKeepEachFallbackMessage() {
+        // Arrange
+        EmailRequest first = createTemplatedRequest("a@example.com", Map.of("company", "Acme"));
+        first.setMessage("Hello Alice");
+        EmailRequest second = createTemplatedRequest("b@example.com", Map.of("company", "Acme"));
+        second.setMessage("Hello Bob");
+        BulkEmailRequest bulkRequest = new BulkEmailRequest();
+        bulkRequest.setEmails(List.of(first, second));
+        when(templateService.getTemplateVersion("welcome-template")).thenReturn("v1");
+        // The template cannot be processed, so renderMessage falls back to the request's message
+        when(notificationService.renderMessage(any(EmailRequest.class)))
+                .thenAnswer(invocation -> ((EmailRequest) invocation.getArgument(0)).getMessage());
+
+        // Act
+        bulkNotificationService.sendBulkEmails(bulkRequest);
+
+        // Assert
+        verify(notificationService).prepareEmailNotification(first, "Hello Alice");
+        verify(notificationService).prepareEmailNotification(second, "Hello Bob");
+    }
+
+    private EmailRequest createTemplatedRequest(String to, Map<String, Object> variables) {
+        EmailRequest emailRequest = createEmailRequest(to);
+        emailRequest.setTemplateId("welcome-template");
+        emailRequest.setTemplateVariables(variables);
+        return emailRequest;
+    }
+
+    private EmailRequest createEmailRequest(String to) {
+        EmailRequest emailRequest = new EmailRequest();
+        emailRequest.setTo(to);
+        emailRequest.setSubject("Test");
+        emailRequest.setMessage("Message");
+        return emailRequest;
+    }
 }
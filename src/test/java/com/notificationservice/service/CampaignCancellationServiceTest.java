@@ -0,0 +1,166 @@
+package com.notificationservice.service;
+
+import com.notificationservice.dto.BulkJobStatus;
+import com.notificationservice.entity.BulkJob;
+import com.notificationservice.repository.BulkJobRepository;
+import com.notificationservice.repository.NotificationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CampaignCancellationServiceTest {
+
+    @Mock
+    private BulkJobRepository bulkJobRepository;
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private BulkJobService bulkJobService;
+
+    @Mock
+    private StatusTransitionPublisher statusTransitionPublisher;
+
+    @InjectMocks
+    private CampaignCancellationService campaignCancellationService;
+
+    @Test
+    void cancel_ShouldWithdrawPendingNotificationsAndMarkCampaign() {
+        // Arrange
+        when(bulkJobRepository.findById("job-1")).thenReturn(Optional.of(createJob("RUNNING")));
+        LocalDateTime minute = LocalDateTime.of(2024, 1, 1, 10, 0);
+        when(notificationRepository.cancelPendingBatch(eq("job-1"), anyInt()))
+                .thenReturn(List.<Object[]>of(
+                        new Object[]{"EMAIL", "NORMAL", Timestamp.valueOf(minute), 30L},
+                        new Object[]{"EMAIL", "HIGH", Timestamp.valueOf(minute), 10L}))
+                .thenReturn(List.of());
+        BulkJobStatus status = BulkJobStatus.builder().jobId("job-1").status("CANCELLED").cancelled(40).build();
+        when(bulkJobService.getStatus("job-1")).thenReturn(Optional.of(status));
+
+        // Act
+        Optional<BulkJobStatus> result = campaignCancellationService.cancel("job-1");
+
+        // Assert
+        assertEquals(40, result.orElseThrow().getCancelled());
+        verify(bulkJobRepository).markCancelled(eq("job-1"), eq(0L), any(LocalDateTime.class));
+        verify(bulkJobRepository).addCancelled("job-1", 40);
+        // one aggregated PENDING -> CANCELLED transition per type, priority and minute
+        ArgumentCaptor<StatusTransition> transitions = ArgumentCaptor.forClass(StatusTransition.class);
+        verify(statusTransitionPublisher, times(2)).publish(transitions.capture());
+        StatusTransition normal = transitions.getAllValues().get(0);
+        assertEquals("NORMAL", normal.priority());
+        assertEquals("CANCELLED", normal.status());
+        assertEquals("PENDING", normal.previousStatus());
+        assertEquals(minute, normal.createdAt());
+        assertEquals(30, normal.count());
+        assertEquals(10, transitions.getAllValues().get(1).count());
+        assertTrue(campaignCancellationService.isCancelled("job-1"));
+        assertFalse(campaignCancellationService.isCancelled("job-2"));
+        assertFalse(campaignCancellationService.isCancelled(null));
+    }
+
+    @Test
+    void cancel_AlreadyCancelled_ShouldNotUpdateAgain() {
+        // Arrange
+        when(bulkJobRepository.findById("job-1")).thenReturn(Optional.of(createJob("CANCELLED")));
+        when(bulkJobService.getStatus("job-1")).thenReturn(Optional.of(BulkJobStatus.builder().jobId("job-1").build()));
+
+        // Act
+        campaignCancellationService.cancel("job-1");
+
+        // Assert
+        verify(notificationRepository, never()).cancelPendingBatch(any(), anyInt());
+        verify(bulkJobRepository, never()).markCancelled(any(), anyLong(), any());
+    }
+
+    @Test
+    void cancel_UnknownCampaign_ShouldBeEmpty() {
+        // Arrange
+        when(bulkJobRepository.findById("missing")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertTrue(campaignCancellationService.cancel("missing").isEmpty());
+        assertFalse(campaignCancellationService.isCancelled("missing"));
+    }
+
+    @Test
+    void refresh_ShouldPickUpCancelsFromOtherReplicas() {
+        // Arrange
+        when(bulkJobRepository.findCancelledSince(any(LocalDateTime.class)))
+                .thenReturn(List.of("job-7"))
+                .thenReturn(List.of());
+
+        // Act
+        campaignCancellationService.refresh();
+        campaignCancellationService.refresh();
+
+        // Assert
+        assertTrue(campaignCancellationService.isCancelled("job-7"));
+        verify(bulkJobRepository, times(2)).findCancelledSince(any(LocalDateTime.class));
+    }
+
+    @Test
+    void withdrawRemaining_ShouldCancelInBatchesUntilNothingIsPending() {
+        // Arrange
+        ReflectionTestUtils.setField(campaignCancellationService, "cancelBatchSize", 2);
+        Timestamp minute = Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 10, 0));
+        when(notificationRepository.cancelPendingBatch("job-1", 2))
+                .thenReturn(List.<Object[]>of(new Object[]{"SMS", "NORMAL", minute, 2L}))
+                .thenReturn(List.<Object[]>of(new Object[]{"SMS", "NORMAL", minute, 1L}))
+                .thenReturn(List.of());
+
+        // Act
+        campaignCancellationService.withdrawRemaining("job-1");
+
+        // Assert
+        verify(notificationRepository, times(3)).cancelPendingBatch("job-1", 2);
+        // every committed batch is counted on its own
+        verify(bulkJobRepository).addCancelled("job-1", 2);
+        verify(bulkJobRepository).addCancelled("job-1", 1);
+        verify(statusTransitionPublisher, times(2)).publish(any(StatusTransition.class));
+    }
+
+    @Test
+    void refresh_ShouldForgetCancelsOlderThanRetention() {
+        // Arrange
+        when(bulkJobRepository.findCancelledSince(any(LocalDateTime.class))).thenReturn(List.of());
+        @SuppressWarnings("unchecked")
+        Map<String, LocalDateTime> cancelled =
+                (Map<String, LocalDateTime>) ReflectionTestUtils.getField(campaignCancellationService, "cancelled");
+        cancelled.put("old-job", LocalDateTime.now().minusHours(73));
+        cancelled.put("recent-job", LocalDateTime.now().minusHours(1));
+
+        // Act
+        campaignCancellationService.refresh();
+
+        // Assert
+        assertFalse(campaignCancellationService.isCancelled("old-job"));
+        assertTrue(campaignCancellationService.isCancelled("recent-job"));
+    }
+
+    private BulkJob createJob(String status) {
+        BulkJob job = new BulkJob();
+        job.setId("job-1");
+        job.setType("EMAIL");
+        job.setStatus(status);
+        return job;
+    }
+}
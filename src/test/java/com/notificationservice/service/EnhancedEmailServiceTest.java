@@ -28,7 +28,8 @@ class EnhancedEmailServiceTest {
 
     @BeforeEach
     void setUp() {
-        enhancedEmailService = new EnhancedEmailService(emailProviderRepository, circuitBreakerRegistry);
+        enhancedEmailService = new EnhancedEmailService(emailProviderRepository, circuitBreakerRegistry,
+                new RetryBudgetService());
     }
 
     @Test
@@ -0,0 +1,95 @@
+package com.notificationservice.service;
+
+import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.utils.ErrorFingerprint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FailureAnalyticsServiceTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    private FailureAnalyticsService failureAnalyticsService;
+
+    @BeforeEach
+    void setUp() {
+        failureAnalyticsService = new FailureAnalyticsService(notificationRepository);
+    }
+
+    @Test
+    void getLiveCounts_ShouldGroupFailuresByFingerprint() {
+        // Arrange
+        fail("Connection refused: 10.0.0.1:25");
+        fail("Connection refused: 10.0.0.2:25");
+        fail("Read timed out after 5000 ms");
+        transition("SENT", null);
+
+        // Act
+        Map<String, Long> counts = failureAnalyticsService.getLiveCounts();
+
+        // Assert
+        assertEquals(List.of("CONNECTION: Connection refused: <ip>", "TIMEOUT: Read timed out after <n> ms"),
+                List.copyOf(counts.keySet()));
+        assertEquals(2L, counts.get("CONNECTION: Connection refused: <ip>"));
+        verifyNoInteractions(notificationRepository);
+    }
+
+    @Test
+    void onStatusTransition_ShouldCountOverflowAsOther() {
+        // Arrange
+        ReflectionTestUtils.setField(failureAnalyticsService, "maxFingerprints", 1);
+        fail("Connection refused");
+        fail("Read timed out");
+        fail("Unsupported notification type");
+
+        // Act
+        Map<String, Long> counts = failureAnalyticsService.getLiveCounts();
+
+        // Assert
+        assertEquals(1L, counts.get("CONNECTION: Connection refused"));
+        assertEquals(2L, counts.get(FailureAnalyticsService.OTHER + ": fingerprints over the tracking limit"));
+    }
+
+    @Test
+    void describe_ShouldLoadTemplateOnceForUnknownFingerprint() {
+        // Arrange
+        String message = "Rate limit exceeded, retry in 30 s";
+        String fingerprint = ErrorFingerprint.of(message).fingerprint();
+        when(notificationRepository.findErrorMessagesByFingerprint(eq(fingerprint), any(Pageable.class)))
+                .thenReturn(List.of(message));
+
+        // Act
+        String first = failureAnalyticsService.describe("RATE_LIMITED", fingerprint);
+        String second = failureAnalyticsService.describe("RATE_LIMITED", fingerprint);
+
+        // Assert
+        assertEquals("RATE_LIMITED: Rate limit exceeded, retry in <n> s", first);
+        assertEquals(first, second);
+        verify(notificationRepository, times(1)).findErrorMessagesByFingerprint(eq(fingerprint), any(Pageable.class));
+    }
+
+    private void fail(String errorMessage) {
+        transition("FAILED", errorMessage);
+    }
+
+    private void transition(String status, String errorMessage) {
+        failureAnalyticsService.onStatusTransition(new StatusTransition("id", "EMAIL", "user@example.com", "NORMAL",
+                "smtp", null, "PENDING", null, status, errorMessage, LocalDateTime.now(), null,
+                LocalDateTime.now(), 1));
+    }
+}
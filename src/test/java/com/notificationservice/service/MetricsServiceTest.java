@@ -1,10 +1,13 @@
 package com.notificationservice.service;
 
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDateTime;
 import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -174,4 +177,43 @@ class MetricsServiceTest {
         assertEquals(2.0, count);
         assertEquals(1, metricsService.getCacheSize());
     }
+
+    @Test
+    void onStatusTransition_ShouldRecordDeliveryLatencyForSentNotifications() {
+        // When
+        metricsService.onStatusTransition(transition("SENT", 1200L));
+        metricsService.onStatusTransition(transition("SENT", 800L));
+        metricsService.onStatusTransition(transition("FAILED", null));
+
+        // Then
+        Timer timer = meterRegistry.get("notification.delivery.latency")
+                .tags("type", "EMAIL", "priority", "HIGH", "provider", "smtp")
+                .timer();
+        assertEquals(2, timer.count());
+        assertEquals(2000.0, timer.totalTime(TimeUnit.MILLISECONDS), 0.001);
+
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        assertEquals(3, snapshot.percentileValues().length);
+        assertEquals(MetricsService.DELIVERY_LATENCY_SLOS.length, snapshot.histogramCounts().length);
+    }
+
+    private StatusTransition transition(String status, Long processingTime) {
+        LocalDateTime now = LocalDateTime.now();
+        return new StatusTransition("n-1", "EMAIL", "user@example.com", "HIGH", "smtp", null, "PENDING", null,
+                status, null, now, processingTime, now, 1);
+    }
+
+    @Test
+    void recordStage_ShouldRecordIntoPerStageTimer() {
+        // When
+        metricsService.recordStage(PipelineStage.DB_FETCH, System.nanoTime());
+        metricsService.recordStage(PipelineStage.BROKER_DWELL, 40, TimeUnit.MILLISECONDS);
+        metricsService.recordStage(PipelineStage.BROKER_DWELL, 60, TimeUnit.MILLISECONDS);
+
+        // Then
+        assertEquals(1, meterRegistry.get(MetricsService.STAGE_TIMER).tag("stage", "db_fetch").timer().count());
+        Timer dwell = meterRegistry.get(MetricsService.STAGE_TIMER).tag("stage", "broker_dwell").timer();
+        assertEquals(2, dwell.count());
+        assertEquals(100.0, dwell.totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
 }
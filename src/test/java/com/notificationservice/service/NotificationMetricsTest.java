@@ -32,9 +32,15 @@ class NotificationMetricsTest {
     @Mock
     private MetricsService metricsService;
 
+    @Mock
+    private RetryBudgetService retryBudgetService;
+
     @Mock
     private TemplateService templateService;
 
+    @Mock
+    private SpanRecorder spanRecorder;
+
     @InjectMocks
     private NotificationService notificationService;
 
@@ -40,6 +40,12 @@ class NotificationServiceComprehensiveTest {
     @Mock
     private MetricsService metricsService;
 
+    @Mock
+    private RetryBudgetService retryBudgetService;
+
+    @Mock
+    private SpanRecorder spanRecorder;
+
     @InjectMocks
     private NotificationService notificationService;
 
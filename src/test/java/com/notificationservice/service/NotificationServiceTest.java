@@ -27,9 +27,15 @@ class NotificationServiceTest {
     @Mock
     private MetricsService metricsService;
 
+    @Mock
+    private RetryBudgetService retryBudgetService;
+
     @Mock
     private TemplateService templateService;
 
+    @Mock
+    private SpanRecorder spanRecorder;
+
     @InjectMocks
     private NotificationService notificationService;
 
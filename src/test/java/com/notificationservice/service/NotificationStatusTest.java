@@ -29,9 +29,15 @@ class NotificationStatusTest {
     @Mock
     private MetricsService metricsService;
 
+    @Mock
+    private RetryBudgetService retryBudgetService;
+
     @Mock
     private TemplateService templateService;
 
+    @Mock
+    private SpanRecorder spanRecorder;
+
     @InjectMocks
     private NotificationService notificationService;
 
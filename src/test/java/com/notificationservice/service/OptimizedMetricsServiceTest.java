@@ -83,4 +83,18 @@ class OptimizedMetricsServiceTest {
         long count = meterRegistry.find("notification.email.processing.time").timer().count();
         assertEquals(1, count);
     }
+
+    @Test
+    void recordUnknownValues_ShouldFoldIntoOtherOnceFallbackIsFull() {
+        // When
+        for (int i = 0; i < MetricsService.MAX_FALLBACK_METERS + 10; i++) {
+            metricsService.recordNotificationStatus("SMS", "STATUS_" + i);
+        }
+
+        // Then
+        assertEquals(1.0, meterRegistry.counter("notification.status", "type", "SMS", "status", "STATUS_0").count());
+        assertEquals(10.0, meterRegistry.counter("notification.status",
+                "type", MetricsService.OTHER, "status", MetricsService.OTHER).count());
+        assertEquals(MetricsService.MAX_FALLBACK_METERS + 1, metricsService.getCacheSize());
+    }
 }
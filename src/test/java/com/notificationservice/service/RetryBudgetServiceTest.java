@@ -0,0 +1,53 @@
+package com.notificationservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryBudgetServiceTest {
+
+    private RetryBudgetService retryBudgetService;
+
+    @BeforeEach
+    void setUp() {
+        retryBudgetService = new RetryBudgetService();
+        ReflectionTestUtils.setField(retryBudgetService, "ratio", 0.5);
+        ReflectionTestUtils.setField(retryBudgetService, "minPerSecond", 0.0);
+        ReflectionTestUtils.setField(retryBudgetService, "maxTokens", 2.0);
+    }
+
+    @Test
+    void tryAcquire_ShouldDenyRetriesOnceBudgetIsSpent() {
+        assertTrue(retryBudgetService.tryAcquire("EMAIL", null));
+        assertTrue(retryBudgetService.tryAcquire("EMAIL", null));
+
+        assertFalse(retryBudgetService.tryAcquire("EMAIL", null));
+    }
+
+    @Test
+    void recordSuccess_ShouldRefillBudgetProportionally() {
+        retryBudgetService.tryAcquire("EMAIL", null);
+        retryBudgetService.tryAcquire("EMAIL", null);
+
+        retryBudgetService.recordSuccess("EMAIL", null);
+        assertFalse(retryBudgetService.tryAcquire("EMAIL", null));
+
+        retryBudgetService.recordSuccess("EMAIL", null);
+        assertTrue(retryBudgetService.tryAcquire("EMAIL", null));
+    }
+
+    @Test
+    void tryAcquire_WhenProviderExhausted_ShouldNotChargeOtherBuckets() {
+        assertTrue(retryBudgetService.tryAcquire(null, "smtp-a"));
+        assertTrue(retryBudgetService.tryAcquire(null, "smtp-a"));
+        retryBudgetService.recordSuccess("EMAIL", null);
+        retryBudgetService.recordSuccess("EMAIL", null);
+
+        assertFalse(retryBudgetService.tryAcquire("EMAIL", "smtp-a"));
+
+        assertEquals(1.0, retryBudgetService.getAvailableTokens().get(RetryBudgetService.ANY), 0.001);
+        assertTrue(retryBudgetService.tryAcquire("EMAIL", "smtp-b"));
+    }
+}
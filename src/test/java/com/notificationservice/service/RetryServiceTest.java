@@ -1,13 +1,16 @@
 package com.notificationservice.service;
 
 import com.notificationservice.entity.Notification;
+import com.notificationservice.messaging.NotificationDispatcher;
 import com.notificationservice.repository.NotificationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -25,14 +28,36 @@ class RetryServiceTest {
     private NotificationRepository notificationRepository;
 
     @Mock
-    private RabbitTemplate rabbitTemplate;
+    private NotificationService notificationService;
 
     @Mock
-    private NotificationService notificationService;
+    private RetryBudgetService retryBudgetService;
+
+    @Mock
+    private MetricsService metricsService;
+
+    @Mock
+    private NotificationDispatcher notificationDispatcher;
+
+    @Mock
+    private CampaignCancellationService campaignCancellationService;
+
+    @Mock
+    private SpanRecorder spanRecorder;
 
     @InjectMocks
     private RetryService retryService;
 
+    @BeforeEach
+    void setUp() {
+        retryService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        retryService.shutdown();
+    }
+
     @Test
     void retryFailedNotification_WithValidNotification_ShouldProcessSuccessfully() {
         // Arrange
@@ -52,6 +77,24 @@ class RetryServiceTest {
         verify(notificationRepository, atLeastOnce()).findById(notificationId);
     }
 
+    @Test
+    void retryFailedNotification_OfCancelledCampaign_ShouldNotRetry() {
+        // Arrange
+        Notification notification = new Notification();
+        notification.setId("test-id");
+        notification.setStatus("FAILED");
+        notification.setCampaignId("campaign-1");
+        when(notificationRepository.findById("test-id")).thenReturn(Optional.of(notification));
+        when(campaignCancellationService.isCancelled("campaign-1")).thenReturn(true);
+
+        // Act
+        retryService.retryFailedNotification("test-id");
+
+        // Assert
+        verifyNoInteractions(retryBudgetService, notificationDispatcher);
+        verify(notificationRepository, never()).save(any());
+    }
+
     @Test
     void getNotificationsForRetry_ShouldReturnFailedNotifications() {
         // Arrange
@@ -100,8 +143,10 @@ class RetryServiceTest {
         // Act
         retryService.retryFailedNotification(notificationId);
 
-        // Assert - should not throw exception
-        verify(notificationRepository, atLeastOnce()).findById(notificationId);
+        // Assert
+        assertEquals("FAILED_PERMANENTLY", notification.getStatus());
+        verify(notificationRepository).save(notification);
+        verify(notificationDispatcher).deadLetter(notification);
     }
 
     @Test
@@ -130,15 +175,84 @@ class RetryServiceTest {
 
         when(notificationRepository.findByStatusAndCreatedAtBefore(anyString(), any(LocalDateTime.class)))
                 .thenReturn(List.of(stuckNotification));
+        when(retryBudgetService.tryAcquire(any(), any())).thenReturn(true);
 
         // Act
         retryService.retryStuckNotifications();
 
         // Assert
-        verify(rabbitTemplate, times(1)).convertAndSend(
-                eq("notification.exchange"),
-                eq("notification.routing.key"),
-                eq("stuck-1")
-        );
+        verify(notificationDispatcher, times(1)).publish(stuckNotification);
+    }
+
+    @Test
+    void retryFailedNotification_WhenBudgetExhausted_ShouldDeferRetry() {
+        // Arrange
+        String notificationId = "test-id";
+        Notification notification = new Notification();
+        notification.setId(notificationId);
+        notification.setType("EMAIL");
+        notification.setStatus("FAILED");
+        notification.setRetryCount(1);
+
+        when(notificationRepository.findById(notificationId))
+                .thenReturn(Optional.of(notification));
+        when(retryBudgetService.tryAcquire("EMAIL", null)).thenReturn(false);
+        ReflectionTestUtils.setField(retryService, "maxRetryAttempts", 3);
+        ReflectionTestUtils.setField(retryService, "maxDeferred", 100);
+
+        // Act
+        retryService.retryFailedNotification(notificationId);
+
+        // Assert
+        verify(notificationService, never()).processNotification(anyString());
+        verify(metricsService).recordRetryDeferred("EMAIL");
+        assertEquals(1, retryService.getDeferredRetryCount());
+    }
+
+    @Test
+    void retryDeferredNotifications_WhenBudgetRefilled_ShouldReleaseDeferredRetry() {
+        // Arrange
+        String notificationId = "test-id";
+        Notification notification = new Notification();
+        notification.setId(notificationId);
+        notification.setType("EMAIL");
+        notification.setStatus("FAILED");
+        notification.setRetryCount(1);
+
+        when(notificationRepository.findById(notificationId))
+                .thenReturn(Optional.of(notification));
+        when(retryBudgetService.tryAcquire("EMAIL", null)).thenReturn(false, true);
+        ReflectionTestUtils.setField(retryService, "maxRetryAttempts", 3);
+        ReflectionTestUtils.setField(retryService, "maxDeferred", 100);
+        retryService.retryFailedNotification(notificationId);
+
+        // Act
+        retryService.retryDeferredNotifications();
+
+        // Assert
+        verify(notificationService, timeout(1000).times(1)).processNotification(notificationId);
+        assertEquals(0, retryService.getDeferredRetryCount());
+    }
+
+    @Test
+    void retryDeferredNotifications_ShouldReleaseAtMostOneBatchPerTick() {
+        // Arrange
+        ReflectionTestUtils.setField(retryService, "maxDeferred", 100);
+        ReflectionTestUtils.setField(retryService, "drainBatchSize", 2);
+        for (int i = 0; i < 5; i++) {
+            Notification notification = new Notification();
+            notification.setId("deferred-" + i);
+            notification.setType("EMAIL");
+            lenient().when(notificationRepository.findById("deferred-" + i)).thenReturn(Optional.of(notification));
+            retryService.deferRetry("deferred-" + i, "EMAIL");
+        }
+        when(retryBudgetService.tryAcquire("EMAIL", null)).thenReturn(true);
+
+        // Act
+        retryService.retryDeferredNotifications();
+
+        // Assert
+        verify(notificationService, timeout(1000).times(2)).processNotification(anyString());
+        assertEquals(3, retryService.getDeferredRetryCount());
     }
 }
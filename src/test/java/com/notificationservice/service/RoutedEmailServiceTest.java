@@ -24,6 +24,9 @@ class RoutedEmailServiceTest {
     @Mock
     private MetricsService metricsService;
 
+    @Mock
+    private RetryBudgetService retryBudgetService;
+
     @InjectMocks
     private RoutedEmailService routedEmailService;
 
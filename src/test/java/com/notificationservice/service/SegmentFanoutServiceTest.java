@@ -0,0 +1,155 @@
+package com.notificationservice.service;
+
+import com.notificationservice.dto.BulkJobStatus;
+import com.notificationservice.dto.SegmentSendRequest;
+import com.notificationservice.entity.Notification;
+import com.notificationservice.entity.User;
+import com.notificationservice.exception.NotificationException;
+import com.notificationservice.messaging.NotificationDispatcher;
+import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SegmentFanoutServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private NotificationDispatcher notificationDispatcher;
+
+    @Mock
+    private BulkJobService bulkJobService;
+
+    @Mock
+    private CampaignCancellationService campaignCancellationService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SegmentFanoutService segmentFanoutService;
+
+    private final List<List<Notification>> savedBatches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(segmentFanoutService, "batchSize", 2);
+        ReflectionTestUtils.setField(segmentFanoutService, "ratePerSecond", 1_000_000);
+
+        lenient().when(bulkJobService.createJob(anyString(), anyString(), anyLong(), anyLong()))
+                .thenReturn(BulkJobStatus.builder().jobId("job-1").status("RUNNING").build());
+        lenient().when(notificationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Notification> batch = new ArrayList<>(invocation.getArgument(0));
+            savedBatches.add(batch);
+            return batch;
+        });
+        lenient().when(notificationDispatcher.publishAll(anyList())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    @AfterEach
+    void tearDown() {
+        segmentFanoutService.shutdown();
+    }
+
+    @Test
+    void submit_ShouldExpandSegmentInBatchesAndTrackJob() {
+        // Arrange
+        when(userRepository.streamPushRecipients(User.Platform.IOS)).thenReturn(Stream.of("u1", "u2", "u3", "u4", "u5"));
+        SegmentSendRequest request = new SegmentSendRequest();
+        request.setChannel(SegmentSendRequest.Channel.PUSH);
+        request.setPlatform("IOS");
+        request.setTitle("Sale");
+        request.setMessage("50% off today");
+
+        // Act
+        BulkJobStatus job = segmentFanoutService.submit(request);
+
+        // Assert
+        assertEquals("job-1", job.getJobId());
+        verify(bulkJobService, timeout(5000)).complete("job-1", "COMPLETED");
+        assertEquals(List.of(2, 2, 1), savedBatches.stream().map(List::size).toList());
+        Notification first = savedBatches.get(0).get(0);
+        assertEquals("PUSH", first.getType());
+        assertEquals("u1", first.getRecipient());
+        assertEquals("Sale", first.getTitle());
+        assertEquals("PENDING", first.getStatus());
+        verify(notificationDispatcher, times(3)).publishAll(anyList());
+
+        ArgumentCaptor<Integer> accepted = ArgumentCaptor.forClass(Integer.class);
+        verify(bulkJobService, times(3)).recordAccepted(eq("job-1"), accepted.capture());
+        assertEquals(5, accepted.getAllValues().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void submit_WhenCancelled_ShouldStopAfterCurrentBatch() {
+        // Arrange
+        when(userRepository.streamEmailRecipients()).thenReturn(Stream.of("a@x.com", "b@x.com", "c@x.com", "d@x.com"));
+        when(campaignCancellationService.isCancelled("job-1")).thenAnswer(invocation -> !savedBatches.isEmpty());
+        SegmentSendRequest request = new SegmentSendRequest();
+        request.setChannel(SegmentSendRequest.Channel.EMAIL);
+        request.setSubject("News");
+        request.setMessage("Hello");
+
+        // Act
+        segmentFanoutService.submit(request);
+
+        // Assert
+        verify(campaignCancellationService, timeout(5000)).withdrawRemaining("job-1");
+        assertEquals(1, savedBatches.size());
+        assertEquals("job-1", savedBatches.get(0).get(0).getCampaignId());
+        verify(bulkJobService, never()).complete(eq("job-1"), anyString());
+    }
+
+    @Test
+    void submit_WhenCursorFails_ShouldMarkJobFailed() {
+        // Arrange
+        when(userRepository.streamEmailRecipients()).thenThrow(new IllegalStateException("connection lost"));
+        SegmentSendRequest request = new SegmentSendRequest();
+        request.setChannel(SegmentSendRequest.Channel.EMAIL);
+        request.setSubject("News");
+        request.setMessage("Hello");
+
+        // Act
+        segmentFanoutService.submit(request);
+
+        // Assert
+        verify(bulkJobService, timeout(5000)).complete("job-1", "FAILED");
+    }
+
+    @Test
+    void submit_EmailWithoutSubject_ShouldBeRejected() {
+        // Arrange
+        SegmentSendRequest request = new SegmentSendRequest();
+        request.setChannel(SegmentSendRequest.Channel.EMAIL);
+        request.setMessage("Hello");
+
+        // Act & Assert
+        assertThrows(NotificationException.class, () -> segmentFanoutService.submit(request));
+        verifyNoInteractions(bulkJobService);
+    }
+}
@@ -0,0 +1,98 @@
+package com.notificationservice.service;
+
+import com.notificationservice.service.SpaceSavingSketch.Estimate;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    void top_ShouldFindHeavyHittersWithinErrorBound() {
+        // Arrange
+        SpaceSavingSketch sketch = new SpaceSavingSketch(50);
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            sketch.offer("user" + random.nextInt(5_000) + "@example.com");
+            if (i % 10 == 0) {
+                sketch.offer("heavy@example.com");
+            }
+            if (i % 20 == 0) {
+                sketch.offer("second@example.com");
+            }
+        }
+
+        // Act
+        List<Estimate> top = sketch.top(2);
+
+        // Assert
+        assertEquals("heavy@example.com", top.get(0).item());
+        assertEquals("second@example.com", top.get(1).item());
+        long maxError = sketch.getTotal() / sketch.getCapacity();
+        assertTrue(top.get(0).count() >= 2_000 && top.get(0).count() - top.get(0).error() <= 2_000);
+        assertTrue(top.get(0).error() <= maxError);
+    }
+
+    @Test
+    void merge_ShouldAddCountsOfTrackedItems() {
+        // Arrange
+        SpaceSavingSketch first = new SpaceSavingSketch(10);
+        SpaceSavingSketch second = new SpaceSavingSketch(10);
+        offer(first, "a@example.com", 5);
+        offer(first, "b@example.com", 2);
+        offer(second, "a@example.com", 3);
+        offer(second, "c@example.com", 4);
+
+        // Act
+        SpaceSavingSketch merged = SpaceSavingSketch.merge(10, List.of(first, second));
+
+        // Assert
+        assertEquals(List.of(
+                new Estimate("a@example.com", 8, 0),
+                new Estimate("c@example.com", 4, 0),
+                new Estimate("b@example.com", 2, 0)), merged.top(3));
+        assertEquals(14, merged.getTotal());
+    }
+
+    @Test
+    void merge_WithFullSketch_ShouldChargeItsMinimumToMissingItems() {
+        // Arrange
+        SpaceSavingSketch full = new SpaceSavingSketch(2);
+        offer(full, "a@example.com", 5);
+        offer(full, "b@example.com", 3);
+        SpaceSavingSketch other = new SpaceSavingSketch(2);
+        offer(other, "c@example.com", 4);
+
+        // Act
+        SpaceSavingSketch merged = SpaceSavingSketch.merge(2, List.of(full, other));
+
+        // Assert: c may have been evicted from the full sketch with up to 3 sends
+        assertEquals(List.of(
+                new Estimate("c@example.com", 7, 3),
+                new Estimate("a@example.com", 5, 0)), merged.top(2));
+    }
+
+    @Test
+    void restore_ShouldRoundTripEstimates() {
+        // Arrange
+        SpaceSavingSketch sketch = new SpaceSavingSketch(3);
+        offer(sketch, "a@example.com", 3);
+        offer(sketch, "b@example.com", 1);
+
+        // Act
+        SpaceSavingSketch restored = SpaceSavingSketch.restore(3, sketch.getTotal(), sketch.estimates());
+
+        // Assert
+        assertEquals(sketch.estimates(), restored.estimates());
+        assertEquals(4, restored.getTotal());
+    }
+
+    private void offer(SpaceSavingSketch sketch, String item, int times) {
+        for (int i = 0; i < times; i++) {
+            sketch.offer(item);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.notificationservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpanRecorderTest {
+
+    private SpanRecorder spanRecorder;
+
+    @BeforeEach
+    void setUp() {
+        spanRecorder = recorder(100.0, 8);
+    }
+
+    @Test
+    void end_ShouldWriteStagesOfSampledNotification() {
+        // Arrange
+        assertTrue(spanRecorder.begin("n-1"));
+
+        // Act
+        SpanRecorder.recordStage(PipelineStage.DB_FETCH, TimeUnit.MILLISECONDS.toNanos(3));
+        SpanRecorder.recordStage(PipelineStage.SMTP_DATA, TimeUnit.MILLISECONDS.toNanos(40));
+        spanRecorder.end();
+
+        // Assert
+        List<SpanRecorder.Span> spans = spanRecorder.getSpans("n-1", 10);
+        assertEquals(2, spans.size());
+        assertEquals("smtp_data", spans.get(0).stage());
+        assertEquals(40_000, spans.get(0).durationMicros());
+        assertEquals("db_fetch", spans.get(1).stage());
+    }
+
+    @Test
+    void end_ShouldDropUnsampledNotificationUnlessItFailed() {
+        // Arrange
+        spanRecorder = recorder(0.0, 8);
+
+        // Act
+        spanRecorder.begin("ok");
+        SpanRecorder.recordStage(PipelineStage.DB_FETCH, 1_000);
+        spanRecorder.end();
+
+        spanRecorder.begin("broken");
+        SpanRecorder.recordStage(PipelineStage.DB_FETCH, 1_000);
+        spanRecorder.fail("Connection refused");
+        spanRecorder.end();
+
+        // Assert
+        assertTrue(spanRecorder.getSpans("ok", 10).isEmpty());
+        List<SpanRecorder.Span> failed = spanRecorder.getSpans("broken", 10);
+        assertEquals(2, failed.size());
+        assertEquals(SpanRecorder.FAILURE_STAGE, failed.get(0).stage());
+        assertEquals("Connection refused", failed.get(0).error());
+    }
+
+    @Test
+    void begin_ShouldKeepTraceSampledByPublishingNode() {
+        // Arrange
+        spanRecorder = recorder(0.0, 8);
+        ReflectionTestUtils.setField(spanRecorder, "node", "consumer-1");
+
+        // Act
+        spanRecorder.begin("n-1", true);
+        boolean sampled = spanRecorder.isTraceSampled("n-1");
+        SpanRecorder.recordStage(PipelineStage.BROKER_DWELL, 1_000);
+        spanRecorder.end();
+
+        // Assert
+        assertTrue(sampled);
+        List<SpanRecorder.Span> spans = spanRecorder.getSpans("n-1", 10);
+        assertEquals(1, spans.size());
+        assertEquals("consumer-1", spans.get(0).node());
+        assertFalse(spanRecorder.isTraceSampled("n-1"));
+    }
+
+    @Test
+    void begin_ShouldJoinTraceAlreadyActiveOnThread() {
+        // Arrange
+        assertTrue(spanRecorder.begin("n-1"));
+
+        // Act
+        boolean nested = spanRecorder.begin("n-1");
+        SpanRecorder.recordStage(PipelineStage.STATUS_WRITE, 1_000);
+        spanRecorder.end();
+
+        // Assert
+        assertFalse(nested);
+        assertEquals(1, spanRecorder.getSpans("n-1", 10).size());
+    }
+
+    @Test
+    void recordStage_ShouldIgnoreStagesOutsideTrace() {
+        // Act
+        SpanRecorder.recordStage(PipelineStage.VALIDATION, 1_000);
+
+        // Assert
+        assertTrue(spanRecorder.getSpans(null, 10).isEmpty());
+    }
+
+    @Test
+    void getSpans_ShouldKeepOnlyLatestSpansWhenBufferWraps() {
+        // Act
+        for (int i = 0; i < 20; i++) {
+            spanRecorder.begin("n-" + i);
+            SpanRecorder.recordStage(PipelineStage.DB_INSERT, 1_000);
+            spanRecorder.end();
+        }
+
+        // Assert
+        List<SpanRecorder.Span> spans = spanRecorder.getSpans(null, 100);
+        assertEquals(8, spans.size());
+        assertEquals("n-19", spans.get(0).notificationId());
+        assertEquals("n-12", spans.get(7).notificationId());
+        assertTrue(spanRecorder.getSpans("n-3", 10).isEmpty());
+    }
+
+    @Test
+    void isSampled_ShouldBeStableForNotificationId() {
+        // Arrange
+        spanRecorder = recorder(10.0, 8);
+
+        // Act
+        long sampled = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (spanRecorder.isSampled("notification-" + i)) {
+                sampled++;
+            }
+        }
+
+        // Assert
+        assertEquals(spanRecorder.isSampled("notification-1"), spanRecorder.isSampled("notification-1"));
+        assertTrue(sampled > 800 && sampled < 1200, "sampled " + sampled);
+    }
+
+    private static SpanRecorder recorder(double samplePercent, int bufferSize) {
+        SpanRecorder recorder = new SpanRecorder();
+        ReflectionTestUtils.setField(recorder, "samplePercent", samplePercent);
+        ReflectionTestUtils.setField(recorder, "bufferSize", bufferSize);
+        recorder.init();
+        return recorder;
+    }
+}
@@ -0,0 +1,124 @@
+package com.notificationservice.service;
+
+import com.notificationservice.repository.NotificationRepository;
+import com.notificationservice.service.StatusCountsService.Dimension;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatusCountsServiceTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    private MeterRegistry meterRegistry;
+    private StatusCountsService statusCountsService;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        statusCountsService = new StatusCountsService(notificationRepository, meterRegistry);
+    }
+
+    @Test
+    void getCounts_ShouldLoadFromDatabaseOnceAndThenFollowTransitions() {
+        // Arrange
+        when(notificationRepository.countByTypeStatusAndPriority()).thenReturn(List.of(
+                new Object[]{"EMAIL", "PENDING", "NORMAL", 5L},
+                new Object[]{"EMAIL", "SENT", "HIGH", 3L},
+                new Object[]{"PUSH", "SENT", "NORMAL", 2L}));
+        assertEquals(Map.of("PENDING", 5L, "SENT", 5L), statusCountsService.getCounts(Dimension.STATUS));
+
+        // Act
+        statusCountsService.onStatusTransition(transition(null, "PENDING", "PUSH", "HIGH"));
+        statusCountsService.onStatusTransition(transition("PENDING", "SENT", "EMAIL", "NORMAL"));
+        statusCountsService.onStatusTransition(transition("PENDING", "FAILED", "EMAIL", "NORMAL"));
+
+        // Assert
+        assertEquals(Map.of("PENDING", 4L, "SENT", 6L, "FAILED", 1L), statusCountsService.getCounts(Dimension.STATUS));
+        assertEquals(Map.of("EMAIL", 8L, "PUSH", 3L), statusCountsService.getCounts(Dimension.TYPE));
+        assertEquals(Map.of("NORMAL", 7L, "HIGH", 4L), statusCountsService.getCounts(Dimension.PRIORITY));
+        verify(notificationRepository, times(1)).countByTypeStatusAndPriority();
+    }
+
+    @Test
+    void reconcile_ShouldReplayTransitionsObservedDuringTheQuery() {
+        // Arrange
+        when(notificationRepository.countByTypeStatusAndPriority()).thenAnswer(invocation -> {
+            // Committed after the query took its snapshot, so not part of the rows below
+            statusCountsService.onStatusTransition(transition("PENDING", "SENT", "EMAIL", "NORMAL"));
+            return List.<Object[]>of(new Object[]{"EMAIL", "PENDING", "NORMAL", 10L});
+        });
+
+        // Act
+        statusCountsService.reconcile();
+
+        // Assert
+        assertEquals(Map.of("PENDING", 9L, "SENT", 1L), statusCountsService.getCounts(Dimension.STATUS));
+    }
+
+    @Test
+    void reconcile_ShouldExposeGaugesPerValue() {
+        // Arrange
+        when(notificationRepository.countByTypeStatusAndPriority()).thenReturn(List.<Object[]>of(
+                new Object[]{"EMAIL", "PENDING", "NORMAL", 10L}));
+
+        // Act
+        statusCountsService.reconcile();
+        statusCountsService.onStatusTransition(transition("PENDING", "SENT", "EMAIL", "NORMAL"));
+
+        // Assert
+        assertEquals(9.0, meterRegistry.get("notification.current.status").tag("status", "PENDING").gauge().value());
+        assertEquals(10.0, meterRegistry.get("notification.current.type").tag("type", "EMAIL").gauge().value());
+    }
+
+    @Test
+    void reconcile_WhenQueryFails_ShouldKeepPreviousCounts() {
+        // Arrange
+        when(notificationRepository.countByTypeStatusAndPriority())
+                .thenReturn(List.<Object[]>of(new Object[]{"EMAIL", "SENT", "NORMAL", 4L}))
+                .thenThrow(new RuntimeException("connection lost"));
+        statusCountsService.reconcile();
+
+        // Act
+        statusCountsService.reconcile();
+        statusCountsService.onStatusTransition(transition(null, "PENDING", "EMAIL", "NORMAL"));
+
+        // Assert
+        assertEquals(Map.of("SENT", 4L, "PENDING", 1L), statusCountsService.getCounts(Dimension.STATUS));
+    }
+
+    @Test
+    void onStatusTransition_Aggregated_ShouldMoveTheWholeCount() {
+        // Arrange
+        when(notificationRepository.countByTypeStatusAndPriority()).thenReturn(List.<Object[]>of(
+                new Object[]{"EMAIL", "PENDING", "NORMAL", 50L}));
+        statusCountsService.reconcile();
+
+        // Act
+        statusCountsService.onStatusTransition(StatusTransition.aggregate("EMAIL", "NORMAL", "job-1",
+                LocalDateTime.now(), "PENDING", "CANCELLED", 30));
+
+        // Assert
+        assertEquals(Map.of("PENDING", 20L, "CANCELLED", 30L), statusCountsService.getCounts(Dimension.STATUS));
+        assertEquals(Map.of("EMAIL", 50L), statusCountsService.getCounts(Dimension.TYPE));
+    }
+
+    private StatusTransition transition(String previousStatus, String status, String type, String priority) {
+        LocalDateTime now = LocalDateTime.now();
+        return new StatusTransition("n-1", type, "user@example.com", priority, null, null, previousStatus, null,
+                status, null, now, null, now, 1);
+    }
+}
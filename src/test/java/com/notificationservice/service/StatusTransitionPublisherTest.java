@@ -0,0 +1,91 @@
+package com.notificationservice.service;
+
+import com.notificationservice.entity.Notification;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatusTransitionPublisherTest {
+
+    @Mock
+    private ObjectProvider<StatusTransitionObserver> observers;
+
+    @Mock
+    private StatusTransitionObserver observer;
+
+    private StatusTransitionPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(observers.orderedStream()).thenAnswer(invocation -> Stream.of(observer));
+        publisher = new StatusTransitionPublisher(observers);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void statusChanged_WithoutTransaction_ShouldNotifyImmediately() {
+        // Act
+        publisher.statusChanged(createNotification("SENT"), "PENDING");
+
+        // Assert
+        ArgumentCaptor<StatusTransition> transition = ArgumentCaptor.forClass(StatusTransition.class);
+        verify(observer).onStatusTransition(transition.capture());
+        assertEquals("n-1", transition.getValue().notificationId());
+        assertEquals("campaign-1", transition.getValue().campaignId());
+        assertEquals("PENDING", transition.getValue().previousStatus());
+        assertEquals("SENT", transition.getValue().status());
+    }
+
+    @Test
+    void statusChanged_InTransaction_ShouldWaitForCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        publisher.statusChanged(createNotification("FAILED"), "PENDING");
+
+        // Assert
+        verifyNoInteractions(observer);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(observer).onStatusTransition(any(StatusTransition.class));
+    }
+
+    @Test
+    void statusChanged_WhenObserverFails_ShouldNotPropagate() {
+        // Arrange
+        doThrow(new IllegalStateException("boom")).when(observer).onStatusTransition(any());
+
+        // Act & Assert
+        assertDoesNotThrow(() -> publisher.statusChanged(createNotification("SENT"), "PENDING"));
+    }
+
+    private Notification createNotification(String status) {
+        Notification notification = new Notification();
+        notification.setId("n-1");
+        notification.setType("EMAIL");
+        notification.setStatus(status);
+        notification.setPriority("NORMAL");
+        notification.setCampaignId("campaign-1");
+        return notification;
+    }
+}
@@ -0,0 +1,88 @@
+package com.notificationservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.notificationservice.entity.RecipientSketchSnapshot;
+import com.notificationservice.repository.RecipientSketchSnapshotRepository;
+import com.notificationservice.service.SpaceSavingSketch.Estimate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TopRecipientsServiceTest {
+
+    @Mock
+    private RecipientSketchSnapshotRepository snapshotRepository;
+
+    private TopRecipientsService topRecipientsService;
+
+    @BeforeEach
+    void setUp() {
+        topRecipientsService = new TopRecipientsService(snapshotRepository, new ObjectMapper());
+    }
+
+    @Test
+    void top_ShouldCountOnlySentNotifications() {
+        // Arrange
+        send("a@example.com", "SENT");
+        send("a@example.com", "SENT");
+        send("b@example.com", "SENT");
+        send("b@example.com", "FAILED");
+        send("b@example.com", "PENDING");
+
+        // Act
+        List<Estimate> top = topRecipientsService.top(5, TopRecipientsService.Window.HOUR);
+
+        // Assert
+        assertEquals(List.of(new Estimate("a@example.com", 2, 0), new Estimate("b@example.com", 1, 0)), top);
+    }
+
+    @Test
+    void snapshot_ShouldStoreLocalSketchAndMergeOtherReplicas() {
+        // Arrange
+        LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        send("a@example.com", "SENT");
+        RecipientSketchSnapshot remote = new RecipientSketchSnapshot();
+        remote.setId("remote-1");
+        remote.setHourStart(hour);
+        remote.setTotal(3);
+        remote.setPayload("[[\"b@example.com\",3,0]]");
+        when(snapshotRepository.findByReplicaIdAndHourStart(anyString(), eq(hour))).thenReturn(Optional.empty());
+        when(snapshotRepository.findByReplicaIdNotAndHourStartGreaterThanEqual(anyString(), any()))
+                .thenReturn(List.of(remote));
+
+        // Act
+        topRecipientsService.snapshot();
+
+        // Assert
+        ArgumentCaptor<RecipientSketchSnapshot> stored = ArgumentCaptor.forClass(RecipientSketchSnapshot.class);
+        verify(snapshotRepository).save(stored.capture());
+        assertEquals("[[\"a@example.com\",1,0]]", stored.getValue().getPayload());
+        assertEquals(1, stored.getValue().getTotal());
+        assertEquals(List.of(new Estimate("b@example.com", 3, 0), new Estimate("a@example.com", 1, 0)),
+                topRecipientsService.top(5, TopRecipientsService.Window.DAY));
+        assertEquals(List.of(new Estimate("b@example.com", 3, 0), new Estimate("a@example.com", 1, 0)),
+                topRecipientsService.top(5, TopRecipientsService.Window.HOUR));
+
+        // unchanged sketches are not written again
+        topRecipientsService.snapshot();
+        verify(snapshotRepository, times(1)).save(any());
+    }
+
+    private void send(String recipient, String status) {
+        topRecipientsService.onStatusTransition(new StatusTransition("n-1", "EMAIL", recipient, "NORMAL", "smtp",
+                null, "PENDING", null, status, null, LocalDateTime.now(), null, LocalDateTime.now(), 1));
+    }
+}
@@ -0,0 +1,64 @@
+package com.notificationservice.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ErrorFingerprintTest {
+
+    @Test
+    void of_ShouldGroupMessagesDifferingOnlyInVariableTokens() {
+        // Arrange
+        ErrorFingerprint first = ErrorFingerprint.of(
+                "Failed to send email to alice@example.com: 550 5.1.1 mailbox unavailable (id 12345)");
+        ErrorFingerprint second = ErrorFingerprint.of(
+                "Failed to send email to bob@test.org: 550 5.1.1 mailbox unavailable (id 98765)");
+
+        // Assert
+        assertEquals(first.fingerprint(), second.fingerprint());
+        assertEquals("INVALID_RECIPIENT", first.category());
+        assertEquals("Failed to send email to <email>: <n> <n> mailbox unavailable (id <n>)", first.template());
+        assertEquals(ErrorFingerprint.FINGERPRINT_LENGTH, first.fingerprint().length());
+    }
+
+    @Test
+    void of_ShouldSeparateDifferentCauses() {
+        // Act
+        ErrorFingerprint timeout = ErrorFingerprint.of("Read timed out after 30000 ms");
+        ErrorFingerprint refused = ErrorFingerprint.of("Connection refused: smtp.example.com/10.0.0.12:587");
+
+        // Assert
+        assertNotEquals(timeout.fingerprint(), refused.fingerprint());
+        assertEquals("TIMEOUT", timeout.category());
+        assertEquals("CONNECTION", refused.category());
+        assertTrue(refused.template().contains("<ip>"));
+    }
+
+    @Test
+    void of_ShouldCategorizeByStatusCode() {
+        assertEquals("RATE_LIMITED", ErrorFingerprint.of("421 4.7.0 Try again later").category());
+        assertEquals("AUTHENTICATION", ErrorFingerprint.of("535 5.7.8 Bad username or password").category());
+    }
+
+    @Test
+    void of_ShouldNormalizeIdentifiersAndQuotedValues() {
+        // Act
+        ErrorFingerprint fingerprint = ErrorFingerprint.of(
+                "Template 'welcome-v2' not found for 3f2b8c1e-9a4d-4e2b-8f1a-0c9d7e6b5a41 at 2024-05-01T10:15:30Z");
+
+        // Assert
+        assertEquals("Template <str> not found for <uuid> at <time>", fingerprint.template());
+        assertEquals("TEMPLATE", fingerprint.category());
+    }
+
+    @Test
+    void of_ShouldFallBackToUnknownAndTruncateLongMessages() {
+        // Act
+        ErrorFingerprint fingerprint = ErrorFingerprint.of("Something odd " + "x".repeat(500));
+
+        // Assert
+        assertEquals(ErrorFingerprint.UNKNOWN, fingerprint.category());
+        assertEquals(ErrorFingerprint.MAX_TEMPLATE_LENGTH, fingerprint.template().length());
+        assertNull(ErrorFingerprint.of(null));
+    }
+}